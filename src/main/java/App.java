@@ -2,6 +2,15 @@ import api.controller.CurrencyController;
 import api.controller.LoanApplicantController;
 import api.controller.LoanController;
 import api.controller.LoanTypeController;
+import api.controller.MetricsController;
+import api.controller.base.WireFormat;
+import api.http.HttpTransport;
+import api.http.jdk.JdkHttpTransport;
+import api.http.spark.SparkTransport;
+import api.server.AdmissionControl;
+import api.server.RateLimitControl;
+import api.server.ResponseCompressor;
+import api.server.ServerThreadPool;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import db.Database;
@@ -9,11 +18,13 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import spark.Spark;
 import util.config.Props;
+import util.typeadapters.DTOTypeAdapterFactory;
 import util.typeadapters.LocalDateTypeAdapter;
 
 import java.time.LocalDate;
 
 public class App {
+    private static final String TRANSPORT_JDK = "jdk";
     private static final Logger logger = LogManager.getLogger(App.class);
 
     /**
@@ -32,28 +43,68 @@ public class App {
      * Starts the API to listen for requests.
      */
     public static void startApi() {
-        Spark.ipAddress(Props.getApiHost());
-        Spark.port(Props.getApiPort());
+        HttpTransport transport = createTransport();
         Gson gson = new GsonBuilder()
             .registerTypeAdapter(LocalDate.class, new LocalDateTypeAdapter())
+            .registerTypeAdapterFactory(new DTOTypeAdapterFactory())
             .create();
 
+        // Rate limiting, which runs first so that clients over their limit are rejected before they are queued
+        RateLimitControl rateLimitControl = null;
+        if (Props.isApiRateLimitEnabled()) {
+            rateLimitControl = new RateLimitControl(gson);
+            rateLimitControl.init(transport);
+        }
+
+        // Response compression, applied as the routes write their bodies
+        ResponseCompressor responseCompressor = null;
+        if (Props.isApiCompressionEnabled()) {
+            responseCompressor = new ResponseCompressor();
+        }
+        WireFormat wireFormat = new WireFormat(gson, responseCompressor);
+
+        // Admission control, which must be in place before the routes it guards
+        AdmissionControl admissionControl = new AdmissionControl(gson);
+        admissionControl.init(transport, "/loanApplicants", "/loans");
+
         // Loan Applicants
-        LoanApplicantController loanApplicantController = new LoanApplicantController(gson);
-        loanApplicantController.init();
+        LoanApplicantController loanApplicantController = new LoanApplicantController(gson, wireFormat);
+        loanApplicantController.init(transport);
 
         // Loans
-        LoanController loanController = new LoanController(gson);
-        loanController.init();
+        LoanController loanController = new LoanController(gson, wireFormat);
+        loanController.init(transport);
 
         // Currencies
-        CurrencyController currencyController = new CurrencyController(gson);
-        currencyController.init();
+        CurrencyController currencyController = new CurrencyController(gson, wireFormat);
+        currencyController.init(transport);
 
         // Loan Types
-        LoanTypeController loanTypeController = new LoanTypeController(gson);
-        loanTypeController.init();
+        LoanTypeController loanTypeController = new LoanTypeController(gson, wireFormat);
+        loanTypeController.init(transport);
+
+        // Metrics
+        MetricsController metricsController = new MetricsController(wireFormat, admissionControl, rateLimitControl);
+        metricsController.init(transport);
+
+        transport.start();
+    }
 
-        Spark.awaitInitialization();
+    /**
+     * Creates the HTTP transport that serves the API, as set by api.transport: Spark on Jetty ("spark", the default)
+     * or the JDK's built-in HTTP server ("jdk").
+     *
+     * @return The HTTP transport.
+     */
+    private static HttpTransport createTransport() {
+        if (TRANSPORT_JDK.equals(Props.getApiTransport())) {
+            logger.info("Serving the API with the JDK HTTP server");
+            return new JdkHttpTransport(Props.getApiHost(), Props.getApiPort(), ServerThreadPool.createExecutor());
+        }
+
+        Spark.ipAddress(Props.getApiHost());
+        Spark.port(Props.getApiPort());
+        ServerThreadPool.configure();
+        return new SparkTransport();
     }
 }
@@ -1,12 +1,18 @@
 package api.controller;
 
+import api.controller.base.IController;
+import api.controller.base.SerializedResponseCache;
+import api.controller.base.WireFormat;
 import api.converter.CurrencyConverter;
+import api.http.ApiRequest;
+import api.http.ApiResponse;
+import api.http.HttpTransport;
 import com.google.gson.Gson;
 import db.dao.CurrencyDAO;
 import db.model.Currency;
+import defs.dto.CurrencyDTO;
 import defs.errors.base.APIError;
-import spark.Request;
-import spark.Response;
+import util.config.Props;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -14,26 +20,25 @@ import java.util.stream.Collectors;
 /**
  * Class for handling currency API requests.
  */
-public class CurrencyController {
-    private final Gson gson;
+public class CurrencyController implements IController {
     private final CurrencyDAO dao;
     private final CurrencyConverter converter;
+    private final SerializedResponseCache<List<Currency>> responses;
+    private final WireFormat wireFormat;
 
-    public CurrencyController(Gson gson) {
-        this.gson = gson;
+    public CurrencyController(Gson gson, WireFormat wireFormat) {
         this.dao = new CurrencyDAO();
         this.converter = new CurrencyConverter();
+        this.responses = new SerializedResponseCache<>(all -> gson.toJson(toDTOs(all)));
+        this.wireFormat = wireFormat;
     }
 
-    /**
-     * Initialises all the routes to listen for API requests.
-     */
-    public void init() {
+    @Override
+    public void init(HttpTransport transport) {
         // List Currencies
-        spark.Spark.get(
+        transport.get(
             "/currencies",
-            this::getAllCurrencies,
-            gson::toJson);
+            wireFormat.json(this::getAllCurrencies));
     }
 
     /**
@@ -43,14 +48,23 @@ public class CurrencyController {
      * @param response The API response.
      * @return A list of all currencies or an error body if an error occurred.
      */
-    private Object getAllCurrencies(Request request, Response response) {
+    private Object getAllCurrencies(ApiRequest request, ApiResponse response) {
         response.header("content-type", "application/json");
         try {
-            List<Currency> currencies = dao.findAll();
-            return currencies.stream().map(converter::toDTO).collect(Collectors.toList());
+            return responses.respond(dao.findAll(), request, response, Props.getApiCacheControlCurrencies());
         } catch (Exception e) {
             response.status(500);
             return new APIError("Server error", 500);
         }
     }
+
+    /**
+     * Converts currencies to the DTOs returned by the API.
+     *
+     * @param currencies The currencies to convert.
+     * @return The converted currencies.
+     */
+    private List<CurrencyDTO> toDTOs(List<Currency> currencies) {
+        return currencies.stream().map(converter::toDTO).collect(Collectors.toList());
+    }
 }
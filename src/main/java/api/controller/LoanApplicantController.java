@@ -1,78 +1,123 @@
 package api.controller;
 
+import api.controller.base.BatchCreator;
+import api.controller.base.ConditionalRequest;
+import api.controller.base.FieldSelection;
+import api.controller.base.IController;
+import api.controller.base.JsonArrayStreamer;
+import api.controller.base.NdjsonImporter;
+import api.controller.base.PageRequest;
+import api.controller.base.WireFormat;
 import api.converter.IncomeSourceConverter;
 import api.converter.LoanApplicantConverter;
 import api.converter.RecurringExpenseConverter;
+import api.http.ApiRequest;
+import api.http.ApiResponse;
+import api.http.HttpTransport;
 import com.google.gson.Gson;
 import db.Database;
+import db.dao.IncomeSourceDAO;
 import db.dao.LoanApplicantDAO;
+import db.dao.RecurringExpenseDAO;
 import db.model.IncomeSource;
 import db.model.LoanApplicant;
 import db.model.RecurringExpense;
+import defs.dto.BatchResultDTO;
 import defs.dto.IncomeSourceDTO;
 import defs.dto.LoanApplicantDTO;
+import defs.dto.PageDTO;
 import defs.dto.RecurringExpenseDTO;
+import defs.errors.BadSyntaxException;
+import defs.errors.IllegalIDFieldException;
 import defs.errors.ServerErrorException;
 import defs.errors.base.APIError;
 import defs.errors.base.APIException;
 import defs.other.Success;
 import org.hibernate.Session;
-import spark.Request;
-import spark.Response;
+import util.config.Props;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 /**
  * Class for handling loan applicant API requests.
  */
-public class LoanApplicantController {
+public class LoanApplicantController implements IController {
     private final Gson gson;
     private final LoanApplicantDAO dao;
     private final LoanApplicantConverter converter;
+    private final IncomeSourceDAO incomeSourceDAO;
+    private final RecurringExpenseDAO recurringExpenseDAO;
+    private final BatchCreator<LoanApplicantDTO, LoanApplicant> batchCreator;
+    private final NdjsonImporter<LoanApplicantDTO, LoanApplicant> importer;
+    private final WireFormat wireFormat;
 
-    public LoanApplicantController(Gson gson) {
+    public LoanApplicantController(Gson gson, WireFormat wireFormat) {
         this.gson = gson;
         this.dao = new LoanApplicantDAO();
         this.converter = new LoanApplicantConverter();
+        this.incomeSourceDAO = new IncomeSourceDAO();
+        this.recurringExpenseDAO = new RecurringExpenseDAO();
+        this.batchCreator = new BatchCreator<>(LoanApplicantDTO[].class, dao::saveAllInTransaction,
+            LoanApplicant::getId);
+        this.importer = new NdjsonImporter<>(gson, LoanApplicantDTO.class, this::toValidNewLoanApplicant,
+            dao::saveAllInTransaction);
+        this.wireFormat = wireFormat;
     }
 
-    /**
-     * Initialises all the routes to listen for API requests.
-     */
-    public void init() {
+    @Override
+    public void init(HttpTransport transport) {
         // List Loan Applicants
-        spark.Spark.get(
+        transport.get(
             "/loanApplicants",
-            this::getAllLoanApplicants,
-            gson::toJson);
+            wireFormat.negotiated(this::getAllLoanApplicants));
+
+        // Export Loan Applicants
+        transport.get(
+            "/loanApplicants/export",
+            this::exportLoanApplicants);
 
         // Get Loan Applicant by ID
-        spark.Spark.get(
+        transport.get(
             "/loanApplicants/:id",
-            this::getLoanApplicantById,
-            gson::toJson);
+            wireFormat.negotiated(this::getLoanApplicantById));
 
         // Create Loan Applicant
-        spark.Spark.post(
+        transport.post(
             "/loanApplicants",
-            this::saveLoanApplicant,
-            gson::toJson);
+            wireFormat.negotiated(this::saveLoanApplicant));
+
+        // Create Loan Applicants in Batch
+        transport.post(
+            "/loanApplicants/batch",
+            wireFormat.negotiated(this::saveLoanApplicantBatch));
+
+        // Import Loan Applicants from NDJSON
+        transport.post(
+            "/loanApplicants/import",
+            importer::importFrom);
     }
 
     /**
-     * Retrieves all loan applicants.
+     * Retrieves a page of loan applicants, ordered by ID. The page size is set with the "limit" query parameter and the
+     * page starts after the ID given in the "after" query parameter, which should be the "nextCursor" of the previous
+     * page. The "fields" query parameter limits the loan applicants to the listed fields, plus the ID.
      *
      * @param request  The API request.
      * @param response The API response.
-     * @return A list of all loan applicants or an error body if an error occurred.
+     * @return A page of loan applicants or an error body if an error occurred.
      */
-    private Object getAllLoanApplicants(Request request, Response response) {
+    private Object getAllLoanApplicants(ApiRequest request, ApiResponse response) {
         response.header("content-type", "application/json");
         try {
-            List<LoanApplicant> loanApplicants = dao.findAll();
-            return loanApplicants.stream().map(converter::toDTO).collect(Collectors.toList());
+            PageRequest page = PageRequest.fromRequest(request);
+            Set<String> fields = FieldSelection.fromRequest(request, LoanApplicantDAO.DTO_FIELDS);
+            List<LoanApplicantDTO> loanApplicants = fields == null
+                ? dao.findDTOPage(page.getAfterId(), page.getLimit() + 1)
+                : dao.findDTOPage(page.getAfterId(), page.getLimit() + 1, fields);
+            return PageDTO.fromResults(loanApplicants, page.getLimit(), LoanApplicantDTO::getId);
         } catch (APIException e) {
             response.status(e.getApiError().getStatusCode());
             return e.getApiError();
@@ -83,21 +128,54 @@ public class LoanApplicantController {
     }
 
     /**
-     * Retrieves a loan applicant by its ID.
+     * Exports all loan applicants as a single JSON array. The loan applicants are read a page at a time and written one
+     * at a time, so memory use does not depend on how many loan applicants there are.
+     *
+     * @param request  The API request.
+     * @param response The API response.
+     * @return An empty body once the loan applicants have been written, or an error body if an error occurred.
+     */
+    private Object exportLoanApplicants(ApiRequest request, ApiResponse response) {
+        response.header("content-type", "application/json");
+        return JsonArrayStreamer.stream(gson, response, LoanApplicantDTO.class,
+            dao::streamDTOs);
+    }
+
+    /**
+     * Retrieves a loan applicant by its ID. The "fields" query parameter limits the loan applicant to the listed
+     * fields, plus the ID.
      *
      * @param request  The API request.
      * @param response The API response.
      * @return A loan applicant or an error body if it was not found or another error occurred.
      */
-    private Object getLoanApplicantById(Request request, Response response) {
+    private Object getLoanApplicantById(ApiRequest request, ApiResponse response) {
         response.header("content-type", "application/json");
         try {
-            Long id = Long.parseLong(request.params(":id"));
-            LoanApplicant loanApplicant = dao.find(id);
+            Long id = Long.parseLong(request.param(":id"));
+            Set<String> fields = FieldSelection.fromRequest(request, LoanApplicantDAO.DTO_FIELDS);
+            String cacheControl = Props.getApiCacheControlLoanApplicants();
+            if (ConditionalRequest.isConditional(request)) {
+                String etag = etag(id, dao.findVersion(id), fields);
+                if (ConditionalRequest.isNotModified(request, etag)) {
+                    return ConditionalRequest.notModified(request, response, etag, cacheControl);
+                }
+            }
+
+            if (fields != null) {
+                // The version is read first, so the ETag can only be older than the fields, never newer
+                long version = dao.findVersion(id);
+                LoanApplicantDTO loanApplicantDTO = dao.findDTO(id, fields);
+                ConditionalRequest.tag(response, etag(id, version, fields), cacheControl);
+                return loanApplicantDTO;
+            }
+
+            LoanApplicant loanApplicant = dao.find(id, LoanApplicantDAO.DETAIL);
             if (loanApplicant == null) {
                 response.status(404);
                 return new APIError("Not found", 404);
             }
+            ConditionalRequest.tag(response, etag(id, loanApplicant.getVersion(), null), cacheControl);
             return converter.toDTO(loanApplicant);
         } catch (APIException e) {
             response.status(e.getApiError().getStatusCode());
@@ -108,6 +186,22 @@ public class LoanApplicantController {
         }
     }
 
+    /**
+     * Builds the ETag of a loan applicant, which also depends on the requested fields as each fieldset is a different
+     * representation. The version of a loan applicant is incremented whenever its income sources or recurring expenses
+     * are written, so the ETag also changes with the children in the representation.
+     *
+     * @param id      The ID of the loan applicant.
+     * @param version The version of the loan applicant.
+     * @param fields  The requested fields, or null if every field was requested.
+     * @return The quoted ETag.
+     */
+    private static String etag(Long id, long version, Set<String> fields) {
+        return fields == null
+            ? ConditionalRequest.etag("loanApplicant", id, version)
+            : ConditionalRequest.etag("loanApplicant", id, version, FieldSelection.key(fields));
+    }
+
     /**
      * Saves a loan applicant entered via POST body.
      *
@@ -115,12 +209,12 @@ public class LoanApplicantController {
      * @param response The API response.
      * @return An empty body if successful or an error body if the request was malformed or another error occurred.
      */
-    private Object saveLoanApplicant(Request request, Response response) {
+    private Object saveLoanApplicant(ApiRequest request, ApiResponse response) {
         response.header("content-type", "application/json");
         try {
+            LoanApplicantDTO loanApplicantDTO = wireFormat.fromBody(request, LoanApplicantDTO.class);
             Optional<LoanApplicant> savedApplicant = Database.getInstance().performDatabaseAction((Session session) -> {
                 // Save the loan applicant
-                LoanApplicantDTO loanApplicantDTO = gson.fromJson(request.body(), LoanApplicantDTO.class);
                 LoanApplicant loanApplicant = converter.toModel(loanApplicantDTO);
                 session.persist(loanApplicant);
 
@@ -158,4 +252,72 @@ public class LoanApplicantController {
             return new APIError("Server error", 500);
         }
     }
+
+    /**
+     * Saves a batch of loan applicants, with their income sources and recurring expenses, entered as a JSON array via
+     * POST body. All loan applicants are validated before any are saved.
+     *
+     * @param request  The API request.
+     * @param response The API response.
+     * @return The result of every loan applicant in the batch (its ID or an error), or an error body if the request
+     * was malformed or another error occurred.
+     */
+    private Object saveLoanApplicantBatch(ApiRequest request, ApiResponse response) {
+        response.header("content-type", "application/json");
+        try {
+            List<LoanApplicantDTO> loanApplicantDTOs = batchCreator.parse(wireFormat, request);
+            BatchResultDTO result = batchCreator.create(loanApplicantDTOs, this::toValidNewLoanApplicant);
+
+            response.status(result.getFailed() == 0 ? 201 : 207);
+            return result;
+        } catch (APIException e) {
+            response.status(e.getApiError().getStatusCode());
+            return e.getApiError();
+        } catch (Exception e) {
+            response.status(500);
+            return new APIError("Server error", 500);
+        }
+    }
+
+    /**
+     * Converts a new loan applicant DTO, with its income sources and recurring expenses, to a database entity and
+     * validates all of them.
+     *
+     * @param loanApplicantDTO The loan applicant DTO to convert.
+     * @return A validated loan applicant database entity, with its income sources and recurring expenses attached.
+     * @throws IllegalIDFieldException When the loan applicant ID is already set.
+     * @throws BadSyntaxException      When any of the fields are invalid.
+     */
+    private LoanApplicant toValidNewLoanApplicant(LoanApplicantDTO loanApplicantDTO) {
+        if (loanApplicantDTO.getId() != null) {
+            throw new IllegalIDFieldException("Object identifier already set");
+        }
+        LoanApplicant loanApplicant = converter.toModel(loanApplicantDTO);
+        dao.validate(loanApplicant);
+
+        IncomeSourceConverter incConverter = new IncomeSourceConverter();
+        List<IncomeSource> incomeSources = new ArrayList<>();
+        if (loanApplicantDTO.getIncomeSources() != null) {
+            for (IncomeSourceDTO incomeSourceDTO : loanApplicantDTO.getIncomeSources()) {
+                IncomeSource incomeSource = incConverter.toModelNewApplicant(incomeSourceDTO, loanApplicant);
+                incomeSourceDAO.validate(incomeSource);
+                incomeSources.add(incomeSource);
+            }
+        }
+        loanApplicant.setIncomeSources(incomeSources);
+
+        RecurringExpenseConverter expConverter = new RecurringExpenseConverter();
+        List<RecurringExpense> recurringExpenses = new ArrayList<>();
+        if (loanApplicantDTO.getRecurringExpenses() != null) {
+            for (RecurringExpenseDTO recurringExpenseDTO : loanApplicantDTO.getRecurringExpenses()) {
+                RecurringExpense recurringExpense =
+                    expConverter.toModelNewApplicant(recurringExpenseDTO, loanApplicant);
+                recurringExpenseDAO.validate(recurringExpense);
+                recurringExpenses.add(recurringExpense);
+            }
+        }
+        loanApplicant.setRecurringExpenses(recurringExpenses);
+
+        return loanApplicant;
+    }
 }
@@ -1,68 +1,98 @@
 package api.controller;
 
+import api.controller.base.BatchCreator;
+import api.controller.base.ConditionalRequest;
+import api.controller.base.IController;
+import api.controller.base.JsonArrayStreamer;
+import api.controller.base.PageRequest;
+import api.controller.base.WireFormat;
 import api.converter.LoanConverter;
+import api.http.ApiRequest;
+import api.http.ApiResponse;
+import api.http.HttpTransport;
 import com.google.gson.Gson;
+import db.dao.LoanApplicantDAO;
 import db.dao.LoanDAO;
 import db.model.Loan;
+import db.model.LoanApplicant;
+import defs.dto.BatchResultDTO;
 import defs.dto.LoanDTO;
+import defs.dto.PageDTO;
+import defs.errors.BadSyntaxException;
+import defs.errors.IllegalIDFieldException;
+import defs.errors.NotFoundException;
 import defs.errors.base.APIError;
 import defs.errors.base.APIException;
 import defs.other.Success;
-import spark.Request;
-import spark.Response;
+import util.config.Props;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
  * Class for handling loan API requests.
  */
-public class LoanController {
+public class LoanController implements IController {
     private final Gson gson;
     private final LoanDAO dao;
     private final LoanConverter converter;
+    private final LoanApplicantDAO loanApplicantDAO;
+    private final BatchCreator<LoanDTO, Loan> batchCreator;
+    private final WireFormat wireFormat;
 
-    public LoanController(Gson gson) {
+    public LoanController(Gson gson, WireFormat wireFormat) {
         this.gson = gson;
         this.dao = new LoanDAO();
         this.converter = new LoanConverter();
+        this.loanApplicantDAO = new LoanApplicantDAO();
+        this.batchCreator = new BatchCreator<>(LoanDTO[].class, dao::saveAllInTransaction, Loan::getId);
+        this.wireFormat = wireFormat;
     }
 
-    /**
-     * Initialises all the routes to listen for API requests.
-     */
-    public void init() {
+    @Override
+    public void init(HttpTransport transport) {
         // List Loans
-        spark.Spark.get(
+        transport.get(
             "/loans",
-            this::getAllLoans,
-            gson::toJson);
+            wireFormat.negotiated(this::getAllLoans));
+
+        // Export Loans
+        transport.get(
+            "/loans/export",
+            this::exportLoans);
 
         // Get Loan by ID
-        spark.Spark.get(
+        transport.get(
             "/loans/:id",
-            this::getLoanById,
-            gson::toJson);
+            wireFormat.negotiated(this::getLoanById));
 
         // Create Loan
-        spark.Spark.post(
+        transport.post(
             "/loans",
-            this::saveLoan,
-            gson::toJson);
+            wireFormat.negotiated(this::saveLoan));
+
+        // Create Loans in Batch
+        transport.post(
+            "/loans/batch",
+            wireFormat.negotiated(this::saveLoanBatch));
     }
 
     /**
-     * Retrieves all loans.
+     * Retrieves a page of loans, ordered by ID. The page size is set with the "limit" query parameter and the page
+     * starts after the ID given in the "after" query parameter, which should be the "nextCursor" of the previous page.
      *
      * @param request  The API request.
      * @param response The API response.
-     * @return A list of all loans or an error body if an error occurred.
+     * @return A page of loans or an error body if an error occurred.
      */
-    private Object getAllLoans(Request request, Response response) {
+    private Object getAllLoans(ApiRequest request, ApiResponse response) {
         response.header("content-type", "application/json");
         try {
-            List<Loan> loans = dao.findAll();
-            return loans.stream().map(converter::toDTO).collect(Collectors.toList());
+            PageRequest page = PageRequest.fromRequest(request);
+            List<LoanDTO> loans = dao.findDTOPage(page.getAfterId(), page.getLimit() + 1);
+            return PageDTO.fromResults(loans, page.getLimit(), LoanDTO::getId);
         } catch (APIException e) {
             response.status(e.getApiError().getStatusCode());
             return e.getApiError();
@@ -72,6 +102,20 @@ public class LoanController {
         }
     }
 
+    /**
+     * Exports all loans as a single JSON array. The loans are read and written one at a time, so memory use does
+     * not depend on how many loans there are.
+     *
+     * @param request  The API request.
+     * @param response The API response.
+     * @return An empty body once the loans have been written, or an error body if an error occurred.
+     */
+    private Object exportLoans(ApiRequest request, ApiResponse response) {
+        response.header("content-type", "application/json");
+        return JsonArrayStreamer.stream(gson, response, LoanDTO.class,
+            consumer -> dao.streamAll(loan -> consumer.accept(converter.toDTO(loan))));
+    }
+
     /**
      * Retrieves a loan by its ID.
      *
@@ -79,15 +123,24 @@ public class LoanController {
      * @param response The API response.
      * @return A loan or an error body if it was not found or another error occurred.
      */
-    private Object getLoanById(Request request, Response response) {
+    private Object getLoanById(ApiRequest request, ApiResponse response) {
         response.header("content-type", "application/json");
         try {
-            Long id = Long.parseLong(request.params(":id"));
+            Long id = Long.parseLong(request.param(":id"));
+            String cacheControl = Props.getApiCacheControlLoans();
+            if (ConditionalRequest.isConditional(request)) {
+                String etag = ConditionalRequest.etag("loan", id, dao.findVersion(id));
+                if (ConditionalRequest.isNotModified(request, etag)) {
+                    return ConditionalRequest.notModified(request, response, etag, cacheControl);
+                }
+            }
+
             Loan loan = dao.find(id);
             if (loan == null) {
                 response.status(404);
                 return new APIError("Not found", 404);
             }
+            ConditionalRequest.tag(response, ConditionalRequest.etag("loan", id, loan.getVersion()), cacheControl);
             return converter.toDTO(loan);
         } catch (APIException e) {
             response.status(e.getApiError().getStatusCode());
@@ -105,11 +158,11 @@ public class LoanController {
      * @param response The API response.
      * @return An empty body if successful or an error body if the request was malformed or another error occurred.
      */
-    private Object saveLoan(Request request, Response response) {
+    private Object saveLoan(ApiRequest request, ApiResponse response) {
 
         try {
             response.header("content-type", "application/json");
-            LoanDTO loanDTO = gson.fromJson(request.body(), LoanDTO.class);
+            LoanDTO loanDTO = wireFormat.fromBody(request, LoanDTO.class);
             Loan loan = converter.toModel(loanDTO);
             dao.save(loan);
 
@@ -123,4 +176,54 @@ public class LoanController {
             return new APIError("Server error", 500);
         }
     }
+
+    /**
+     * Saves a batch of loans entered as a JSON array via POST body. All loans are validated before any are saved, and
+     * the applicants of all loans are checked with a single query.
+     *
+     * @param request  The API request.
+     * @param response The API response.
+     * @return The result of every loan in the batch (its ID or an error), or an error body if the request was
+     * malformed or another error occurred.
+     */
+    private Object saveLoanBatch(ApiRequest request, ApiResponse response) {
+        response.header("content-type", "application/json");
+        try {
+            List<LoanDTO> loanDTOs = batchCreator.parse(wireFormat, request);
+            Set<Long> applicantIds = loanApplicantDAO.findExistingIds(loanDTOs.stream()
+                .filter(Objects::nonNull)
+                .map(LoanDTO::getApplicantId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+
+            BatchResultDTO result = batchCreator.create(loanDTOs, loanDTO -> {
+                if (loanDTO.getId() != null) {
+                    throw new IllegalIDFieldException("Object identifier already set");
+                }
+                Long applicantId = loanDTO.getApplicantId();
+                if (applicantId == null) {
+                    throw new BadSyntaxException("Missing applicant ID");
+                }
+                if (!applicantIds.contains(applicantId)) {
+                    throw new NotFoundException("Not found", applicantId);
+                }
+
+                // The applicant is known to exist, so only its ID is needed to reference it
+                LoanApplicant loanApplicant = new LoanApplicant();
+                loanApplicant.setId(applicantId);
+                Loan loan = converter.toModelWithApplicant(loanDTO, loanApplicant);
+                dao.validate(loan);
+                return loan;
+            });
+
+            response.status(result.getFailed() == 0 ? 201 : 207);
+            return result;
+        } catch (APIException e) {
+            response.status(e.getApiError().getStatusCode());
+            return e.getApiError();
+        } catch (Exception e) {
+            response.status(500);
+            return new APIError("Server error", 500);
+        }
+    }
 }
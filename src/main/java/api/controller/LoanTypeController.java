@@ -1,12 +1,18 @@
 package api.controller;
 
+import api.controller.base.IController;
+import api.controller.base.SerializedResponseCache;
+import api.controller.base.WireFormat;
 import api.converter.LoanTypeConverter;
+import api.http.ApiRequest;
+import api.http.ApiResponse;
+import api.http.HttpTransport;
 import com.google.gson.Gson;
 import db.dao.LoanTypeDAO;
 import db.model.LoanType;
+import defs.dto.LoanTypeDTO;
 import defs.errors.base.APIError;
-import spark.Request;
-import spark.Response;
+import util.config.Props;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -14,26 +20,25 @@ import java.util.stream.Collectors;
 /**
  * Class for handling currency API requests.
  */
-public class LoanTypeController {
-    private final Gson gson;
+public class LoanTypeController implements IController {
     private final LoanTypeDAO dao;
     private final LoanTypeConverter converter;
+    private final SerializedResponseCache<List<LoanType>> responses;
+    private final WireFormat wireFormat;
 
-    public LoanTypeController(Gson gson) {
-        this.gson = gson;
+    public LoanTypeController(Gson gson, WireFormat wireFormat) {
         this.dao = new LoanTypeDAO();
         this.converter = new LoanTypeConverter();
+        this.responses = new SerializedResponseCache<>(all -> gson.toJson(toDTOs(all)));
+        this.wireFormat = wireFormat;
     }
 
-    /**
-     * Initialises all the routes to listen for API requests.
-     */
-    public void init() {
+    @Override
+    public void init(HttpTransport transport) {
         // List Currencies
-        spark.Spark.get(
+        transport.get(
             "/loanTypes",
-            this::getAllLoanTypes,
-            gson::toJson);
+            wireFormat.json(this::getAllLoanTypes));
     }
 
     /**
@@ -43,14 +48,23 @@ public class LoanTypeController {
      * @param response The API response.
      * @return A list of all loan types or an error body if an error occurred.
      */
-    private Object getAllLoanTypes(Request request, Response response) {
+    private Object getAllLoanTypes(ApiRequest request, ApiResponse response) {
         response.header("content-type", "application/json");
         try {
-            List<LoanType> loanTypes = dao.findAll();
-            return loanTypes.stream().map(converter::toDTO).collect(Collectors.toList());
+            return responses.respond(dao.findAll(), request, response, Props.getApiCacheControlLoanTypes());
         } catch (Exception e) {
             response.status(500);
             return new APIError("Server error", 500);
         }
     }
+
+    /**
+     * Converts loan types to the DTOs returned by the API.
+     *
+     * @param loanTypes The loan types to convert.
+     * @return The converted loan types.
+     */
+    private List<LoanTypeDTO> toDTOs(List<LoanType> loanTypes) {
+        return loanTypes.stream().map(converter::toDTO).collect(Collectors.toList());
+    }
 }
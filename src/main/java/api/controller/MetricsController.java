@@ -0,0 +1,115 @@
+package api.controller;
+
+import api.controller.base.IController;
+import api.controller.base.WireFormat;
+import api.http.ApiRequest;
+import api.http.ApiResponse;
+import api.http.HttpTransport;
+import api.server.AdmissionControl;
+import api.server.AdmissionGate;
+import api.server.RateLimitControl;
+import api.server.RateLimiter;
+import db.Database;
+import db.pool.PoolMetrics;
+import defs.dto.AdmissionGateMetricsDTO;
+import defs.dto.ConnectionPoolMetricsDTO;
+import defs.dto.MetricsDTO;
+import defs.dto.RateLimitMetricsDTO;
+import defs.errors.base.APIError;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class for handling metrics API requests.
+ */
+public class MetricsController implements IController {
+    private final WireFormat wireFormat;
+    private final AdmissionControl admissionControl;
+    private final RateLimitControl rateLimitControl;
+
+    /**
+     * Creates a metrics controller.
+     *
+     * @param wireFormat       The wire format to write responses with.
+     * @param admissionControl The admission control to report on.
+     * @param rateLimitControl The rate limiting to report on, or null if rate limiting is disabled.
+     */
+    public MetricsController(WireFormat wireFormat, AdmissionControl admissionControl,
+                             RateLimitControl rateLimitControl) {
+        this.wireFormat = wireFormat;
+        this.admissionControl = admissionControl;
+        this.rateLimitControl = rateLimitControl;
+    }
+
+    @Override
+    public void init(HttpTransport transport) {
+        // Get Metrics
+        transport.get(
+            "/metrics",
+            wireFormat.json(this::getMetrics));
+    }
+
+    /**
+     * Retrieves the current admission control, rate limiting and connection pool metrics.
+     *
+     * @param request  The API request.
+     * @param response The API response.
+     * @return The current metrics or an error body if an error occurred.
+     */
+    private Object getMetrics(ApiRequest request, ApiResponse response) {
+        response.header("content-type", "application/json");
+        try {
+            List<RateLimitMetricsDTO> rateLimits = new ArrayList<>();
+            if (rateLimitControl != null) {
+                for (RateLimiter limiter : rateLimitControl.getLimiters()) {
+                    rateLimits.add(toDTO(limiter.snapshot()));
+                }
+            }
+            return new MetricsDTO(
+                Arrays.asList(toDTO(admissionControl.getReadGate().snapshot()),
+                    toDTO(admissionControl.getWriteGate().snapshot())),
+                rateLimits, toDTO(Database.getInstance().getPoolMetrics()));
+        } catch (Exception e) {
+            response.status(500);
+            return new APIError("Server error", 500);
+        }
+    }
+
+    /**
+     * Converts the metrics of an admission gate to a DTO.
+     *
+     * @param snapshot The admission gate metrics.
+     * @return An admission gate metrics DTO.
+     */
+    private static AdmissionGateMetricsDTO toDTO(AdmissionGate.Snapshot snapshot) {
+        return new AdmissionGateMetricsDTO(snapshot.getName(), snapshot.getAvailablePermits(), snapshot.getQueued(),
+            snapshot.getAdmitted(), snapshot.getRejectedQueueFull(), snapshot.getRejectedTimeout(),
+            snapshot.getAverageWaitMicros(), snapshot.getMaxWaitMicros());
+    }
+
+    /**
+     * Converts the metrics of a rate limiter to a DTO.
+     *
+     * @param snapshot The rate limiter metrics.
+     * @return A rate limit metrics DTO.
+     */
+    private static RateLimitMetricsDTO toDTO(RateLimiter.Snapshot snapshot) {
+        return new RateLimitMetricsDTO(snapshot.getRoute(), snapshot.getRatePerSecond(), snapshot.getBurst(),
+            snapshot.getClients(), snapshot.getAllowed(), snapshot.getRejected());
+    }
+
+    /**
+     * Converts the metrics of the connection pool to a DTO.
+     *
+     * @param snapshot The connection pool metrics.
+     * @return A connection pool metrics DTO.
+     */
+    private static ConnectionPoolMetricsDTO toDTO(PoolMetrics.Snapshot snapshot) {
+        return new ConnectionPoolMetricsDTO(snapshot.getActiveConnections(), snapshot.getIdleConnections(),
+            snapshot.getTotalConnections(), snapshot.getMaxConnections(), snapshot.getPendingThreads(),
+            snapshot.getAcquisitions(), snapshot.getTimeouts(), snapshot.getAverageWaitMicros(),
+            snapshot.getMaxWaitMicros(), snapshot.getAverageUsageMillis());
+    }
+}
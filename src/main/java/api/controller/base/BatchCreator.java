@@ -0,0 +1,131 @@
+package api.controller.base;
+
+import api.http.ApiRequest;
+import com.google.gson.JsonParseException;
+import defs.dto.BatchItemResultDTO;
+import defs.dto.BatchResultDTO;
+import defs.errors.BadSyntaxException;
+import defs.errors.base.APIError;
+import defs.errors.base.APIException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import util.config.Props;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Creates a batch of entities from an array of DTOs, reporting a result for every item. All items are converted and
+ * validated up front; the valid ones are then saved in chunks, each in its own transaction. An invalid item, or a
+ * chunk that fails to save, only fails the items concerned, so partial failures are reported precisely.
+ *
+ * @param <EntityDTO> The DTO type of the items in the batch.
+ * @param <Entity>    The entity type the items are saved as.
+ */
+public class BatchCreator<EntityDTO, Entity> {
+    private final Class<EntityDTO[]> arrayClass;
+    private final ToLongFunction<List<Entity>> chunkSaver;
+    private final Function<Entity, Long> idFunction;
+
+    private static final Logger logger = LogManager.getLogger(BatchCreator.class);
+
+    /**
+     * Creates a batch creator.
+     *
+     * @param arrayClass The array class of the DTOs, e.g. LoanDTO[].class.
+     * @param chunkSaver The function saving a chunk of entities in a single transaction, e.g. dao::saveAllInTransaction.
+     * @param idFunction The function returning the ID of a saved entity, e.g. Loan::getId.
+     */
+    public BatchCreator(Class<EntityDTO[]> arrayClass, ToLongFunction<List<Entity>> chunkSaver,
+                        Function<Entity, Long> idFunction) {
+        this.arrayClass = arrayClass;
+        this.chunkSaver = chunkSaver;
+        this.idFunction = idFunction;
+    }
+
+    /**
+     * Parses an array of DTOs from a request body, in the format given by its Content-Type header.
+     *
+     * @param wireFormat The wire format to parse with.
+     * @param request    The API request.
+     * @return The DTOs in the batch.
+     * @throws BadSyntaxException When the body is not an array, or the batch is empty or too large.
+     */
+    public List<EntityDTO> parse(WireFormat wireFormat, ApiRequest request) {
+        EntityDTO[] items;
+        try {
+            items = wireFormat.fromBody(request, arrayClass);
+        } catch (JsonParseException e) {
+            throw new BadSyntaxException("Batch must be a JSON array");
+        }
+        if (items == null || items.length == 0) {
+            throw new BadSyntaxException("Batch must not be empty");
+        }
+        if (items.length > Props.getApiBatchMaxSize()) {
+            throw new BadSyntaxException("Batch must not contain more than " + Props.getApiBatchMaxSize() + " items");
+        }
+        return Arrays.asList(items);
+    }
+
+    /**
+     * Converts, validates and saves a batch of DTOs.
+     *
+     * @param items     The DTOs in the batch.
+     * @param converter The function converting a DTO to a validated entity, throwing an APIException if it is invalid.
+     * @return The result of every item, in the order of the batch.
+     */
+    public BatchResultDTO create(List<EntityDTO> items, Function<EntityDTO, Entity> converter) {
+        BatchItemResultDTO[] results = new BatchItemResultDTO[items.size()];
+        List<Entity> entities = new ArrayList<>(items.size());
+        List<Integer> indexes = new ArrayList<>(items.size());
+
+        // Convert and validate every item before anything is saved
+        for (int i = 0; i < items.size(); i++) {
+            try {
+                EntityDTO item = items.get(i);
+                if (item == null) {
+                    throw new BadSyntaxException("Batch item must not be null");
+                }
+                entities.add(converter.apply(item));
+                indexes.add(i);
+            } catch (APIException e) {
+                results[i] = BatchItemResultDTO.failed(i, e.getApiError());
+            } catch (Exception e) {
+                results[i] = BatchItemResultDTO.failed(i, new APIError("Server error", 500));
+            }
+        }
+
+        int chunkSize = Props.getDbBulkChunkSize();
+        for (int start = 0; start < entities.size(); start += chunkSize) {
+            int end = Math.min(start + chunkSize, entities.size());
+            List<Entity> chunk = entities.subList(start, end);
+            APIError chunkError = null;
+            try {
+                chunkSaver.applyAsLong(chunk);
+            } catch (APIException e) {
+                chunkError = e.getApiError();
+            } catch (Exception e) {
+                logger.error("Error saving batch chunk. Error: " + e.getMessage());
+                chunkError = new APIError("Server error", 500);
+            }
+
+            for (int i = start; i < end; i++) {
+                int index = indexes.get(i);
+                results[index] = chunkError == null
+                    ? BatchItemResultDTO.created(index, idFunction.apply(entities.get(i)))
+                    : BatchItemResultDTO.failed(index, chunkError);
+            }
+        }
+
+        int created = 0;
+        for (BatchItemResultDTO result : results) {
+            if (result.getError() == null) {
+                created++;
+            }
+        }
+        return new BatchResultDTO(created, results.length - created, Arrays.asList(results));
+    }
+}
@@ -0,0 +1,167 @@
+package api.controller.base;
+
+import api.http.ApiRequest;
+import api.http.ApiResponse;
+import defs.errors.ServerErrorException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Support for conditional GET requests. Responses are tagged with a strong ETag and a Cache-Control header, and a
+ * request whose If-None-Match header matches the current ETag is answered with a 304 and no body.
+ */
+public class ConditionalRequest {
+    private static final String IF_NONE_MATCH_HEADER = "If-None-Match";
+    private static final String[] ENCODING_SUFFIXES = {"-gzip", "-deflate"};
+    private static final int HASH_LENGTH = 18;
+
+    private ConditionalRequest() {
+    }
+
+    /**
+     * Builds a strong ETag from its parts, e.g. the entity name, its ID and its version.
+     *
+     * @param parts The parts of the ETag.
+     * @return The quoted ETag.
+     */
+    public static String etag(Object... parts) {
+        StringBuilder etag = new StringBuilder("\"");
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                etag.append('-');
+            }
+            etag.append(parts[i]);
+        }
+        return etag.append('"').toString();
+    }
+
+    /**
+     * Builds a strong ETag from a hash of some content, e.g. a serialized response body.
+     *
+     * @param content The content to hash.
+     * @return The quoted ETag.
+     */
+    public static String contentEtag(String content) {
+        return contentEtag(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Builds a strong ETag from a hash of some content, e.g. a serialized response body.
+     *
+     * @param content The content to hash.
+     * @return The quoted ETag.
+     */
+    public static String contentEtag(byte[] content) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(content);
+            byte[] prefix = new byte[HASH_LENGTH];
+            System.arraycopy(hash, 0, prefix, 0, HASH_LENGTH);
+            return etag(Base64.getUrlEncoder().withoutPadding().encodeToString(prefix));
+        } catch (NoSuchAlgorithmException e) {
+            throw new ServerErrorException(e.getMessage());
+        }
+    }
+
+    /**
+     * Checks whether the request carries an If-None-Match header, i.e. whether it is worth working out the ETag before
+     * doing anything more expensive.
+     *
+     * @param request The API request.
+     * @return True if the request is conditional.
+     */
+    public static boolean isConditional(ApiRequest request) {
+        return request.header(IF_NONE_MATCH_HEADER) != null;
+    }
+
+    /**
+     * Checks whether the client already has the current representation, i.e. whether its If-None-Match header lists
+     * the given ETag or "*". ETags that were suffixed by response compression are matched to their uncompressed form,
+     * and the ETag is matched in the format negotiated for the response.
+     *
+     * @param request The API request.
+     * @param etag    The current ETag.
+     * @return True if a 304 should be returned.
+     */
+    public static boolean isNotModified(ApiRequest request, String etag) {
+        return findMatch(request, etag) != null;
+    }
+
+    /**
+     * Sets the ETag and Cache-Control headers of a response.
+     *
+     * @param response     The API response.
+     * @param etag         The current ETag.
+     * @param cacheControl The Cache-Control header value for the route.
+     */
+    public static void tag(ApiResponse response, String etag, String cacheControl) {
+        response.header("ETag", etag);
+        response.header("Cache-Control", cacheControl);
+    }
+
+    /**
+     * Answers the request with a 304 and no body. The 304 repeats the ETag the client matched, including any suffix
+     * added by response compression or for the response format. The response is committed straight away, so nothing
+     * returned by the route afterwards is serialized or written.
+     *
+     * @param request      The API request.
+     * @param response     The API response.
+     * @param etag         The current ETag.
+     * @param cacheControl The Cache-Control header value for the route.
+     * @return Null, for the route to return.
+     */
+    public static Object notModified(ApiRequest request, ApiResponse response, String etag, String cacheControl) {
+        String match = findMatch(request, etag);
+        tag(response, match == null || "*".equals(match) ? WireFormat.etag(request, etag) : match, cacheControl);
+        response.status(304);
+        try {
+            response.flush();
+        } catch (IOException e) {
+            throw new ServerErrorException(e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Finds the entry of the If-None-Match header that matches the current ETag.
+     *
+     * @param request The API request.
+     * @param etag    The current ETag.
+     * @return The matching entry without any W/ prefix, "*", or null if nothing matches.
+     */
+    private static String findMatch(ApiRequest request, String etag) {
+        String ifNoneMatch = request.header(IF_NONE_MATCH_HEADER);
+        if (ifNoneMatch == null) {
+            return null;
+        }
+
+        String representationEtag = WireFormat.etag(request, etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if ("*".equals(candidate)) {
+                return candidate;
+            }
+            // If-None-Match uses the weak comparison, so a W/ prefix is ignored
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (representationEtag.equals(stripEncodingSuffix(candidate))) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static String stripEncodingSuffix(String etag) {
+        for (String suffix : ENCODING_SUFFIXES) {
+            int suffixStart = etag.length() - suffix.length() - 1;
+            if (suffixStart > 0 && etag.endsWith("\"") && etag.startsWith(suffix, suffixStart)) {
+                return etag.substring(0, suffixStart) + "\"";
+            }
+        }
+        return etag;
+    }
+}
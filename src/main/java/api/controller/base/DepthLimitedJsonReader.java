@@ -0,0 +1,106 @@
+package api.controller.base;
+
+import com.google.gson.stream.JsonReader;
+import defs.errors.BadSyntaxException;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A JsonReader that fails documents nested deeper than a maximum, before Gson's type adapters recurse into them.
+ * Skipped values (e.g. unknown members) are skipped through the same limit.
+ */
+class DepthLimitedJsonReader extends JsonReader {
+    private final int maxDepth;
+    private int depth;
+
+    /**
+     * Creates a reader.
+     *
+     * @param in       The JSON to read.
+     * @param maxDepth The deepest nesting of arrays and objects allowed.
+     */
+    DepthLimitedJsonReader(Reader in, int maxDepth) {
+        super(in);
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws BadSyntaxException When the array is nested too deeply.
+     */
+    @Override
+    public void beginArray() throws IOException {
+        enter();
+        super.beginArray();
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        super.endArray();
+        depth--;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws BadSyntaxException When the object is nested too deeply.
+     */
+    @Override
+    public void beginObject() throws IOException {
+        enter();
+        super.beginObject();
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        super.endObject();
+        depth--;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Arrays and objects are skipped one level at a time, so that their depth is checked as well.
+     *
+     * @throws BadSyntaxException When a skipped value is nested too deeply.
+     */
+    @Override
+    public void skipValue() throws IOException {
+        int skipDepth = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_ARRAY:
+                    beginArray();
+                    skipDepth++;
+                    break;
+                case BEGIN_OBJECT:
+                    beginObject();
+                    skipDepth++;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    skipDepth--;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    skipDepth--;
+                    break;
+                case END_DOCUMENT:
+                    return;
+                default:
+                    // A name or a primitive value
+                    super.skipValue();
+                    break;
+            }
+        } while (skipDepth > 0);
+    }
+
+    private void enter() {
+        if (depth == maxDepth) {
+            throw new BadSyntaxException("Body must not be nested more than " + maxDepth + " levels deep");
+        }
+        depth++;
+    }
+}
@@ -0,0 +1,69 @@
+package api.controller.base;
+
+import api.http.ApiRequest;
+import defs.errors.BadSyntaxException;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The sparse fieldset of a request, i.e. the DTO members listed in the comma-separated "fields" query parameter, e.g.
+ * ?fields=firstName,lastName,emailAddress. Only the selected members are read from the database and written.
+ */
+public class FieldSelection {
+    private static final String FIELDS_PARAM = "fields";
+
+    private FieldSelection() {
+    }
+
+    /**
+     * Reads the requested fields from the query string of a request.
+     *
+     * @param request       The API request.
+     * @param allowedFields The fields that can be selected, in the order they are written.
+     * @return The requested fields in the order of the allowed fields, or null if no fields were requested, in which
+     * case every field should be returned.
+     * @throws BadSyntaxException When the parameter is empty or lists a field that cannot be selected.
+     */
+    public static Set<String> fromRequest(ApiRequest request, Set<String> allowedFields) {
+        String fieldsParam = request.queryParam(FIELDS_PARAM);
+        if (fieldsParam == null) {
+            return null;
+        }
+
+        Set<String> requested = new HashSet<>();
+        for (String field : fieldsParam.split(",")) {
+            field = field.trim();
+            if (field.isEmpty()) {
+                continue;
+            }
+            if (!allowedFields.contains(field)) {
+                throw new BadSyntaxException("Unknown field " + field);
+            }
+            requested.add(field);
+        }
+        if (requested.isEmpty()) {
+            throw new BadSyntaxException("Fields must not be empty");
+        }
+
+        Set<String> fields = new LinkedHashSet<>();
+        for (String field : allowedFields) {
+            if (requested.contains(field)) {
+                fields.add(field);
+            }
+        }
+        return Collections.unmodifiableSet(fields);
+    }
+
+    /**
+     * Joins the requested fields into a key, e.g. for an ETag, which is the same for the same fields in any order.
+     *
+     * @param fields The requested fields, as returned by fromRequest.
+     * @return The fields joined with ".".
+     */
+    public static String key(Set<String> fields) {
+        return String.join(".", fields);
+    }
+}
@@ -0,0 +1,16 @@
+package api.controller.base;
+
+import api.http.HttpTransport;
+
+/**
+ * A controller registers the routes of one part of the API with an HTTP transport, so it does not depend on the
+ * HTTP server behind it.
+ */
+public interface IController {
+    /**
+     * Initialises all the routes to listen for API requests.
+     *
+     * @param transport The HTTP transport to register the routes with.
+     */
+    void init(HttpTransport transport);
+}
@@ -0,0 +1,69 @@
+package api.controller.base;
+
+import api.http.ApiResponse;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import defs.errors.base.APIError;
+import defs.errors.base.APIException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Writes a JSON array straight to the response output stream, one element at a time, so that arbitrarily large
+ * listings can be returned without materialising them in memory.
+ */
+public class JsonArrayStreamer {
+    private static final Logger logger = LogManager.getLogger(JsonArrayStreamer.class);
+
+    /**
+     * A source of elements that pushes each element to a consumer, e.g. a DAO streaming entities through a converter.
+     *
+     * @param <Element> The type of the elements.
+     */
+    @FunctionalInterface
+    public interface IElementSource<Element> {
+        long streamTo(Consumer<Element> consumer);
+    }
+
+    /**
+     * Streams the elements of a source to the response as a JSON array. If an error occurs before any output has been
+     * sent, the response is reset and an error body is returned instead. If an error occurs after output has been
+     * sent, the status can no longer be changed, so the error is logged and the response is truncated.
+     *
+     * @param gson        The Gson instance to serialise the elements with.
+     * @param response    The API response to write to.
+     * @param elementType The type of the elements, e.g. LoanDTO.class.
+     * @param source      The source of the elements.
+     * @param <Element>   The type of the elements.
+     * @return An empty body once the array has been written, or an error body if an error occurred.
+     */
+    public static <Element> Object stream(Gson gson, ApiResponse response, Type elementType,
+                                          IElementSource<Element> source) {
+        try {
+            JsonWriter writer = new JsonWriter(new BufferedWriter(
+                new OutputStreamWriter(response.outputStream(), StandardCharsets.UTF_8)));
+            writer.beginArray();
+            long count = source.streamTo(element -> gson.toJson(element, elementType, writer));
+            writer.endArray();
+            writer.flush();
+            logger.debug("Streamed " + count + " elements");
+            return "";
+        } catch (Exception e) {
+            if (response.isCommitted()) {
+                logger.error("Error while streaming response, response truncated. Error: " + e.getMessage());
+                return "";
+            }
+            response.resetBuffer();
+            APIError apiError = e instanceof APIException ? ((APIException) e).getApiError() :
+                new APIError("Server error", 500);
+            response.status(apiError.getStatusCode());
+            return gson.toJson(apiError);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package api.controller.base;
+
+import defs.errors.PayloadTooLargeException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Counts the bytes read from a request body, and fails the read that takes it past the maximum body size. This covers
+ * bodies without a Content-Length (e.g. chunked ones) and bodies that are longer than they claim, so a body is never
+ * read much further than the limit.
+ */
+class LimitedInputStream extends FilterInputStream {
+    private final long maxSize;
+    private long count;
+
+    /**
+     * Creates a limited stream.
+     *
+     * @param in      The request body.
+     * @param maxSize The maximum number of bytes that may be read.
+     */
+    LimitedInputStream(InputStream in, long maxSize) {
+        super(in);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws PayloadTooLargeException When the body is larger than the maximum size.
+     */
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b >= 0) {
+            counted(1);
+        }
+        return b;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws PayloadTooLargeException When the body is larger than the maximum size.
+     */
+    @Override
+    public int read(byte[] b, int offset, int length) throws IOException {
+        int read = in.read(b, offset, length);
+        if (read > 0) {
+            counted(read);
+        }
+        return read;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws PayloadTooLargeException When the body is larger than the maximum size.
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = in.skip(n);
+        if (skipped > 0) {
+            counted(skipped);
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void counted(long read) {
+        count += read;
+        if (count > maxSize) {
+            throw new PayloadTooLargeException("Body must not be larger than " + maxSize + " bytes");
+        }
+    }
+}
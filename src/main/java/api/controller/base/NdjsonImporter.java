@@ -0,0 +1,242 @@
+package api.controller.base;
+
+import api.http.ApiRequest;
+import api.http.ApiResponse;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import defs.dto.ImportErrorDTO;
+import defs.dto.ImportProgressDTO;
+import defs.errors.BadSyntaxException;
+import defs.errors.base.APIError;
+import defs.errors.base.APIException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import util.config.Props;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Imports newline-delimited JSON (one DTO per line) from a request body. The body is read incrementally from the
+ * request stream, one line at a time, and each record is converted and validated as it is read. Valid records are
+ * saved in fixed-size chunks, each committed in its own transaction, so memory use depends on the chunk size and the
+ * maximum line length but not on the size of the upload.
+ * <p>
+ * Progress is streamed back as newline-delimited JSON while the import runs: an error line for every line that could
+ * not be imported, a progress line after every committed chunk, and a final progress line once the body has been read.
+ *
+ * @param <EntityDTO> The DTO type of the records.
+ * @param <Entity>    The entity type the records are saved as.
+ */
+public class NdjsonImporter<EntityDTO, Entity> {
+    private final Gson gson;
+    private final Class<EntityDTO> dtoClass;
+    private final Function<EntityDTO, Entity> converter;
+    private final ToLongFunction<List<Entity>> chunkSaver;
+
+    private static final String CONTENT_TYPE = "application/x-ndjson";
+    private static final Logger logger = LogManager.getLogger(NdjsonImporter.class);
+
+    /**
+     * Creates an importer.
+     *
+     * @param gson       The Gson instance to parse records and write progress with.
+     * @param dtoClass   The DTO class of the records, e.g. LoanApplicantDTO.class.
+     * @param converter  The function converting a DTO to a validated entity, throwing an APIException if it is invalid.
+     * @param chunkSaver The function saving a chunk of entities in a single transaction, e.g. dao::saveAllInTransaction.
+     */
+    public NdjsonImporter(Gson gson, Class<EntityDTO> dtoClass, Function<EntityDTO, Entity> converter,
+                          ToLongFunction<List<Entity>> chunkSaver) {
+        this.gson = gson;
+        this.dtoClass = dtoClass;
+        this.converter = converter;
+        this.chunkSaver = chunkSaver;
+    }
+
+    /**
+     * Imports the records in the request body, streaming progress to the response.
+     *
+     * @param request  The API request.
+     * @param response The API response.
+     * @return An empty body once the import has finished, as everything has already been written.
+     */
+    public Object importFrom(ApiRequest request, ApiResponse response) {
+        final int chunkSize = Props.getDbBulkChunkSize();
+        final int maxLineLength = Props.getApiImportMaxLineLength();
+        response.header("Content-Type", CONTENT_TYPE);
+
+        Progress progress = new Progress();
+        try (Reader reader = new BufferedReader(new InputStreamReader(request.bodyStream(),
+            StandardCharsets.UTF_8))) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(response.outputStream(),
+                StandardCharsets.UTF_8));
+            List<Entity> chunk = new ArrayList<>(chunkSize);
+            List<Long> chunkLines = new ArrayList<>(chunkSize);
+            StringBuilder line = new StringBuilder();
+
+            while (readLine(reader, line, maxLineLength)) {
+                long lineNumber = ++progress.lines;
+                if (line.length() > maxLineLength) {
+                    writeError(writer, progress, lineNumber,
+                        new BadSyntaxException("Line is longer than " + maxLineLength + " characters").getApiError());
+                    continue;
+                }
+                if (isBlank(line)) {
+                    continue;
+                }
+
+                try {
+                    chunk.add(converter.apply(parse(line)));
+                    chunkLines.add(lineNumber);
+                } catch (APIException e) {
+                    writeError(writer, progress, lineNumber, e.getApiError());
+                } catch (Exception e) {
+                    writeError(writer, progress, lineNumber, new APIError("Server error", 500));
+                }
+
+                if (chunk.size() == chunkSize) {
+                    saveChunk(writer, progress, chunk, chunkLines);
+                }
+            }
+            saveChunk(writer, progress, chunk, chunkLines);
+
+            writeLine(writer, ImportProgressDTO.class,
+                new ImportProgressDTO(progress.lines, progress.imported, progress.failed, true));
+            writer.flush();
+            logger.info("Imported " + progress.imported + " records from " + progress.lines + " lines, " +
+                progress.failed + " failed");
+        } catch (IOException e) {
+            // The client has gone away, or the body could not be read; chunks saved so far are kept
+            logger.error("Error while importing, import stopped after line " + progress.lines + ". Error: " +
+                e.getMessage());
+        }
+        return "";
+    }
+
+    /**
+     * Parses a single record with a JsonReader, rejecting anything after the record on the same line.
+     *
+     * @param line The line holding the record.
+     * @return The parsed DTO.
+     * @throws BadSyntaxException When the line is not a single valid JSON record.
+     */
+    private EntityDTO parse(CharSequence line) {
+        try {
+            JsonReader jsonReader = new JsonReader(new StringReader(line.toString()));
+            EntityDTO dto = gson.fromJson(jsonReader, dtoClass);
+            if (dto == null || jsonReader.peek() != JsonToken.END_DOCUMENT) {
+                throw new BadSyntaxException("Line must contain a single JSON object");
+            }
+            return dto;
+        } catch (JsonParseException | IOException | IllegalStateException e) {
+            throw new BadSyntaxException("Invalid JSON");
+        }
+    }
+
+    /**
+     * Saves the records collected so far in a single transaction and reports the outcome. If the chunk fails to save,
+     * every line in it is reported as failed.
+     */
+    private void saveChunk(Writer writer, Progress progress, List<Entity> chunk, List<Long> chunkLines)
+        throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        APIError chunkError = null;
+        try {
+            chunkSaver.applyAsLong(chunk);
+            progress.imported += chunk.size();
+        } catch (APIException e) {
+            chunkError = e.getApiError();
+        } catch (Exception e) {
+            logger.error("Error saving import chunk. Error: " + e.getMessage());
+            chunkError = new APIError("Server error", 500);
+        }
+
+        if (chunkError != null) {
+            for (Long lineNumber : chunkLines) {
+                writeError(writer, progress, lineNumber, chunkError);
+            }
+        }
+        chunk.clear();
+        chunkLines.clear();
+
+        writeLine(writer, ImportProgressDTO.class,
+            new ImportProgressDTO(progress.lines, progress.imported, progress.failed, false));
+        writer.flush();
+    }
+
+    private void writeError(Writer writer, Progress progress, long lineNumber, APIError error) throws IOException {
+        progress.failed++;
+        writeLine(writer, ImportErrorDTO.class, new ImportErrorDTO(lineNumber, error));
+    }
+
+    /**
+     * Writes a DTO as a line of the response. The DTO is written by its type adapter rather than by Gson.toJson, which
+     * would wrap a failed write in an unchecked JsonIOException, so that a client going away surfaces as an IOException.
+     *
+     * @param writer    The writer of the response.
+     * @param lineClass The class of the DTO, e.g. ImportProgressDTO.class.
+     * @param line      The DTO to write.
+     * @param <Line>    The type of the DTO.
+     * @throws IOException If the line could not be written.
+     */
+    private <Line> void writeLine(Writer writer, Class<Line> lineClass, Line line) throws IOException {
+        gson.getAdapter(lineClass).write(gson.newJsonWriter(writer), line);
+        writer.write('\n');
+    }
+
+    /**
+     * Reads the next line into a buffer, without the line terminator. At most maxLength + 1 characters are kept, so
+     * an overlong line is detectable by its length while the rest of it is skipped.
+     *
+     * @param reader    The reader to read from.
+     * @param line      The buffer to read the line into, which is cleared first.
+     * @param maxLength The maximum line length.
+     * @return True if a line was read, or false at the end of the stream.
+     * @throws IOException If the stream could not be read.
+     */
+    private static boolean readLine(Reader reader, StringBuilder line, int maxLength) throws IOException {
+        line.setLength(0);
+        int c = reader.read();
+        if (c < 0) {
+            return false;
+        }
+        while (c >= 0 && c != '\n') {
+            if (c != '\r' && line.length() <= maxLength) {
+                line.append((char) c);
+            }
+            c = reader.read();
+        }
+        return true;
+    }
+
+    private static boolean isBlank(CharSequence line) {
+        for (int i = 0; i < line.length(); i++) {
+            if (!Character.isWhitespace(line.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class Progress {
+        private long lines;
+        private long imported;
+        private long failed;
+    }
+}
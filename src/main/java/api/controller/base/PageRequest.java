@@ -0,0 +1,58 @@
+package api.controller.base;
+
+import api.http.ApiRequest;
+import defs.errors.BadSyntaxException;
+import util.config.Props;
+
+/**
+ * The keyset pagination parameters of a list request, i.e. how many items to return and the ID to start after.
+ */
+public class PageRequest {
+    private final int limit;
+    private final Long afterId;
+
+    private static final String LIMIT_PARAM = "limit";
+    private static final String AFTER_PARAM = "after";
+
+    public PageRequest(int limit, Long afterId) {
+        this.limit = limit;
+        this.afterId = afterId;
+    }
+
+    /**
+     * Reads the pagination parameters from the query string of a request. The limit defaults to the configured page
+     * size and is capped at the configured maximum page size.
+     *
+     * @param request The API request.
+     * @return The pagination parameters.
+     * @throws BadSyntaxException When the limit or the after ID is not a valid number.
+     */
+    public static PageRequest fromRequest(ApiRequest request) {
+        int limit = Props.getApiPageDefaultLimit();
+        Long afterId = null;
+        try {
+            String limitParam = request.queryParam(LIMIT_PARAM);
+            if (limitParam != null) {
+                limit = Integer.parseInt(limitParam);
+            }
+            String afterParam = request.queryParam(AFTER_PARAM);
+            if (afterParam != null) {
+                afterId = Long.parseLong(afterParam);
+            }
+        } catch (NumberFormatException e) {
+            throw new BadSyntaxException("Page limit and cursor must be numbers");
+        }
+        if (limit < 1) {
+            throw new BadSyntaxException("Page limit must be at least 1");
+        }
+        return new PageRequest(Math.min(limit, Props.getApiPageMaxLimit()), afterId);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public Long getAfterId() {
+        return afterId;
+    }
+}
@@ -0,0 +1,217 @@
+package api.controller.base;
+
+import api.http.ApiResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A growable byte buffer that a response body is serialized into, so that the body can be sent with its
+ * Content-Length, or compressed, once it is complete. Buffers are pooled and reused across requests, and JSON is
+ * encoded to UTF-8 straight into the buffer, so serializing a response allocates neither a string nor a byte array.
+ * <p>
+ * A buffer can be told to stream once it grows past a threshold: from then on, whenever it reaches the threshold, its
+ * bytes are written to the response output stream, which the transport sends chunked.
+ */
+class ResponseBuffer extends OutputStream {
+    private final Utf8Writer writer = new Utf8Writer();
+    private byte[] bytes = new byte[INITIAL_CAPACITY];
+    private int count;
+    private ApiResponse response;
+    private int streamThreshold;
+    private OutputStream stream;
+
+    private static final int INITIAL_CAPACITY = 16 * 1024;
+    private static final int MAX_POOLED_CAPACITY = 1024 * 1024;
+    private static final int POOL_SIZE = 64;
+    private static final BlockingQueue<ResponseBuffer> POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private ResponseBuffer() {
+    }
+
+    /**
+     * Takes a buffer from the pool, or creates one if the pool is empty.
+     *
+     * @return An empty buffer.
+     */
+    static ResponseBuffer borrow() {
+        ResponseBuffer buffer = POOL.poll();
+        return buffer != null ? buffer : new ResponseBuffer();
+    }
+
+    /**
+     * Returns a buffer to the pool. A buffer that grew large for one big response is shrunk first, so that the pool
+     * does not hold on to the memory of the biggest responses it has seen.
+     *
+     * @param buffer The buffer, which must not be used afterwards.
+     */
+    static void giveBack(ResponseBuffer buffer) {
+        buffer.reset();
+        if (buffer.bytes.length > MAX_POOLED_CAPACITY) {
+            buffer.bytes = new byte[INITIAL_CAPACITY];
+        }
+        POOL.offer(buffer);
+    }
+
+    /**
+     * Streams the body to a response in parts of a threshold's size, rather than buffering all of it.
+     *
+     * @param response  The response to stream to.
+     * @param threshold The number of bytes to buffer before streaming.
+     */
+    void streamAfter(ApiResponse response, int threshold) {
+        this.response = response;
+        this.streamThreshold = threshold;
+    }
+
+    /**
+     * Returns the character stream that writes to this buffer in UTF-8.
+     *
+     * @return The character stream.
+     */
+    Writer writer() {
+        return writer;
+    }
+
+    /**
+     * Checks whether the body outgrew the threshold and is being streamed to the response, in which case the buffer
+     * only holds the rest of the body that has not been streamed yet.
+     *
+     * @return True if the body is being streamed.
+     */
+    boolean isStreaming() {
+        return stream != null;
+    }
+
+    /**
+     * Returns the array holding the buffered body, which may be longer than the body.
+     *
+     * @return The array.
+     */
+    byte[] bytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the length of the buffered body.
+     *
+     * @return The length in bytes.
+     */
+    int size() {
+        return count;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureCapacity(1);
+        bytes[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int offset, int length) throws IOException {
+        ensureCapacity(length);
+        System.arraycopy(b, offset, bytes, count, length);
+        count += length;
+    }
+
+    /**
+     * Makes room for bytes to be written, by streaming the buffered bytes if the buffer streams and has reached its
+     * threshold, or else by growing the buffer.
+     *
+     * @param length The number of bytes to make room for.
+     * @throws IOException If the buffered bytes could not be streamed.
+     */
+    private void ensureCapacity(int length) throws IOException {
+        if (response != null && count + length > streamThreshold && count > 0) {
+            if (stream == null) {
+                stream = response.outputStream();
+            }
+            stream.write(bytes, 0, count);
+            count = 0;
+        }
+        if (count + length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, count + length));
+        }
+    }
+
+    /**
+     * Empties the buffer, dropping whatever a body that failed part way left in it.
+     */
+    private void reset() {
+        response = null;
+        stream = null;
+        writer.highSurrogate = 0;
+        count = 0;
+    }
+
+    /**
+     * Encodes characters to UTF-8 straight into the buffer. Unlike an OutputStreamWriter, it does not wrap every write
+     * in a new CharBuffer, which matters as JsonWriter writes each name, value and separator separately. Unpaired
+     * surrogates are written as '?', as the JDK's encoder does.
+     */
+    private class Utf8Writer extends Writer {
+        private char highSurrogate;
+
+        @Override
+        public void write(int c) throws IOException {
+            writeChar((char) c);
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            for (int i = offset; i < offset + length; i++) {
+                writeChar(chars[i]);
+            }
+        }
+
+        @Override
+        public void write(String text, int offset, int length) throws IOException {
+            for (int i = offset; i < offset + length; i++) {
+                writeChar(text.charAt(i));
+            }
+        }
+
+        private void writeChar(char c) throws IOException {
+            if (highSurrogate != 0) {
+                char high = highSurrogate;
+                highSurrogate = 0;
+                if (Character.isLowSurrogate(c)) {
+                    int codePoint = Character.toCodePoint(high, c);
+                    ResponseBuffer.this.write(0xf0 | (codePoint >> 18));
+                    ResponseBuffer.this.write(0x80 | ((codePoint >> 12) & 0x3f));
+                    ResponseBuffer.this.write(0x80 | ((codePoint >> 6) & 0x3f));
+                    ResponseBuffer.this.write(0x80 | (codePoint & 0x3f));
+                    return;
+                }
+                ResponseBuffer.this.write('?');
+            }
+
+            if (c < 0x80) {
+                ResponseBuffer.this.write(c);
+            } else if (c < 0x800) {
+                ResponseBuffer.this.write(0xc0 | (c >> 6));
+                ResponseBuffer.this.write(0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c)) {
+                highSurrogate = c;
+            } else if (Character.isLowSurrogate(c)) {
+                ResponseBuffer.this.write('?');
+            } else {
+                ResponseBuffer.this.write(0xe0 | (c >> 12));
+                ResponseBuffer.this.write(0x80 | ((c >> 6) & 0x3f));
+                ResponseBuffer.this.write(0x80 | (c & 0x3f));
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package api.controller.base;
+
+import api.http.ApiRequest;
+import api.http.ApiResponse;
+import api.server.ResponseCompressor;
+import util.config.Props;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caches the final response bytes of an immutable source, such as a snapshot of a definition registry, together with
+ * a gzip variant and the ETag. The bytes are written straight to the response, so serving a cached response does not
+ * convert, serialize or compress anything.
+ * <p>
+ * Sources are compared by identity. When the source is replaced (e.g. the definitions are re-synchronised), the next
+ * request builds a new entry and swaps it in atomically, so readers always see a consistent set of bytes and ETag.
+ *
+ * @param <Source> The type of the source, e.g. List&lt;Currency&gt;.
+ */
+public class SerializedResponseCache<Source> {
+    private final Function<Source, String> serializer;
+    private volatile Entry<Source> entry;
+
+    private static final String CONTENT_TYPE = "application/json";
+
+    /**
+     * Creates an empty response cache.
+     *
+     * @param serializer The function serializing a source to its JSON response body.
+     */
+    public SerializedResponseCache(Function<Source, String> serializer) {
+        this.serializer = serializer;
+    }
+
+    /**
+     * Writes the cached response for a source, answering with a 304 if the client already has it.
+     *
+     * @param source       The source to respond with.
+     * @param request      The API request.
+     * @param response     The API response.
+     * @param cacheControl The Cache-Control header value for the route.
+     * @return Null, for the route to return, as the response has already been written.
+     * @throws IOException If the response could not be written.
+     */
+    public Object respond(Source source, ApiRequest request, ApiResponse response, String cacheControl)
+        throws IOException {
+        Entry<Source> current = get(source);
+        if (ConditionalRequest.isNotModified(request, current.etag)) {
+            return ConditionalRequest.notModified(request, response, current.etag, cacheControl);
+        }
+
+        response.header("Content-Type", CONTENT_TYPE);
+        response.header("Vary", "Accept-Encoding");
+        byte[] body = current.plain;
+        String etag = current.etag;
+        if (current.gzip != null
+            && ResponseCompressor.negotiate(request.header("Accept-Encoding")) == ResponseCompressor.Encoding.GZIP) {
+            response.header("Content-Encoding", ResponseCompressor.Encoding.GZIP.getToken());
+            body = current.gzip;
+            etag = current.gzipEtag;
+        }
+
+        ConditionalRequest.tag(response, etag, cacheControl);
+        response.contentLength(body.length);
+        response.outputStream().write(body);
+        response.flush();
+        return null;
+    }
+
+    /**
+     * Returns the cache entry for a source, building it if the source is not the one the entry was built for.
+     *
+     * @param source The source to get the entry for.
+     * @return The cache entry.
+     * @throws IOException If the gzip variant could not be built.
+     */
+    private Entry<Source> get(Source source) throws IOException {
+        Entry<Source> current = entry;
+        if (current != null && current.source == source) {
+            return current;
+        }
+        current = new Entry<>(source, serializer.apply(source).getBytes(StandardCharsets.UTF_8));
+        entry = current;
+        return current;
+    }
+
+    private static class Entry<Source> {
+        private final Source source;
+        private final byte[] plain;
+        private final byte[] gzip;
+        private final String etag;
+        private final String gzipEtag;
+
+        private Entry(Source source, byte[] plain) throws IOException {
+            this.source = source;
+            this.plain = plain;
+            this.etag = ConditionalRequest.contentEtag(plain);
+
+            // As with other responses, bodies under the minimum size are not worth compressing, and those that grow
+            // when compressed are only served plain
+            byte[] compressed = Props.isApiCompressionEnabled() && plain.length >= Props.getApiCompressionMinSize()
+                ? compress(plain) : null;
+            this.gzip = compressed != null && compressed.length < plain.length ? compressed : null;
+            this.gzipEtag = etag.substring(0, etag.length() - 1) + "-" +
+                ResponseCompressor.Encoding.GZIP.getToken() + "\"";
+        }
+
+        private static byte[] compress(byte[] plain) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(plain.length);
+            // The bytes are compressed once and served many times, so the best compression is worth the extra time
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+                {
+                    def.setLevel(Deflater.BEST_COMPRESSION);
+                }
+            }) {
+                gzip.write(plain);
+            }
+            return out.toByteArray();
+        }
+    }
+}
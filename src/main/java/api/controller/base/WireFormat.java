@@ -0,0 +1,295 @@
+package api.controller.base;
+
+import api.http.ApiRequest;
+import api.http.ApiResponse;
+import api.http.RouteHandler;
+import api.server.ResponseCompressor;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+import defs.errors.BadSyntaxException;
+import defs.errors.PayloadTooLargeException;
+import util.cbor.CborReader;
+import util.cbor.CborWriter;
+import util.config.Props;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Negotiates the format that DTOs are exchanged in. JSON is the default, and clients that list application/cbor in
+ * their Accept header (above JSON) get CBOR responses instead, which are smaller and cheaper to encode and decode.
+ * Request bodies sent with a Content-Type of application/cbor are read as CBOR.
+ * <p>
+ * Request bodies are parsed as they are read from the request stream, never held whole in memory, and bodies larger
+ * or nested deeper than configured are rejected.
+ * <p>
+ * Both formats are written and read by the same Gson type adapters, so a DTO has the same members in either format.
+ * <p>
+ * Responses are serialized straight into a pooled byte buffer rather than through a string, and sent with their
+ * Content-Length, or compressed when the client accepts it. A body that outgrows 256 KiB and is not going to be
+ * compressed is streamed to the client as it is serialized instead.
+ */
+public class WireFormat {
+    private final Gson gson;
+    private final ResponseCompressor compressor;
+    private final long maxBodySize;
+    private final int maxDepth;
+
+    public static final String JSON = "application/json";
+    public static final String CBOR = "application/cbor";
+    private static final String CBOR_ATTRIBUTE = "wireFormat.cbor";
+    private static final String CBOR_ETAG_SUFFIX = "-cbor";
+    private static final int STREAM_THRESHOLD = 256 * 1024;
+
+    /**
+     * Creates a wire format.
+     *
+     * @param gson       The Gson instance to serialize and deserialize with.
+     * @param compressor The compressor of response bodies, or null if compression is disabled.
+     */
+    public WireFormat(Gson gson, ResponseCompressor compressor) {
+        this.gson = gson;
+        this.compressor = compressor;
+        this.maxBodySize = Props.getApiRequestMaxBodySize();
+        this.maxDepth = Props.getApiRequestMaxDepth();
+    }
+
+    /**
+     * Wraps a route so that its return value is written as the response body, in the format the client asked for.
+     *
+     * @param handler The handler of the route.
+     * @return The handler with content negotiation.
+     */
+    public RouteHandler negotiated(RouteHandler handler) {
+        return (request, response) -> {
+            boolean cbor = prefersCbor(request.header("Accept"));
+            if (cbor) {
+                request.attribute(CBOR_ATTRIBUTE, Boolean.TRUE);
+            }
+            response.header("Vary", "Accept");
+
+            Object result = handler.handle(request, response);
+            if (result == null || response.isCommitted()) {
+                return "";
+            }
+            if (cbor) {
+                response.header("content-type", CBOR);
+                String etag = response.header("ETag");
+                if (etag != null) {
+                    response.header("ETag", etag(request, etag));
+                }
+            }
+            write(result, cbor, request, response);
+            return "";
+        };
+    }
+
+    /**
+     * Wraps a route so that its return value is written as the response body in JSON, for routes whose responses are
+     * only available in JSON.
+     *
+     * @param handler The handler of the route.
+     * @return The handler writing its return value.
+     */
+    public RouteHandler json(RouteHandler handler) {
+        return (request, response) -> {
+            Object result = handler.handle(request, response);
+            if (result != null && !response.isCommitted()) {
+                write(result, false, request, response);
+            }
+            return "";
+        };
+    }
+
+    /**
+     * Reads a request body in the format given by its Content-Type header, straight from the request stream.
+     *
+     * @param request The API request.
+     * @param type    The type to read.
+     * @param <T>     The type to read.
+     * @return The body, or null if a JSON body is empty.
+     * @throws PayloadTooLargeException When the body is larger than the maximum body size.
+     * @throws BadSyntaxException       When the body is nested too deeply, ends early or could not be read, or a
+     *                                  CBOR body is malformed, does not match the type or is followed by more bytes.
+     * @throws JsonParseException       When a JSON body is malformed or does not match the type.
+     */
+    public <T> T fromBody(ApiRequest request, Class<T> type) {
+        if (!isCbor(request.header("Content-Type"))) {
+            try (JsonReader reader = new DepthLimitedJsonReader(
+                new InputStreamReader(bodyStream(request), StandardCharsets.UTF_8), maxDepth)) {
+                T body = gson.fromJson(reader, type);
+                // As with gson.fromJson(String), nothing may follow the value
+                if (body != null && reader.peek() != JsonToken.END_DOCUMENT) {
+                    throw new JsonSyntaxException("JSON document was not fully consumed.");
+                }
+                return body;
+            } catch (JsonSyntaxException e) {
+                // Gson reports a body that could not be read, not only one that is malformed, as a syntax error
+                if (e.getCause() instanceof IOException && !(e.getCause() instanceof MalformedJsonException)) {
+                    throw unreadableBody();
+                }
+                throw e;
+            } catch (MalformedJsonException e) {
+                throw new JsonSyntaxException(e);
+            } catch (IOException e) {
+                throw unreadableBody();
+            }
+        }
+        try (CborReader reader = new CborReader(bodyStream(request), maxDepth)) {
+            T body = gson.fromJson(reader, type);
+            // As with JSON, nothing may follow the top-level item
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new BadSyntaxException("Invalid CBOR");
+            }
+            return body;
+        } catch (JsonParseException | IOException e) {
+            throw new BadSyntaxException("Invalid CBOR");
+        }
+    }
+
+    /**
+     * Creates the error for a JSON body that ended early or could not be read, e.g. as the client went away. Either
+     * way the request is incomplete, so it is the client's error rather than the server's.
+     *
+     * @return The error.
+     */
+    private static BadSyntaxException unreadableBody() {
+        return new BadSyntaxException("Body is incomplete or could not be read");
+    }
+
+    /**
+     * Opens the body of a request for reading, rejecting it up front if its Content-Length is over the maximum body
+     * size, and otherwise as soon as more than that has been read.
+     *
+     * @param request The API request.
+     * @return The body stream.
+     * @throws IOException              If the body could not be opened.
+     * @throws PayloadTooLargeException When the body is declared to be larger than the maximum body size.
+     */
+    private InputStream bodyStream(ApiRequest request) throws IOException {
+        String contentLength = request.header("Content-Length");
+        if (contentLength != null) {
+            try {
+                if (Long.parseLong(contentLength.trim()) > maxBodySize) {
+                    throw new PayloadTooLargeException("Body must not be larger than " + maxBodySize + " bytes");
+                }
+            } catch (NumberFormatException e) {
+                // An invalid length is left to the transport, and the body is still counted as it is read
+            }
+        }
+        return new LimitedInputStream(request.bodyStream(), maxBodySize);
+    }
+
+    /**
+     * Adjusts the ETag of a route for the format of the response, as the JSON and CBOR representations of the same
+     * entity are different bytes.
+     *
+     * @param request The API request.
+     * @param etag    The quoted ETag of the JSON representation.
+     * @return The quoted ETag of the negotiated representation.
+     */
+    public static String etag(ApiRequest request, String etag) {
+        if (request.attribute(CBOR_ATTRIBUTE) == null || !etag.endsWith("\"")) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + CBOR_ETAG_SUFFIX + "\"";
+    }
+
+    /**
+     * Serializes a route's return value into a pooled buffer and writes it as the response body. The body is only
+     * buffered in full if it may be compressed, as compression needs the whole body; otherwise a large body is
+     * streamed once it outgrows the buffer.
+     *
+     * @param result   The value returned by the route.
+     * @param cbor     True to write CBOR, false to write JSON.
+     * @param request  The API request.
+     * @param response The API response.
+     * @throws IOException If the body could not be written.
+     */
+    private void write(Object result, boolean cbor, ApiRequest request, ApiResponse response) throws IOException {
+        if (compressor != null) {
+            String vary = response.header("Vary");
+            response.header("Vary", vary == null ? "Accept-Encoding" : vary + ", Accept-Encoding");
+        }
+
+        ResponseBuffer buffer = ResponseBuffer.borrow();
+        try {
+            if (compressor == null || ResponseCompressor.negotiate(request.header("Accept-Encoding")) == null) {
+                buffer.streamAfter(response, STREAM_THRESHOLD);
+            }
+
+            JsonWriter writer = cbor ? new CborWriter(buffer) : new JsonWriter(buffer.writer());
+            gson.toJson(result, result.getClass(), writer);
+            writer.flush();
+
+            if (buffer.isStreaming()) {
+                response.outputStream().write(buffer.bytes(), 0, buffer.size());
+            } else if (compressor != null) {
+                compressor.write(request, response, buffer.bytes(), buffer.size());
+            } else {
+                response.contentLength(buffer.size());
+                response.outputStream().write(buffer.bytes(), 0, buffer.size());
+            }
+            response.flush();
+        } finally {
+            ResponseBuffer.giveBack(buffer);
+        }
+    }
+
+    /**
+     * Checks whether an Accept header ranks CBOR above JSON. An explicit media type beats a wildcard of the same
+     * quality, and JSON wins ties, so a header without CBOR always gets JSON.
+     *
+     * @param accept The Accept header, or null if there is none.
+     * @return True if the response should be CBOR.
+     */
+    static boolean prefersCbor(String accept) {
+        if (accept == null || !accept.toLowerCase(Locale.ROOT).contains(CBOR)) {
+            return false;
+        }
+
+        double cborQuality = 0;
+        double jsonQuality = 0;
+        boolean jsonExplicit = false;
+        for (String range : accept.split(",")) {
+            String[] parts = range.split(";");
+            String mediaType = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = quality(parts);
+            if (CBOR.equals(mediaType)) {
+                cborQuality = Math.max(cborQuality, quality);
+            } else if (JSON.equals(mediaType)) {
+                jsonQuality = Math.max(jsonExplicit ? jsonQuality : 0, quality);
+                jsonExplicit = true;
+            } else if (!jsonExplicit && ("*/*".equals(mediaType) || "application/*".equals(mediaType))) {
+                jsonQuality = Math.max(jsonQuality, quality);
+            }
+        }
+        return cborQuality > jsonQuality || (cborQuality > 0 && cborQuality == jsonQuality && !jsonExplicit);
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static boolean isCbor(String contentType) {
+        return contentType != null && contentType.trim().toLowerCase(Locale.ROOT).startsWith(CBOR);
+    }
+}
@@ -1,14 +1,12 @@
 package api.converter;
 
 import api.converter.base.IConverter;
+import db.dao.CurrencyDAO;
 import db.model.Currency;
 import defs.dto.CurrencyDTO;
-import defs.enums.AcceptedCurrency;
 import defs.errors.CurrencyNotFoundException;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Arrays;
-
 /**
  * Class for converting to and from currency DTOs / database entities.
  */
@@ -31,17 +29,10 @@ public class CurrencyConverter implements IConverter<Currency, CurrencyDTO> {
      *
      * @param currencyDTO The currency DTO to convert.
      * @return A currency database entity.
+     * @throws CurrencyNotFoundException When the code is not one of the accepted currencies.
      */
     public Currency toModel(@NotNull CurrencyDTO currencyDTO) {
-        AcceptedCurrency currency =
-            Arrays.stream(AcceptedCurrency.values())
-                .filter(curr -> curr.code.equals(currencyDTO.getCode()))
-                .findFirst()
-                .orElse(null);
-
-        if (currency == null) {
-            throw new CurrencyNotFoundException("Currency not found", currencyDTO.getCode());
-        }
-        return currency.toEntity();
+        CurrencyDAO currDAO = new CurrencyDAO();
+        return currDAO.find(currencyDTO.getCode());
     }
 }
@@ -5,6 +5,7 @@ import db.dao.CurrencyDAO;
 import db.dao.LoanApplicantDAO;
 import db.dao.LoanTypeDAO;
 import db.model.Loan;
+import db.model.LoanApplicant;
 import defs.dto.LoanDTO;
 import org.jetbrains.annotations.NotNull;
 
@@ -38,11 +39,24 @@ public class LoanConverter implements IConverter<Loan, LoanDTO> {
     @Override
     public Loan toModel(@NotNull LoanDTO loanDTO) {
         LoanApplicantDAO lAppDAO = new LoanApplicantDAO();
+        return toModelWithApplicant(loanDTO, lAppDAO.find(loanDTO.getApplicantId()));
+    }
+
+    /**
+     * Converts from a loan DTO to a database entity, using a loan applicant that has already been looked up. The loan
+     * applicant only needs its ID set, e.g. when many loans are converted after their applicant IDs were checked in
+     * one query.
+     *
+     * @param loanDTO       The loan DTO to convert.
+     * @param loanApplicant The loan applicant of the loan.
+     * @return A loan database entity.
+     */
+    public Loan toModelWithApplicant(@NotNull LoanDTO loanDTO, LoanApplicant loanApplicant) {
         CurrencyDAO currDAO = new CurrencyDAO();
         LoanTypeDAO lTypeDAO = new LoanTypeDAO();
         return new Loan(
             loanDTO.getId(),
-            lAppDAO.find(loanDTO.getApplicantId()),
+            loanApplicant,
             lTypeDAO.find(loanDTO.getLoanType()),
             loanDTO.getValueOfPurchase(),
             currDAO.find(loanDTO.getCurrency())
@@ -1,13 +1,11 @@
 package api.converter;
 
 import api.converter.base.IConverter;
+import db.dao.LoanTypeDAO;
 import db.model.LoanType;
 import defs.dto.LoanTypeDTO;
-import defs.enums.AcceptedLoanType;
 import defs.errors.LoanTypeNotFoundException;
 
-import java.util.Arrays;
-
 /**
  * Class for converting to and from loan type name / database entities.
  */
@@ -30,17 +28,10 @@ public class LoanTypeConverter implements IConverter<LoanType, LoanTypeDTO> {
      *
      * @param loanTypeDTO The accepted loan type name.
      * @return A loan type database entity.
+     * @throws LoanTypeNotFoundException When the loan name is not one of the accepted loan types.
      */
     public LoanType toModel(LoanTypeDTO loanTypeDTO) {
-        AcceptedLoanType loanType =
-            Arrays.stream(AcceptedLoanType.values())
-                .filter(lType -> lType.loanName.equals(loanTypeDTO.getLoanName()))
-                .findFirst()
-                .orElse(null);
-
-        if (loanType == null) {
-            throw new LoanTypeNotFoundException("Loan type not found", loanTypeDTO.getLoanName());
-        }
-        return loanType.toEntity();
+        LoanTypeDAO lTypeDAO = new LoanTypeDAO();
+        return lTypeDAO.find(loanTypeDTO.getLoanName());
     }
 }
\ No newline at end of file
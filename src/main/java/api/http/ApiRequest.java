@@ -0,0 +1,87 @@
+package api.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An API request, independent of the HTTP server it was received by.
+ */
+public interface ApiRequest {
+    /**
+     * Returns the HTTP method of the request.
+     *
+     * @return The method, e.g. "GET".
+     */
+    String method();
+
+    /**
+     * Returns the path of the request, without the query string.
+     *
+     * @return The path, e.g. "/loans/1".
+     */
+    String path();
+
+    /**
+     * Returns a parameter of the route path that matched the request.
+     *
+     * @param name The name of the parameter, with or without the leading colon, e.g. ":id".
+     * @return The value of the parameter, or null if the route has no such parameter.
+     */
+    String param(String name);
+
+    /**
+     * Returns a query string parameter of the request.
+     *
+     * @param name The name of the parameter, e.g. "limit".
+     * @return The first value of the parameter, or null if it is not present.
+     */
+    String queryParam(String name);
+
+    /**
+     * Returns a header of the request.
+     *
+     * @param name The case-insensitive name of the header, e.g. "If-None-Match".
+     * @return The first value of the header, or null if it is not present.
+     */
+    String header(String name);
+
+    /**
+     * Returns the whole body of the request as a string. The body is read into memory the first time.
+     *
+     * @return The request body.
+     */
+    String body();
+
+    /**
+     * Opens the body of the request as a stream, without reading it into memory first. The body can only be read
+     * once, and body() must not be used on the same request.
+     *
+     * @return The request body stream.
+     * @throws IOException If the body could not be opened.
+     */
+    InputStream bodyStream() throws IOException;
+
+    /**
+     * Returns the IP address of the client that sent the request.
+     *
+     * @return The client IP address.
+     */
+    String ip();
+
+    /**
+     * Returns an attribute of the request, e.g. one set by a filter for a later filter.
+     *
+     * @param name The name of the attribute.
+     * @param <T>  The type of the attribute.
+     * @return The attribute, or null if it is not set.
+     */
+    <T> T attribute(String name);
+
+    /**
+     * Sets an attribute of the request.
+     *
+     * @param name  The name of the attribute.
+     * @param value The value of the attribute, or null to remove it.
+     */
+    void attribute(String name, Object value);
+}
@@ -0,0 +1,74 @@
+package api.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An API response, independent of the HTTP server it is sent by. Output is buffered until the buffer fills up or the
+ * response is flushed, at which point the status and headers are sent and the response is committed.
+ */
+public interface ApiResponse {
+    /**
+     * Sets the status of the response. Has no effect once the response is committed.
+     *
+     * @param status The HTTP status code.
+     */
+    void status(int status);
+
+    /**
+     * Returns the status of the response.
+     *
+     * @return The HTTP status code.
+     */
+    int status();
+
+    /**
+     * Sets a header of the response, replacing any previous value. Has no effect once the response is committed.
+     *
+     * @param name  The name of the header.
+     * @param value The value of the header.
+     */
+    void header(String name, String value);
+
+    /**
+     * Returns a header of the response.
+     *
+     * @param name The case-insensitive name of the header.
+     * @return The value of the header, or null if it is not set.
+     */
+    String header(String name);
+
+    /**
+     * Sets the length of the response body, so it does not have to be sent in chunks.
+     *
+     * @param length The length of the body in bytes.
+     */
+    void contentLength(long length);
+
+    /**
+     * Returns the stream to write the response body to.
+     *
+     * @return The response body stream.
+     * @throws IOException If the stream could not be opened.
+     */
+    OutputStream outputStream() throws IOException;
+
+    /**
+     * Sends the status, headers and any buffered output, committing the response.
+     *
+     * @throws IOException If the response could not be sent.
+     */
+    void flush() throws IOException;
+
+    /**
+     * Checks whether the status and headers have already been sent.
+     *
+     * @return True if the response is committed.
+     */
+    boolean isCommitted();
+
+    /**
+     * Discards any buffered output that has not been sent yet, e.g. to replace a partial body with an error.
+     */
+    void resetBuffer();
+}
@@ -0,0 +1,24 @@
+package api.http;
+
+/**
+ * Stops a request immediately, answering it with the given status and body. Thrown by filters, e.g. to reject a
+ * request that is over its rate limit before it reaches the route.
+ */
+public class HaltException extends RuntimeException {
+    private final int status;
+    private final String body;
+
+    public HaltException(int status, String body) {
+        super(null, null, false, false);
+        this.status = status;
+        this.body = body;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getBody() {
+        return body;
+    }
+}
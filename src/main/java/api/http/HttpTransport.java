@@ -0,0 +1,46 @@
+package api.http;
+
+/**
+ * The HTTP server that routes and filters are registered with. Controllers only depend on this interface, so the
+ * server behind it can be swapped, e.g. Spark on Jetty or the JDK's built-in HTTP server.
+ * <p>
+ * Routes and filters are matched in the order they are registered. Paths may contain parameters, e.g. "/loans/:id",
+ * and filter paths may end with a "*" wildcard, e.g. "/loans/*".
+ */
+public interface HttpTransport {
+    /**
+     * Registers a GET route that writes its own response body, or returns it as a string or bytes.
+     *
+     * @param path    The route path, e.g. "/loans/:id".
+     * @param handler The handler of the route.
+     */
+    void get(String path, RouteHandler handler);
+
+    /**
+     * Registers a POST route that writes its own response body, or returns it as a string or bytes.
+     *
+     * @param path    The route path, e.g. "/loans".
+     * @param handler The handler of the route.
+     */
+    void post(String path, RouteHandler handler);
+
+    /**
+     * Registers a filter that runs before the routes matching a path.
+     *
+     * @param path   The path to filter, e.g. "/loans" or "/loans/*".
+     * @param filter The filter.
+     */
+    void before(String path, RouteFilter filter);
+
+    /**
+     * Registers a filter that runs after every request, even if the route or a filter failed or halted it.
+     *
+     * @param filter The filter.
+     */
+    void afterAfter(RouteFilter filter);
+
+    /**
+     * Starts serving requests, once all routes and filters are registered, and waits until the server is ready.
+     */
+    void start();
+}
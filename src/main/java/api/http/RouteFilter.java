@@ -0,0 +1,16 @@
+package api.http;
+
+/**
+ * Filters the requests to a set of routes, before or after they are handled.
+ */
+@FunctionalInterface
+public interface RouteFilter {
+    /**
+     * Filters a request. A filter that runs before the route can stop the request by throwing a HaltException.
+     *
+     * @param request  The API request.
+     * @param response The API response.
+     * @throws Exception If the request could not be filtered.
+     */
+    void handle(ApiRequest request, ApiResponse response) throws Exception;
+}
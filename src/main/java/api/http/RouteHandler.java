@@ -0,0 +1,18 @@
+package api.http;
+
+/**
+ * Handles the requests to a route.
+ */
+@FunctionalInterface
+public interface RouteHandler {
+    /**
+     * Handles a request.
+     *
+     * @param request  The API request.
+     * @param response The API response.
+     * @return The response body as a string or bytes, a value for a wrapping handler such as WireFormat.negotiated to
+     * write, or null or "" if the body has already been written to the response.
+     * @throws Exception If the request could not be handled.
+     */
+    Object handle(ApiRequest request, ApiResponse response) throws Exception;
+}
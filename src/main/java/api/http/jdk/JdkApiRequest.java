@@ -0,0 +1,141 @@
+package api.http.jdk;
+
+import api.http.ApiRequest;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An API request received by the JDK HTTP server.
+ */
+class JdkApiRequest implements ApiRequest {
+    private final HttpExchange exchange;
+    private final Map<String, Object> attributes = new HashMap<>();
+    private Map<String, String> params;
+    private Map<String, String> queryParams;
+    private String body;
+
+    JdkApiRequest(HttpExchange exchange) {
+        this.exchange = exchange;
+    }
+
+    /**
+     * Sets the path parameters of the route or filter that is about to handle the request.
+     *
+     * @param params The path parameters, keyed by name with a leading colon.
+     */
+    void setParams(Map<String, String> params) {
+        this.params = params;
+    }
+
+    @Override
+    public String method() {
+        return exchange.getRequestMethod();
+    }
+
+    @Override
+    public String path() {
+        return exchange.getRequestURI().getPath();
+    }
+
+    @Override
+    public String param(String name) {
+        if (params == null) {
+            return null;
+        }
+        String key = name.startsWith(":") ? name : ":" + name;
+        return params.get(key.toLowerCase());
+    }
+
+    @Override
+    public String queryParam(String name) {
+        if (queryParams == null) {
+            queryParams = parseQuery(exchange.getRequestURI().getRawQuery());
+        }
+        return queryParams.get(name);
+    }
+
+    @Override
+    public String header(String name) {
+        return exchange.getRequestHeaders().getFirst(name);
+    }
+
+    @Override
+    public String body() {
+        if (body == null) {
+            try (InputStream in = exchange.getRequestBody()) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) > 0) {
+                    out.write(buffer, 0, read);
+                }
+                body = new String(out.toByteArray(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return body;
+    }
+
+    @Override
+    public InputStream bodyStream() {
+        return exchange.getRequestBody();
+    }
+
+    @Override
+    public String ip() {
+        return exchange.getRemoteAddress().getAddress().getHostAddress();
+    }
+
+    /**
+     * Returns an attribute of the request. The attributes are kept by the request itself, as the attributes of an
+     * HttpExchange are shared by every exchange of the same context.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T attribute(String name) {
+        return (T) attributes.get(name);
+    }
+
+    @Override
+    public void attribute(String name, Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+    }
+
+    /**
+     * Parses a raw query string, keeping the first value of each parameter.
+     *
+     * @param rawQuery The raw query string, or null if there is none.
+     * @return The decoded query parameters.
+     */
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> parsed = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parsed;
+        }
+        try {
+            for (String pair : rawQuery.split("&")) {
+                int separator = pair.indexOf('=');
+                String name = URLDecoder.decode(separator < 0 ? pair : pair.substring(0, separator), "UTF-8");
+                String value = separator < 0 ? "" : URLDecoder.decode(pair.substring(separator + 1), "UTF-8");
+                parsed.putIfAbsent(name, value);
+            }
+        } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+            // A malformed query string is treated as having no further parameters
+        }
+        return parsed;
+    }
+}
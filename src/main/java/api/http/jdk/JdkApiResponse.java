@@ -0,0 +1,166 @@
+package api.http.jdk;
+
+import api.http.ApiResponse;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An API response sent by the JDK HTTP server. Output is buffered, as with a servlet response, so the status and
+ * headers can still be changed until the buffer fills up or the response is flushed.
+ */
+class JdkApiResponse implements ApiResponse {
+    private final HttpExchange exchange;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final OutputStream outputStream = new BufferedBodyStream();
+    private int status = 200;
+    private long contentLength = -1;
+    private boolean committed;
+    private boolean hasBody;
+
+    private static final int BUFFER_SIZE = 32 * 1024;
+
+    JdkApiResponse(HttpExchange exchange) {
+        this.exchange = exchange;
+    }
+
+    @Override
+    public void status(int status) {
+        if (!committed) {
+            this.status = status;
+        }
+    }
+
+    @Override
+    public int status() {
+        return status;
+    }
+
+    @Override
+    public void header(String name, String value) {
+        if (!committed) {
+            exchange.getResponseHeaders().set(name, value);
+        }
+    }
+
+    @Override
+    public String header(String name) {
+        return exchange.getResponseHeaders().getFirst(name);
+    }
+
+    @Override
+    public void contentLength(long length) {
+        this.contentLength = length;
+    }
+
+    @Override
+    public OutputStream outputStream() {
+        return outputStream;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        commit(false);
+        if (hasBody) {
+            exchange.getResponseBody().flush();
+        }
+    }
+
+    @Override
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    @Override
+    public void resetBuffer() {
+        if (!committed) {
+            buffer.reset();
+        }
+    }
+
+    /**
+     * Sends whatever has not been sent yet and ends the response.
+     *
+     * @throws IOException If the response could not be sent.
+     */
+    void finish() throws IOException {
+        commit(true);
+        if (hasBody) {
+            exchange.getResponseBody().close();
+        }
+    }
+
+    /**
+     * Sends the status, headers and buffered output, if they have not been sent yet.
+     *
+     * @param complete Whether the buffered output is the whole body, in which case its length is sent rather than
+     *                 sending the body in chunks.
+     * @throws IOException If the response could not be sent.
+     */
+    private void commit(boolean complete) throws IOException {
+        if (committed) {
+            return;
+        }
+        committed = true;
+
+        long length;
+        if (status == 204 || status == 304 || "HEAD".equals(exchange.getRequestMethod())) {
+            length = -1;
+        } else if (contentLength >= 0) {
+            length = contentLength;
+        } else if (complete) {
+            length = buffer.size() == 0 ? -1 : buffer.size();
+        } else {
+            length = 0;
+        }
+        exchange.sendResponseHeaders(status, length);
+        // Without a body, the exchange has no body stream to write to
+        hasBody = length != -1;
+        if (hasBody && buffer.size() > 0) {
+            buffer.writeTo(exchange.getResponseBody());
+        }
+        buffer.reset();
+    }
+
+    /**
+     * The response body stream, which buffers output until the buffer is full or the stream is flushed.
+     */
+    private class BufferedBodyStream extends OutputStream {
+        @Override
+        public void write(int b) throws IOException {
+            if (committed) {
+                if (!hasBody) {
+                    return;
+                }
+                exchange.getResponseBody().write(b);
+                return;
+            }
+            buffer.write(b);
+            if (buffer.size() >= BUFFER_SIZE) {
+                commit(false);
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (committed) {
+                if (!hasBody) {
+                    return;
+                }
+                exchange.getResponseBody().write(bytes, offset, length);
+                return;
+            }
+            buffer.write(bytes, offset, length);
+            if (buffer.size() >= BUFFER_SIZE) {
+                commit(false);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            JdkApiResponse.this.flush();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package api.http.jdk;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A route or filter path, matched segment by segment against request paths. Segments starting with ":" are
+ * parameters, and a trailing "*" segment matches any remaining segments, as in Spark.
+ */
+class PathPattern {
+    private final String[] segments;
+    private final boolean wildcard;
+
+    private static final Map<String, String> NO_PARAMS = new HashMap<>();
+
+    PathPattern(String path) {
+        String[] split = split(path);
+        this.wildcard = split.length > 0 && "*".equals(split[split.length - 1]);
+        if (wildcard) {
+            String[] withoutWildcard = new String[split.length - 1];
+            System.arraycopy(split, 0, withoutWildcard, 0, withoutWildcard.length);
+            this.segments = withoutWildcard;
+        } else {
+            this.segments = split;
+        }
+    }
+
+    /**
+     * Matches the pattern against the segments of a request path.
+     *
+     * @param pathSegments The segments of the request path, as returned by split().
+     * @return The path parameters keyed by name with a leading colon, or null if the path does not match.
+     */
+    Map<String, String> match(String[] pathSegments) {
+        if (wildcard ? pathSegments.length <= segments.length : pathSegments.length != segments.length) {
+            return null;
+        }
+
+        Map<String, String> params = NO_PARAMS;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.startsWith(":")) {
+                if (params == NO_PARAMS) {
+                    params = new HashMap<>();
+                }
+                params.put(segment.toLowerCase(), pathSegments[i]);
+            } else if (!segment.equals(pathSegments[i])) {
+                return null;
+            }
+        }
+        return params;
+    }
+
+    /**
+     * Splits a path into its non-empty segments, e.g. "/loans/1" into "loans" and "1".
+     *
+     * @param path The path to split.
+     * @return The segments of the path.
+     */
+    static String[] split(String path) {
+        int count = 0;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) != '/' && (i == 0 || path.charAt(i - 1) == '/')) {
+                count++;
+            }
+        }
+
+        String[] segments = new String[count];
+        int segment = 0;
+        int start = -1;
+        for (int i = 0; i <= path.length(); i++) {
+            boolean separator = i == path.length() || path.charAt(i) == '/';
+            if (separator && start >= 0) {
+                segments[segment++] = path.substring(start, i);
+                start = -1;
+            } else if (!separator && start < 0) {
+                start = i;
+            }
+        }
+        return segments;
+    }
+}
@@ -0,0 +1,82 @@
+package api.http.spark;
+
+import api.http.ApiRequest;
+import spark.Request;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletRequestWrapper;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An API request received by Spark.
+ */
+class SparkApiRequest implements ApiRequest {
+    private final Request request;
+
+    SparkApiRequest(Request request) {
+        this.request = request;
+    }
+
+    @Override
+    public String method() {
+        return request.requestMethod();
+    }
+
+    @Override
+    public String path() {
+        return request.pathInfo();
+    }
+
+    @Override
+    public String param(String name) {
+        return request.params(name);
+    }
+
+    @Override
+    public String queryParam(String name) {
+        return request.queryParams(name);
+    }
+
+    @Override
+    public String header(String name) {
+        return request.headers(name);
+    }
+
+    @Override
+    public String body() {
+        return request.body();
+    }
+
+    /**
+     * Opens the body of the request as a stream. Spark wraps each request in a wrapper that reads the whole body into
+     * memory the first time it is accessed, so the stream is taken from the underlying request instead.
+     */
+    @Override
+    public InputStream bodyStream() throws IOException {
+        ServletRequest raw = request.raw();
+        while (raw instanceof ServletRequestWrapper) {
+            raw = ((ServletRequestWrapper) raw).getRequest();
+        }
+        return raw.getInputStream();
+    }
+
+    @Override
+    public String ip() {
+        return request.ip();
+    }
+
+    @Override
+    public <T> T attribute(String name) {
+        return request.attribute(name);
+    }
+
+    @Override
+    public void attribute(String name, Object value) {
+        if (value == null) {
+            request.raw().removeAttribute(name);
+        } else {
+            request.attribute(name, value);
+        }
+    }
+}
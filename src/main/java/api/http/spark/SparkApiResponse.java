@@ -0,0 +1,63 @@
+package api.http.spark;
+
+import api.http.ApiResponse;
+import spark.Response;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An API response sent by Spark, written through the underlying servlet response.
+ */
+class SparkApiResponse implements ApiResponse {
+    private final Response response;
+
+    SparkApiResponse(Response response) {
+        this.response = response;
+    }
+
+    @Override
+    public void status(int status) {
+        response.status(status);
+    }
+
+    @Override
+    public int status() {
+        return response.status();
+    }
+
+    @Override
+    public void header(String name, String value) {
+        response.raw().setHeader(name, value);
+    }
+
+    @Override
+    public String header(String name) {
+        return response.raw().getHeader(name);
+    }
+
+    @Override
+    public void contentLength(long length) {
+        response.raw().setContentLengthLong(length);
+    }
+
+    @Override
+    public OutputStream outputStream() throws IOException {
+        return response.raw().getOutputStream();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        response.raw().flushBuffer();
+    }
+
+    @Override
+    public boolean isCommitted() {
+        return response.raw().isCommitted();
+    }
+
+    @Override
+    public void resetBuffer() {
+        response.raw().resetBuffer();
+    }
+}
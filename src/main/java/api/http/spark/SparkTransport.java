@@ -0,0 +1,92 @@
+package api.http.spark;
+
+import api.http.HaltException;
+import api.http.HttpTransport;
+import api.http.RouteFilter;
+import api.http.RouteHandler;
+import spark.Filter;
+import spark.Request;
+import spark.Response;
+import spark.Route;
+import spark.Spark;
+
+/**
+ * Serves the API with Spark, on its embedded Jetty server. Routes and filters are registered with Spark's static
+ * routing, and requests and responses are passed to them through thin wrappers. Spark hands every filter and route of
+ * an exchange the same request and response objects, pointing them at the match in hand, so the wrappers are created
+ * once per exchange and kept in a request attribute.
+ */
+public class SparkTransport implements HttpTransport {
+    private static final String EXCHANGE_ATTRIBUTE = "sparkTransport.exchange";
+
+    @Override
+    public void get(String path, RouteHandler handler) {
+        Spark.get(path, toRoute(handler));
+    }
+
+    @Override
+    public void post(String path, RouteHandler handler) {
+        Spark.post(path, toRoute(handler));
+    }
+
+    @Override
+    public void before(String path, RouteFilter filter) {
+        Spark.before(path, toFilter(filter));
+    }
+
+    @Override
+    public void afterAfter(RouteFilter filter) {
+        Spark.afterAfter(toFilter(filter));
+    }
+
+    @Override
+    public void start() {
+        Spark.awaitInitialization();
+    }
+
+    private static Route toRoute(RouteHandler handler) {
+        return (request, response) -> {
+            Exchange exchange = exchangeOf(request, response);
+            Object body = handler.handle(exchange.request, exchange.response);
+            // Spark takes a null body to mean that no route matched, and answers 404
+            return body != null ? body : "";
+        };
+    }
+
+    private static Filter toFilter(RouteFilter filter) {
+        return (request, response) -> {
+            try {
+                Exchange exchange = exchangeOf(request, response);
+                filter.handle(exchange.request, exchange.response);
+            } catch (HaltException e) {
+                throw Spark.halt(e.getStatus(), e.getBody());
+            }
+        };
+    }
+
+    /**
+     * Returns the wrappers of an exchange, creating them for its first filter or route.
+     *
+     * @param request  The Spark request, which is the same object for every filter and route of the exchange.
+     * @param response The Spark response, which is the same object for every filter and route of the exchange.
+     * @return The wrappers of the exchange.
+     */
+    private static Exchange exchangeOf(Request request, Response response) {
+        Exchange exchange = request.attribute(EXCHANGE_ATTRIBUTE);
+        if (exchange == null) {
+            exchange = new Exchange(new SparkApiRequest(request), new SparkApiResponse(response));
+            request.attribute(EXCHANGE_ATTRIBUTE, exchange);
+        }
+        return exchange;
+    }
+
+    private static class Exchange {
+        private final SparkApiRequest request;
+        private final SparkApiResponse response;
+
+        private Exchange(SparkApiRequest request, SparkApiResponse response) {
+            this.request = request;
+            this.response = response;
+        }
+    }
+}
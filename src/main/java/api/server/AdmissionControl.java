@@ -0,0 +1,91 @@
+package api.server;
+
+import api.http.ApiRequest;
+import api.http.ApiResponse;
+import api.http.HaltException;
+import api.http.HttpTransport;
+import com.google.gson.Gson;
+import defs.errors.base.APIError;
+import util.config.Props;
+
+/**
+ * Admission control for the routes that work against the database. Reads and writes are admitted through separate
+ * {@link AdmissionGate}s, so a burst of slow writes cannot starve reads and vice versa. Requests that cannot be
+ * admitted within the queue-time budget are rejected with a 503 and a Retry-After header.
+ */
+public class AdmissionControl {
+    private final Gson gson;
+    private final AdmissionGate readGate;
+    private final AdmissionGate writeGate;
+
+    private static final String GATE_ATTRIBUTE = "admission.gate";
+
+    public AdmissionControl(Gson gson) {
+        this.gson = gson;
+        this.readGate = new AdmissionGate("read", Props.getApiAdmissionReadMaxConcurrent(),
+            Props.getApiAdmissionReadMaxQueued(), Props.getApiAdmissionReadQueueTimeout());
+        this.writeGate = new AdmissionGate("write", Props.getApiAdmissionWriteMaxConcurrent(),
+            Props.getApiAdmissionWriteMaxQueued(), Props.getApiAdmissionWriteQueueTimeout());
+    }
+
+    /**
+     * Guards the given route paths with admission control. Each path also covers all of its sub-paths.
+     *
+     * @param transport The HTTP transport to register the filters with.
+     * @param paths     The route paths to guard, e.g. "/loans".
+     */
+    public void init(HttpTransport transport, String... paths) {
+        for (String path : paths) {
+            transport.before(path, this::admit);
+            transport.before(path + "/*", this::admit);
+        }
+
+        // After-after filters run even when the route or a filter throws, so the permit is always returned
+        transport.afterAfter(this::release);
+    }
+
+    public AdmissionGate getReadGate() {
+        return readGate;
+    }
+
+    public AdmissionGate getWriteGate() {
+        return writeGate;
+    }
+
+    /**
+     * Admits the request through the gate for its request class, or halts it with a 503 if it cannot be admitted.
+     *
+     * @param request  The API request.
+     * @param response The API response.
+     */
+    private void admit(ApiRequest request, ApiResponse response) {
+        AdmissionGate gate = isRead(request) ? readGate : writeGate;
+        if (gate.tryAdmit()) {
+            request.attribute(GATE_ATTRIBUTE, gate);
+            return;
+        }
+
+        response.header("content-type", "application/json");
+        response.header("Retry-After", String.valueOf(Props.getApiAdmissionRetryAfter()));
+        throw new HaltException(503, gson.toJson(new APIError("Server is overloaded, please try again later", 503)));
+    }
+
+    /**
+     * Returns the permit held by the request, if it was admitted.
+     *
+     * @param request  The API request.
+     * @param response The API response.
+     */
+    private void release(ApiRequest request, ApiResponse response) {
+        AdmissionGate gate = request.attribute(GATE_ATTRIBUTE);
+        if (gate != null) {
+            request.attribute(GATE_ATTRIBUTE, null);
+            gate.release();
+        }
+    }
+
+    private static boolean isRead(ApiRequest request) {
+        String method = request.method();
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+}
@@ -0,0 +1,170 @@
+package api.server;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounds the number of requests of one class that may work against the database at the same time. Requests beyond
+ * the concurrency limit wait in a bounded queue for at most the queue-time budget; requests that find the queue full
+ * or run out of budget are rejected, so that excess load is shed quickly instead of piling up on server threads.
+ */
+public class AdmissionGate {
+    private final String name;
+    private final Semaphore permits;
+    private final int maxQueued;
+    private final long queueTimeoutNanos;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejectedQueueFull = new LongAdder();
+    private final LongAdder rejectedTimeout = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * Creates an admission gate.
+     *
+     * @param name           The name of the request class guarded by the gate, e.g. "read".
+     * @param maxConcurrent  The maximum number of requests admitted at the same time.
+     * @param maxQueued      The maximum number of requests waiting to be admitted.
+     * @param queueTimeoutMs How long a request may wait to be admitted before it is rejected.
+     */
+    public AdmissionGate(String name, int maxConcurrent, int maxQueued, long queueTimeoutMs) {
+        this.name = name;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxQueued = maxQueued;
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMs);
+    }
+
+    /**
+     * Tries to admit a request. A request that is admitted must call {@link #release()} once it has finished.
+     *
+     * @return True if the request was admitted, or false if it should be rejected.
+     */
+    public boolean tryAdmit() {
+        // Fast path while nobody is queued, as an untimed tryAcquire would otherwise barge ahead of waiting requests
+        if (queued.get() == 0 && permits.tryAcquire()) {
+            admitted.increment();
+            return true;
+        }
+
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejectedQueueFull.increment();
+            return false;
+        }
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        } finally {
+            queued.decrementAndGet();
+        }
+
+        long waited = System.nanoTime() - start;
+        waitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+        if (!acquired) {
+            rejectedTimeout.increment();
+            return false;
+        }
+        admitted.increment();
+        return true;
+    }
+
+    /**
+     * Releases the permit held by an admitted request.
+     */
+    public void release() {
+        permits.release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Takes a point-in-time snapshot of the gate metrics.
+     *
+     * @return The current gate metrics.
+     */
+    public Snapshot snapshot() {
+        long count = admitted.sum();
+        long timedOut = rejectedTimeout.sum();
+        long waits = waitNanos.sum();
+        return new Snapshot(
+            name,
+            permits.availablePermits(),
+            queued.get(),
+            count,
+            rejectedQueueFull.sum(),
+            timedOut,
+            count + timedOut == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(waits / (count + timedOut)),
+            TimeUnit.NANOSECONDS.toMicros(maxWaitNanos.get()));
+    }
+
+    /**
+     * An immutable view of the gate metrics at a point in time.
+     */
+    public static class Snapshot {
+        private final String name;
+        private final int availablePermits;
+        private final int queued;
+        private final long admitted;
+        private final long rejectedQueueFull;
+        private final long rejectedTimeout;
+        private final long averageWaitMicros;
+        private final long maxWaitMicros;
+
+        public Snapshot(String name, int availablePermits, int queued, long admitted, long rejectedQueueFull,
+                        long rejectedTimeout, long averageWaitMicros, long maxWaitMicros) {
+            this.name = name;
+            this.availablePermits = availablePermits;
+            this.queued = queued;
+            this.admitted = admitted;
+            this.rejectedQueueFull = rejectedQueueFull;
+            this.rejectedTimeout = rejectedTimeout;
+            this.averageWaitMicros = averageWaitMicros;
+            this.maxWaitMicros = maxWaitMicros;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getAvailablePermits() {
+            return availablePermits;
+        }
+
+        public int getQueued() {
+            return queued;
+        }
+
+        public long getAdmitted() {
+            return admitted;
+        }
+
+        public long getRejectedQueueFull() {
+            return rejectedQueueFull;
+        }
+
+        public long getRejectedTimeout() {
+            return rejectedTimeout;
+        }
+
+        public long getAverageWaitMicros() {
+            return averageWaitMicros;
+        }
+
+        public long getMaxWaitMicros() {
+            return maxWaitMicros;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package api.server;
+
+import api.http.ApiRequest;
+import api.http.ApiResponse;
+import api.http.HaltException;
+import api.http.HttpTransport;
+import com.google.gson.Gson;
+import defs.errors.base.APIError;
+import util.config.Props;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client rate limiting for the routes that work against the database, so a single client cannot saturate the
+ * database on its own. Every configured route pattern has its own {@link RateLimiter}, and each client has its own
+ * budget on each route. Clients are identified by IP address, or by the configured API key header when it is present.
+ * <p>
+ * Every response on a limited route carries the X-RateLimit-Limit, X-RateLimit-Remaining and X-RateLimit-Reset headers.
+ * X-RateLimit-Reset is always the number of seconds until the client's bucket is full again, i.e. until it has its
+ * whole burst back. Requests over the limit are rejected with a 429 and a Retry-After header, which is the number of
+ * seconds until the next request is allowed.
+ */
+public class RateLimitControl {
+    private final Gson gson;
+    private final List<RateLimiter> limiters = new ArrayList<>();
+    private final String clientHeader;
+
+    private static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    private static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    private static final String RESET_HEADER = "X-RateLimit-Reset";
+
+    public RateLimitControl(Gson gson) {
+        this.gson = gson;
+        this.clientHeader = Props.getApiRateLimitClientHeader();
+    }
+
+    /**
+     * Guards the configured route patterns with rate limiting. Each pattern also covers all of its sub-paths.
+     * The limits are read from api.rateLimit.routes, e.g. "/loans=20/40", which allows 20 requests per second with
+     * bursts of up to 40.
+     *
+     * @param transport The HTTP transport to register the filters with.
+     * @throws IllegalArgumentException When the configured limits are malformed.
+     */
+    public void init(HttpTransport transport) {
+        long idleTimeout = Props.getApiRateLimitIdleTimeout();
+        for (String rule : Props.getApiRateLimitRoutes().split(",")) {
+            rule = rule.trim();
+            if (rule.isEmpty()) {
+                continue;
+            }
+            String[] pathAndLimit = rule.split("=");
+            String[] rateAndBurst = pathAndLimit.length == 2 ? pathAndLimit[1].split("/") : new String[0];
+            if (rateAndBurst.length != 2) {
+                throw new IllegalArgumentException("Invalid rate limit " + rule + ", expected path=rate/burst");
+            }
+
+            RateLimiter limiter = new RateLimiter(pathAndLimit[0].trim(), Long.parseLong(rateAndBurst[0].trim()),
+                Long.parseLong(rateAndBurst[1].trim()), idleTimeout);
+            limiters.add(limiter);
+            transport.before(limiter.getRoute(), (request, response) -> limit(limiter, request, response));
+            transport.before(limiter.getRoute() + "/*", (request, response) -> limit(limiter, request, response));
+        }
+    }
+
+    public List<RateLimiter> getLimiters() {
+        return limiters;
+    }
+
+    /**
+     * Takes a token for the request's client, or halts the request with a 429 if the client is over its limit.
+     *
+     * @param limiter  The rate limiter of the route.
+     * @param request  The API request.
+     * @param response The API response.
+     */
+    private void limit(RateLimiter limiter, ApiRequest request, ApiResponse response) {
+        String client = clientOf(request);
+        long now = System.nanoTime();
+        RateLimiter.Bucket bucket = limiter.tryAcquire(client, now);
+        response.header(LIMIT_HEADER, String.valueOf(limiter.getBurst()));
+        if (bucket != null) {
+            response.header(REMAINING_HEADER, String.valueOf(bucket.getRemaining()));
+            response.header(RESET_HEADER, String.valueOf(toSeconds(bucket.getResetNanos())));
+            return;
+        }
+
+        response.header(REMAINING_HEADER, "0");
+        response.header(RESET_HEADER, String.valueOf(toSeconds(limiter.resetNanos(client, now))));
+        response.header("Retry-After", String.valueOf(toSeconds(limiter.waitNanos(client, now))));
+        response.header("content-type", "application/json");
+        throw new HaltException(429, gson.toJson(new APIError("Too many requests, please try again later", 429)));
+    }
+
+    /**
+     * Identifies the client of a request. The API key header is only used when it is configured, as it is only
+     * trustworthy when something in front of the API validates the keys.
+     *
+     * @param request The API request.
+     * @return The client key.
+     */
+    private String clientOf(ApiRequest request) {
+        if (!clientHeader.isEmpty()) {
+            String key = request.header(clientHeader);
+            if (key != null && !key.isEmpty()) {
+                return "key:" + key;
+            }
+        }
+        return "ip:" + request.ip();
+    }
+
+    /**
+     * Rounds a duration up to whole seconds, as used by the Retry-After and X-RateLimit-Reset headers.
+     *
+     * @param nanos The duration in nanoseconds.
+     * @return The duration in seconds, rounded up.
+     */
+    private static long toSeconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+}
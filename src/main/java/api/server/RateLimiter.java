@@ -0,0 +1,229 @@
+package api.server;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A per-client token bucket rate limiter for one route pattern. Each client has a bucket of up to burst tokens that
+ * refills at a steady rate, and every request takes a token or is rejected.
+ * <p>
+ * A bucket is kept as a single timestamp, the time at which it will be full again (the generic cell rate algorithm),
+ * so taking a token is one compare-and-set with no locks and nothing to refill. Buckets are spread over striped maps,
+ * and idle buckets are evicted one stripe at a time by the requests themselves. A bucket that has been idle for longer
+ * than it takes to refill is full, so evicting it does not change the client's limit.
+ */
+public class RateLimiter {
+    private final String route;
+    private final long ratePerSecond;
+    private final long burst;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final long idleTimeoutNanos;
+    private final long sweepIntervalNanos;
+    private final ConcurrentHashMap<String, AtomicLong>[] stripes;
+    private final AtomicLong nextSweep;
+    private final AtomicInteger nextSweepStripe = new AtomicInteger();
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private static final int STRIPES = 16;
+
+    /**
+     * Creates a rate limiter.
+     *
+     * @param route         The route pattern the limiter applies to, e.g. "/loans".
+     * @param ratePerSecond The number of tokens added to each bucket per second.
+     * @param burst         The size of each bucket, i.e. how many requests a client can make at once.
+     * @param idleTimeoutMs How long a bucket must be full and unused before it is evicted.
+     */
+    @SuppressWarnings("unchecked")
+    public RateLimiter(String route, long ratePerSecond, long burst, long idleTimeoutMs) {
+        if (ratePerSecond < 1 || burst < 1) {
+            throw new IllegalArgumentException("Rate limit of " + route + " must allow at least 1 request");
+        }
+        this.route = route;
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        this.burstNanos = intervalNanos * burst;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+        this.sweepIntervalNanos = Math.max(idleTimeoutNanos / STRIPES, 1);
+        this.stripes = (ConcurrentHashMap<String, AtomicLong>[]) new ConcurrentHashMap<?, ?>[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+        this.nextSweep = new AtomicLong(System.nanoTime() + sweepIntervalNanos);
+    }
+
+    /**
+     * Takes a token from a client's bucket.
+     *
+     * @param client The client key, e.g. its IP address.
+     * @param now    The current System.nanoTime().
+     * @return The client's bucket if a token was taken, or null if the client is over its limit.
+     */
+    public Bucket tryAcquire(String client, long now) {
+        sweepIfDue(now);
+        Map<String, AtomicLong> stripe = stripes[stripeOf(client)];
+        AtomicLong fullAt = stripe.get(client);
+        if (fullAt == null) {
+            fullAt = stripe.computeIfAbsent(client, key -> new AtomicLong(now));
+        }
+
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            // The bucket is empty if, after taking a token, it would be full later than one burst from now
+            if (next - burstNanos > now) {
+                rejected.increment();
+                return null;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                allowed.increment();
+                return new Bucket(next, now);
+            }
+        }
+    }
+
+    /**
+     * Returns how long a client over its limit has to wait before its next request is allowed.
+     *
+     * @param client The client key.
+     * @param now    The current System.nanoTime().
+     * @return The time to wait in nanoseconds, or 0 if a token is available.
+     */
+    public long waitNanos(String client, long now) {
+        AtomicLong fullAt = stripes[stripeOf(client)].get(client);
+        return fullAt == null ? 0 : Math.max(fullAt.get() + intervalNanos - burstNanos - now, 0);
+    }
+
+    /**
+     * Returns how long it takes for a client's bucket to be full again, i.e. until the client has its whole burst back.
+     *
+     * @param client The client key.
+     * @param now    The current System.nanoTime().
+     * @return The time until the bucket is full in nanoseconds, or 0 if it is full.
+     */
+    public long resetNanos(String client, long now) {
+        AtomicLong fullAt = stripes[stripeOf(client)].get(client);
+        return fullAt == null ? 0 : Math.max(fullAt.get() - now, 0);
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public long getBurst() {
+        return burst;
+    }
+
+    /**
+     * Takes a point-in-time snapshot of the limiter metrics.
+     *
+     * @return The current limiter metrics.
+     */
+    public Snapshot snapshot() {
+        long clients = 0;
+        for (Map<String, AtomicLong> stripe : stripes) {
+            clients += stripe.size();
+        }
+        return new Snapshot(route, ratePerSecond, burst, clients, allowed.sum(), rejected.sum());
+    }
+
+    /**
+     * Evicts the idle buckets of one stripe, if the next sweep is due. Only the request that claims the sweep does it,
+     * so each request pays for at most one stripe and most pay for nothing.
+     *
+     * @param now The current System.nanoTime().
+     */
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        if (now - due < 0 || !nextSweep.compareAndSet(due, now + sweepIntervalNanos)) {
+            return;
+        }
+        Map<String, AtomicLong> stripe = stripes[Math.floorMod(nextSweepStripe.getAndIncrement(), STRIPES)];
+        stripe.values().removeIf(fullAt -> now - fullAt.get() > idleTimeoutNanos);
+    }
+
+    private static int stripeOf(String client) {
+        int hash = client.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    /**
+     * The state of a client's bucket right after a token was taken, for the rate limit headers.
+     */
+    public class Bucket {
+        private final long fullAt;
+        private final long now;
+
+        private Bucket(long fullAt, long now) {
+            this.fullAt = fullAt;
+            this.now = now;
+        }
+
+        /**
+         * Returns the number of tokens left in the bucket.
+         *
+         * @return The remaining tokens.
+         */
+        public long getRemaining() {
+            return Math.max((now + burstNanos - fullAt) / intervalNanos, 0);
+        }
+
+        /**
+         * Returns how long it takes for the bucket to be full again.
+         *
+         * @return The time until the bucket is full, in nanoseconds.
+         */
+        public long getResetNanos() {
+            return Math.max(fullAt - now, 0);
+        }
+    }
+
+    public static class Snapshot {
+        private final String route;
+        private final long ratePerSecond;
+        private final long burst;
+        private final long clients;
+        private final long allowed;
+        private final long rejected;
+
+        public Snapshot(String route, long ratePerSecond, long burst, long clients, long allowed, long rejected) {
+            this.route = route;
+            this.ratePerSecond = ratePerSecond;
+            this.burst = burst;
+            this.clients = clients;
+            this.allowed = allowed;
+            this.rejected = rejected;
+        }
+
+        public String getRoute() {
+            return route;
+        }
+
+        public long getRatePerSecond() {
+            return ratePerSecond;
+        }
+
+        public long getBurst() {
+            return burst;
+        }
+
+        public long getClients() {
+            return clients;
+        }
+
+        public long getAllowed() {
+            return allowed;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+    }
+}
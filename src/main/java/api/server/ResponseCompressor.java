@@ -0,0 +1,236 @@
+package api.server;
+
+import api.http.ApiRequest;
+import api.http.ApiResponse;
+import util.config.Props;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses response bodies with gzip or deflate, whichever the client prefers in its Accept-Encoding header. Bodies
+ * smaller than the configured minimum size are sent as they are, as compressing them costs more than it saves.
+ * <p>
+ * Routes that serialize through {@link api.controller.base.WireFormat} hand their serialized bytes to
+ * {@link #write(ApiRequest, ApiResponse, byte[], int)}, which works with any transport. Deflaters and their buffers are
+ * pooled and reused across requests.
+ */
+public class ResponseCompressor {
+    private final int minSize;
+    private final Pool gzipPool;
+    private final Pool deflatePool;
+
+    private static final int POOL_SIZE = 64;
+    private static final int BUFFER_SIZE = 8192;
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    public ResponseCompressor() {
+        this.minSize = Props.getApiCompressionMinSize();
+        this.gzipPool = new Pool(Encoding.GZIP, Props.getApiCompressionLevel());
+        this.deflatePool = new Pool(Encoding.DEFLATE, Props.getApiCompressionLevel());
+    }
+
+    /**
+     * Writes a serialized response body, compressed if the client accepts a supported encoding and the body is large
+     * enough. An uncompressed body is sent with its Content-Length, and a compressed one chunked. The caller is
+     * responsible for adding Accept-Encoding to the Vary header.
+     *
+     * @param request  The API request.
+     * @param response The API response.
+     * @param body     The buffer holding the body.
+     * @param length   The length of the body in the buffer.
+     * @throws IOException If the body could not be written.
+     */
+    public void write(ApiRequest request, ApiResponse response, byte[] body, int length) throws IOException {
+        Encoding encoding = length < minSize ? null : negotiate(request.header("Accept-Encoding"));
+        if (encoding == null) {
+            response.contentLength(length);
+            response.outputStream().write(body, 0, length);
+            return;
+        }
+
+        response.header("Content-Encoding", encoding.token);
+        String etag = response.header("ETag");
+        if (etag != null) {
+            response.header("ETag", etag(etag, encoding));
+        }
+        compress(encoding, body, length, response.outputStream());
+    }
+
+    /**
+     * Compresses bytes with a pooled compressor.
+     *
+     * @param encoding The encoding to compress with.
+     * @param bytes    The buffer holding the bytes to compress.
+     * @param length   The number of bytes to compress.
+     * @param out      The stream to write the compressed bytes to.
+     * @throws IOException If the compressed bytes could not be written.
+     */
+    private void compress(Encoding encoding, byte[] bytes, int length, OutputStream out) throws IOException {
+        Pool pool = encoding == Encoding.GZIP ? gzipPool : deflatePool;
+        Compressor compressor = pool.borrow();
+        try {
+            compressor.write(bytes, length, out);
+        } finally {
+            pool.giveBack(compressor);
+        }
+    }
+
+    /**
+     * Gives a compressed body its own ETag, as a strong ETag identifies the exact bytes.
+     *
+     * @param etag     The quoted ETag of the uncompressed body.
+     * @param encoding The encoding of the body.
+     * @return The quoted ETag of the compressed body.
+     */
+    private static String etag(String etag, Encoding encoding) {
+        if (!etag.endsWith("\"")) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + "-" + encoding.token + "\"";
+    }
+
+    /**
+     * Picks the encoding to use from an Accept-Encoding header, honouring quality values. Gzip is preferred over
+     * deflate when the client rates them equally.
+     *
+     * @param acceptEncoding The Accept-Encoding header, which may be null.
+     * @return The encoding to use, or null if the body should not be compressed.
+     */
+    public static Encoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+            return null;
+        }
+
+        float gzip = -1;
+        float deflate = -1;
+        float wildcard = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String token = params[0].trim().toLowerCase();
+            float quality = 1;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        quality = Float.parseFloat(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+
+            if ("gzip".equals(token) || "x-gzip".equals(token)) {
+                gzip = quality;
+            } else if ("deflate".equals(token)) {
+                deflate = quality;
+            } else if ("*".equals(token)) {
+                wildcard = quality;
+            }
+        }
+
+        gzip = gzip < 0 ? wildcard : gzip;
+        deflate = deflate < 0 ? wildcard : deflate;
+        if (gzip <= 0 && deflate <= 0) {
+            return null;
+        }
+        return gzip >= deflate ? Encoding.GZIP : Encoding.DEFLATE;
+    }
+
+    public enum Encoding {
+        GZIP("gzip"),
+        DEFLATE("deflate");
+
+        private final String token;
+
+        Encoding(String token) {
+            this.token = token;
+        }
+
+        public String getToken() {
+            return token;
+        }
+    }
+
+    /**
+     * A bounded pool of compressors for one encoding. Compressors are created on demand when the pool is empty, and
+     * released rather than pooled when it is full.
+     */
+    private static class Pool {
+        private final Encoding encoding;
+        private final int level;
+        private final BlockingQueue<Compressor> compressors = new ArrayBlockingQueue<>(POOL_SIZE);
+
+        private Pool(Encoding encoding, int level) {
+            this.encoding = encoding;
+            this.level = level;
+        }
+
+        private Compressor borrow() {
+            Compressor compressor = compressors.poll();
+            return compressor != null ? compressor : new Compressor(encoding, level);
+        }
+
+        private void giveBack(Compressor compressor) {
+            compressor.reset();
+            if (!compressors.offer(compressor)) {
+                compressor.end();
+            }
+        }
+    }
+
+    /**
+     * A deflater with its output buffer. Gzip is written as raw deflate data framed by a gzip header and trailer, so
+     * that the deflater and checksum can be reset and reused rather than wrapped in a new GZIPOutputStream each time.
+     */
+    private static class Compressor {
+        private final Encoding encoding;
+        private final Deflater deflater;
+        private final CRC32 crc = new CRC32();
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+
+        private Compressor(Encoding encoding, int level) {
+            this.encoding = encoding;
+            this.deflater = new Deflater(level, encoding == Encoding.GZIP);
+        }
+
+        private void write(byte[] bytes, int length, OutputStream out) throws IOException {
+            if (encoding == Encoding.GZIP) {
+                out.write(GZIP_HEADER);
+                crc.update(bytes, 0, length);
+            }
+
+            deflater.setInput(bytes, 0, length);
+            deflater.finish();
+            while (!deflater.finished()) {
+                int deflated = deflater.deflate(buffer);
+                out.write(buffer, 0, deflated);
+            }
+
+            if (encoding == Encoding.GZIP) {
+                writeIntLE((int) crc.getValue(), out);
+                writeIntLE(length, out);
+            }
+        }
+
+        private void reset() {
+            deflater.reset();
+            crc.reset();
+        }
+
+        private void end() {
+            deflater.end();
+        }
+
+        private static void writeIntLE(int value, OutputStream out) throws IOException {
+            out.write(value & 0xff);
+            out.write((value >> 8) & 0xff);
+            out.write((value >> 16) & 0xff);
+            out.write((value >> 24) & 0xff);
+        }
+    }
+}
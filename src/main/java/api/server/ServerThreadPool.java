@@ -0,0 +1,155 @@
+package api.server;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import spark.Spark;
+import spark.embeddedserver.EmbeddedServers;
+import spark.embeddedserver.jetty.EmbeddedJettyFactory;
+import util.config.Props;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Configures the thread pool that API requests are handled on, either the pool of the embedded Jetty server that Spark
+ * runs on or the executor of the JDK HTTP server. By default requests are handled on a bounded pool of platform
+ * threads. When virtual threads are enabled and the JVM supports them (JDK 21+), the pool creates virtual threads
+ * instead, so requests blocked on the database no longer tie up a platform thread each.
+ * <p>
+ * Jetty 9.4 only runs on virtual threads from JDK 24, as it holds monitors while handing work between its threads. On
+ * older JVMs a virtual thread pins its carrier while it holds a monitor, and under load every carrier can end up pinned
+ * by a thread waiting for one that is not mounted, which deadlocks the server.
+ */
+public class ServerThreadPool {
+    private static final String VIRTUAL_THREAD_PREFIX = "api-virtual-";
+    private static final String PLATFORM_THREAD_PREFIX = "api-";
+    private static final int JETTY_VIRTUAL_THREADS_VERSION = 24;
+    private static final Logger logger = LogManager.getLogger(ServerThreadPool.class);
+
+    private ServerThreadPool() {
+    }
+
+    /**
+     * Applies the thread pool settings to Spark. Must be called before any routes are mapped, as mapping the first
+     * route starts the server.
+     */
+    public static void configure() {
+        configure(Props.isApiThreadsVirtual(), Props.getApiThreadsMin(), Props.getApiThreadsMax(),
+            Props.getApiThreadsVirtualMax(), Props.getApiThreadsIdleTimeout());
+    }
+
+    /**
+     * Applies thread pool settings to Spark. Must be called before any routes are mapped.
+     *
+     * @param virtual           Whether to handle requests on virtual threads, if the JVM supports them.
+     * @param minThreads        The number of threads kept when idle.
+     * @param maxThreads        The maximum number of platform threads.
+     * @param virtualMaxThreads The maximum number of virtual threads.
+     * @param idleTimeout       The time in milliseconds after which idle threads are stopped.
+     */
+    static void configure(boolean virtual, int minThreads, int maxThreads, int virtualMaxThreads, int idleTimeout) {
+        if (virtual) {
+            ThreadFactory virtualThreadFactory = createVirtualThreadFactory();
+
+            if (virtualThreadFactory != null && javaVersion() >= JETTY_VIRTUAL_THREADS_VERSION) {
+                QueuedThreadPool threadPool = new QueuedThreadPool(virtualMaxThreads, minThreads, idleTimeout, -1,
+                    null, null, virtualThreadFactory);
+                threadPool.setName(VIRTUAL_THREAD_PREFIX + "pool");
+                EmbeddedServers.add(EmbeddedServers.defaultIdentifier(),
+                    new EmbeddedJettyFactory().withThreadPool(threadPool));
+                logger.info("API requests will be handled on up to " + virtualMaxThreads + " virtual threads");
+                return;
+            }
+
+            if (virtualThreadFactory == null) {
+                logger.warn("Virtual threads are not supported by this JVM (JDK 21+ is required), falling back to " +
+                    "platform threads");
+            } else {
+                logger.warn("Virtual threads can deadlock Jetty on this JVM (JDK " + JETTY_VIRTUAL_THREADS_VERSION +
+                    "+ is required), falling back to platform threads");
+            }
+        }
+
+        Spark.threadPool(maxThreads, minThreads, idleTimeout);
+        logger.info("API requests will be handled on up to " + maxThreads + " platform threads");
+    }
+
+    /**
+     * Creates the executor for the JDK HTTP server, with the same settings as the Spark thread pool. Threads are
+     * created up to the maximum and then reused, and idle threads are stopped after the idle timeout.
+     *
+     * @return The request executor.
+     */
+    public static ExecutorService createExecutor() {
+        return createExecutor(Props.isApiThreadsVirtual(), Props.getApiThreadsMax(), Props.getApiThreadsVirtualMax(),
+            Props.getApiThreadsIdleTimeout());
+    }
+
+    /**
+     * Creates the executor for the JDK HTTP server from thread pool settings.
+     *
+     * @param virtual           Whether to handle requests on virtual threads, if the JVM supports them.
+     * @param maxThreads        The maximum number of platform threads.
+     * @param virtualMaxThreads The maximum number of virtual threads.
+     * @param idleTimeout       The time in milliseconds after which idle threads are stopped.
+     * @return The request executor.
+     */
+    static ExecutorService createExecutor(boolean virtual, int maxThreads, int virtualMaxThreads, int idleTimeout) {
+        ThreadFactory threadFactory = null;
+        if (virtual) {
+            threadFactory = createVirtualThreadFactory();
+            if (threadFactory != null) {
+                maxThreads = virtualMaxThreads;
+                logger.info("API requests will be handled on up to " + maxThreads + " virtual threads");
+            } else {
+                logger.warn("Virtual threads are not supported by this JVM (JDK 21+ is required), falling back to " +
+                    "platform threads");
+            }
+        }
+        if (threadFactory == null) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            threadFactory = runnable -> new Thread(runnable, PLATFORM_THREAD_PREFIX + threadNumber.getAndIncrement());
+            logger.info("API requests will be handled on up to " + maxThreads + " platform threads");
+        }
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, idleTimeout, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Gets the feature version of the JVM, e.g. 8 or 21, from its specification version, as Runtime.version() is not
+     * available on Java 8.
+     *
+     * @return The feature version.
+     */
+    private static int javaVersion() {
+        String version = System.getProperty("java.specification.version");
+        return Integer.parseInt(version.startsWith("1.") ? version.substring(2) : version);
+    }
+
+    /**
+     * Creates a factory for virtual threads through reflection, as the application is compiled for Java 8.
+     *
+     * @return The virtual thread factory, or null if the JVM does not support virtual threads.
+     */
+    private static ThreadFactory createVirtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Method name = builderClass.getMethod("name", String.class, long.class);
+            builder = name.invoke(builder, VIRTUAL_THREAD_PREFIX, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Either a JVM older than 19, or 19/20 without preview features enabled
+            return null;
+        }
+    }
+}
@@ -2,26 +2,49 @@ package db;
 
 import db.dao.CurrencyDAO;
 import db.dao.LoanTypeDAO;
+import db.fetch.FetchPlan;
+import db.fetch.Projection;
+import db.pool.ConnectionPool;
+import db.pool.PoolMetrics;
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import defs.enums.base.IDef;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.hibernate.CacheMode;
+import org.hibernate.FlushMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
 import org.hibernate.Transaction;
 import org.hibernate.boot.Metadata;
 import org.hibernate.boot.MetadataSources;
 import org.hibernate.boot.registry.StandardServiceRegistry;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
 import org.hibernate.query.Query;
 import util.config.Props;
 
+import java.lang.reflect.Field;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import static util.function.Util.getClasses;
 
@@ -30,32 +53,50 @@ import static util.function.Util.getClasses;
  */
 public class Database {
     private SessionFactory sessionFactory;
-    private final Connection connection;
+    private final ConnectionPool connectionPool;
     private static Database instance;
 
     private static final String HIBERNATE_CONFIG_FILE = "hibernate.cfg.xml";
     private static final Logger logger = LogManager.getLogger(Database.class);
 
-    private Database(Connection connection) {
-        this.connection = connection;
+    private Database(ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
     }
 
-    public Connection getConnection() {
-        return connection;
+    /**
+     * Borrows a connection from the connection pool. The connection must be closed to return it to the pool.
+     *
+     * @return A pooled connection.
+     * @throws SQLException When no connection could be acquired within the pool's connection timeout.
+     */
+    public Connection getConnection() throws SQLException {
+        return connectionPool.getConnection();
     }
 
     /**
-     * initialise the database. This method will import the properties, create the database, store the connection,
-     * initialise the Hibernate ORM, store the session factory for the database, and initialise/update definitions.
+     * Returns the saturation and wait-time metrics of the connection pool.
+     *
+     * @return A snapshot of the current pool metrics.
+     */
+    public PoolMetrics.Snapshot getPoolMetrics() {
+        return connectionPool.getMetrics();
+    }
+
+    /**
+     * initialise the database. This method will import the properties, create the database, start the connection
+     * pool, initialise the Hibernate ORM, store the session factory for the database, align the ID generators with
+     * existing rows, and initialise/update definitions.
      */
     public static void initialise() {
         initialiseDb();
         Database.instance.initialiseHibernate();
+        Database.instance.synchroniseIdGenerators();
         Database.instance.synchroniseDefinitions();
     }
 
     /**
-     * initialises the database instance with imported credentials.
+     * initialises the database instance with imported credentials. The database is created with a one-off connection,
+     * after which a connection pool is started against it.
      *
      * @throws ExceptionInInitializerError When the database fails to be initialised.
      */
@@ -72,28 +113,33 @@ public class Database {
                 statement.executeUpdate();
             }
             logger.info("Database " + dbName + " initialised");
-            Database.instance = new Database(connection);
         } catch (SQLException e) {
             logger.error("Error initialising database");
             throw new ExceptionInInitializerError(e);
         }
+
+        // initialise connection pool
+        try {
+            Database.instance = new Database(new ConnectionPool(dbUrl + "/" + dbName, dbUser, dbPassword));
+        } catch (Exception e) {
+            logger.error("Error initialising connection pool");
+            throw new ExceptionInInitializerError(e);
+        }
     }
 
     /**
      * initialises the Hibernate instance and related credentials. All classes in the "db.model" package are added as
-     * Hibernate class mappings.
+     * Hibernate class mappings. Connections are provided by the connection pool.
      *
      * @throws ExceptionInInitializerError When Hibernate fails to be initialised.
      */
     private void initialiseHibernate() {
         try {
-            // Inject properties into Hibernate config
+            // Inject the pooled data source into Hibernate config
             StandardServiceRegistry standardRegistry = new StandardServiceRegistryBuilder()
                 .configure(HIBERNATE_CONFIG_FILE)
-                .applySetting("hibernate.connection.url",
-                    Props.getDbHost() + ":" + Props.getDbPort() + "/" + Props.getDbName())
-                .applySetting("hibernate.connection.username", Props.getDbUser())
-                .applySetting("hibernate.connection.password", Props.getDbPassword())
+                .applySetting(AvailableSettings.DATASOURCE, connectionPool.getDataSource())
+                .applySetting(AvailableSettings.STATEMENT_BATCH_SIZE, Props.getDbBatchSize())
                 .build();
 
             // Add class mappings to Hibernate config
@@ -110,6 +156,43 @@ public class Database {
         }
     }
 
+    /**
+     * Ensures the table-backed ID sequences of all classes in the "db.model" package will not hand out IDs that are
+     * already in use, e.g. by rows created before the sequence was introduced. Each sequence is moved past the highest
+     * existing ID plus its allocation size, since the pooled optimiser hands out the block below the stored value.
+     *
+     * @throws ExceptionInInitializerError When the ID generators fail to be synchronised.
+     */
+    private void synchroniseIdGenerators() {
+        try {
+            for (Class<?> entityClass : getClasses("db.model")) {
+                Table table = entityClass.getAnnotation(Table.class);
+                for (Field field : entityClass.getDeclaredFields()) {
+                    SequenceGenerator generator = field.getAnnotation(SequenceGenerator.class);
+                    Column column = field.getAnnotation(Column.class);
+                    if (table == null || generator == null || column == null) {
+                        continue;
+                    }
+
+                    final String maxId = "(SELECT COALESCE(MAX(" + column.name() + "), 0) FROM " + table.name() + ")";
+                    final String sqlAlignSequence = "UPDATE " + generator.sequenceName() +
+                        " SET next_val = " + maxId + " + " + (generator.allocationSize() + 1) +
+                        " WHERE next_val <= " + maxId + " + " + generator.allocationSize();
+                    performDatabaseAction((Session session) -> {
+                        int updated = session.createNativeMutationQuery(sqlAlignSequence).executeUpdate();
+                        if (updated > 0) {
+                            logger.info("Moved ID sequence " + generator.sequenceName() + " past existing rows");
+                        }
+                        return Optional.empty();
+                    }, true);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error synchronising ID generators");
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     /**
      * Synchronises all enum definitions (e.g. currencies, loan types) with the database.
      */
@@ -146,6 +229,20 @@ public class Database {
         return sessionFactory.openSession();
     }
 
+    /**
+     * Opens a stateless session using the Hibernate session factory. Stateless sessions have no persistence context,
+     * so their memory use does not grow with the number of entities they read or write.
+     *
+     * @return A Hibernate stateless session.
+     * @throws IllegalStateException When the session factory is closed.
+     */
+    public StatelessSession openStatelessSession() {
+        if (sessionFactory.isClosed()) {
+            throw new IllegalStateException("Session factory is closed");
+        }
+        return sessionFactory.openStatelessSession();
+    }
+
     /**
      * A private interface to allow passing a lambda function to wrap inside a database session.
      *
@@ -184,6 +281,253 @@ public class Database {
         }
     }
 
+    /**
+     * Wraps an action inside a read-only database session. Entities loaded in the session are read-only, so Hibernate
+     * keeps no dirty-checking snapshots of them and never flushes, and the JDBC connection is marked read-only. No
+     * transaction is started; each statement runs in auto-commit mode, which avoids the begin/commit round trips.
+     *
+     * @param databaseAction The action to wrap inside a read-only database session.
+     * @param <Response>     The response expected from the action.
+     * @return An optional response (if the action is supposed to pass a response).
+     */
+    public <Response> Optional<Response> performReadOnlyDatabaseAction(IDatabaseAction<Response> databaseAction) {
+        try (Session session = openSession()) {
+            logger.debug("Begin read-only database session");
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+            session.doWork((Connection connection) -> connection.setReadOnly(true));
+            Optional<Response> response = databaseAction.performAction(session);
+            logger.debug("Completed read-only database session");
+            return response;
+        } catch (Exception e) {
+            logger.error(e);
+            throw e;
+        }
+    }
+
+    /**
+     * A private interface to allow passing a lambda function to wrap inside a stateless database session.
+     *
+     * @param <Response> The optional response expected from the lambda function.
+     */
+    @FunctionalInterface
+    public interface IStatelessDatabaseAction<Response> {
+        Optional<Response> performAction(StatelessSession session);
+    }
+
+    /**
+     * A generic method to wrap an action inside a transactional stateless database session. Intended for bulk work
+     * such as imports, exports and maintenance jobs.
+     *
+     * @param databaseAction The action to wrap inside a stateless database session.
+     * @param <Response>     The response expected from the action.
+     * @return An optional response (if the action in the transaction is supposed to pass a response).
+     */
+    public <Response> Optional<Response> performStatelessDatabaseAction(
+        IStatelessDatabaseAction<Response> databaseAction) {
+        try (StatelessSession session = openStatelessSession()) {
+            logger.debug("Begin stateless database session");
+            session.setJdbcBatchSize(Props.getDbBulkChunkSize());
+            Transaction transaction = session.beginTransaction();
+            Optional<Response> response = databaseAction.performAction(session);
+            transaction.commit();
+            logger.debug("Completed stateless database session");
+            return response;
+        } catch (Exception e) {
+            logger.error(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Scrolls through all entities of a type in a read-only session, passing them to a consumer one at a time.
+     * Associations and collections can still be loaded while an entity is being consumed. Rows are fetched
+     * forward-only with a bounded fetch size and the session is cleared after every fetch, so memory use stays constant
+     * regardless of table size.
+     *
+     * @param classInstance    The class instance of the entities to scroll through (e.g. LoanApplicant.class).
+     * @param consumer         The consumer to pass each entity to.
+     * @param <DatabaseEntity> The type of the entities to scroll through.
+     * @return The number of entities consumed.
+     */
+    public <DatabaseEntity> long scrollEntities(Class<DatabaseEntity> classInstance,
+                                                Consumer<DatabaseEntity> consumer) {
+        final int fetchSize = Props.getDbBulkFetchSize();
+        Optional<Long> response = performReadOnlyDatabaseAction((Session session) -> {
+            long count = 0;
+            try (ScrollableResults<DatabaseEntity> results = session
+                .createQuery("FROM " + classInstance.getName(), classInstance)
+                .setFetchSize(fetchSize)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (results.next()) {
+                    consumer.accept(results.get());
+                    if (++count % fetchSize == 0) {
+                        session.clear();
+                    }
+                }
+            }
+            return Optional.of(count);
+        });
+
+        return response.orElse(0L);
+    }
+
+    /**
+     * Inserts entities into the database in chunks. Each chunk is written with JDBC batching and committed in its own
+     * stateless session transaction, so memory use does not grow with the number of entities. Cascades are not
+     * applied; child entities must be inserted separately.
+     *
+     * @param databaseEntities The entities to insert.
+     * @param <DatabaseEntity> The type of the entities to insert.
+     * @return The number of entities inserted.
+     */
+    public <DatabaseEntity> long insertEntities(Iterable<DatabaseEntity> databaseEntities) {
+        return performInChunks(databaseEntities, StatelessSession::insert);
+    }
+
+    /**
+     * Inserts entities into the database in a single stateless session transaction, written with JDBC batching.
+     * Either all of the entities are inserted or, if any insert fails, none are. Cascades are not applied; child
+     * entities must be included after their parents.
+     *
+     * @param databaseEntities The entities to insert.
+     * @param <DatabaseEntity> The type of the entities to insert.
+     * @return The number of entities inserted.
+     */
+    public <DatabaseEntity> long insertEntitiesInTransaction(Iterable<DatabaseEntity> databaseEntities) {
+        return performStatelessDatabaseAction((StatelessSession session) -> {
+            long count = 0;
+            for (DatabaseEntity databaseEntity : databaseEntities) {
+                session.insert(databaseEntity);
+                count++;
+            }
+            return Optional.of(count);
+        }).orElse(0L);
+    }
+
+    /**
+     * Updates entities in the database in chunks. Each chunk is written with JDBC batching and committed in its own
+     * stateless session transaction.
+     *
+     * @param databaseEntities The entities to update.
+     * @param <DatabaseEntity> The type of the entities to update.
+     * @return The number of entities updated.
+     */
+    public <DatabaseEntity> long updateEntities(Iterable<DatabaseEntity> databaseEntities) {
+        return performInChunks(databaseEntities, StatelessSession::update);
+    }
+
+    /**
+     * Deletes entities by primary key in chunks. Each chunk is removed with a single bulk delete statement and
+     * committed in its own transaction, so no entities are loaded and locks are held only briefly.
+     *
+     * @param classInstance    The entity's class instance (e.g. Loan.class).
+     * @param idField          The name of the primary key field of the entity (e.g. "id").
+     * @param ids              The primary keys of the entities to delete.
+     * @param <DatabaseEntity> The type of the entities to delete.
+     * @param <ID>             The type of the entities' primary key.
+     * @return The number of entities deleted.
+     */
+    public <DatabaseEntity, ID> long deleteEntitiesById(Class<DatabaseEntity> classInstance, String idField,
+                                                        Iterable<ID> ids) {
+        final String hqlDelete = "DELETE FROM " + classInstance.getName() + " WHERE " + idField + " IN (:ids)";
+        final int chunkSize = Props.getDbBulkChunkSize();
+        long deleted = 0;
+        List<ID> chunk = new ArrayList<>(chunkSize);
+        Iterator<ID> iterator = ids.iterator();
+        while (iterator.hasNext()) {
+            chunk.add(iterator.next());
+            if (chunk.size() == chunkSize || !iterator.hasNext()) {
+                final List<ID> chunkToDelete = chunk;
+                deleted += performStatelessDatabaseAction((StatelessSession session) ->
+                    Optional.of(session.createMutationQuery(hqlDelete)
+                        .setParameterList("ids", chunkToDelete)
+                        .executeUpdate()))
+                    .orElse(0);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        logger.debug("Deleted " + deleted + " " + classInstance.getSimpleName() + " entities");
+        return deleted;
+    }
+
+    /**
+     * Deletes entities by primary key in bulk, together with the dependant entities that reference them, in a single
+     * stateless session transaction. Either all of them are deleted or, if any delete fails, none are. The keys are
+     * deleted in chunks; for each chunk, the dependants are deleted first, in the given order, each with a single bulk
+     * delete statement, followed by the entities. No entities are loaded, but the locks are held until every chunk is
+     * deleted.
+     *
+     * @param classInstance    The entity's class instance (e.g. LoanApplicant.class).
+     * @param idField          The name of the primary key field of the entity (e.g. "id").
+     * @param ids              The primary keys of the entities to delete.
+     * @param dependants       The classes of the dependant entities, mapped to the HQL path of their reference to the
+     *                         entity (e.g. IncomeSource.class to "loanApplicant.id"), in the order to delete them in.
+     * @param <DatabaseEntity> The type of the entities to delete.
+     * @param <ID>             The type of the entities' primary key.
+     * @return The number of entities deleted, not counting dependants.
+     */
+    public <DatabaseEntity, ID> long deleteEntitiesByIdInTransaction(Class<DatabaseEntity> classInstance,
+                                                                     String idField, Iterable<ID> ids,
+                                                                     Map<Class<?>, String> dependants) {
+        final List<String> hqlDeletes = new ArrayList<>();
+        for (Map.Entry<Class<?>, String> dependant : dependants.entrySet()) {
+            hqlDeletes.add("DELETE FROM " + dependant.getKey().getName() + " WHERE " + dependant.getValue() +
+                " IN (:ids)");
+        }
+        final String hqlDelete = "DELETE FROM " + classInstance.getName() + " WHERE " + idField + " IN (:ids)";
+        final int chunkSize = Props.getDbBulkChunkSize();
+        long deleted = performStatelessDatabaseAction((StatelessSession session) -> {
+            long count = 0;
+            List<ID> chunk = new ArrayList<>(chunkSize);
+            Iterator<ID> iterator = ids.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == chunkSize || !iterator.hasNext()) {
+                    for (String hqlDeleteDependants : hqlDeletes) {
+                        session.createMutationQuery(hqlDeleteDependants)
+                            .setParameterList("ids", chunk)
+                            .executeUpdate();
+                    }
+                    count += session.createMutationQuery(hqlDelete)
+                        .setParameterList("ids", chunk)
+                        .executeUpdate();
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            return Optional.of(count);
+        }).orElse(0L);
+        logger.debug("Deleted " + deleted + " " + classInstance.getSimpleName() + " entities and their dependants");
+        return deleted;
+    }
+
+    /**
+     * Applies a write operation to entities in chunks, each chunk in its own stateless session transaction.
+     *
+     * @param databaseEntities The entities to write.
+     * @param operation        The write operation to apply to each entity.
+     * @param <DatabaseEntity> The type of the entities to write.
+     * @return The number of entities written.
+     */
+    private <DatabaseEntity> long performInChunks(Iterable<DatabaseEntity> databaseEntities,
+                                                  BiConsumer<StatelessSession, DatabaseEntity> operation) {
+        final int chunkSize = Props.getDbBulkChunkSize();
+        long written = 0;
+        Iterator<DatabaseEntity> iterator = databaseEntities.iterator();
+        while (iterator.hasNext()) {
+            written += performStatelessDatabaseAction((StatelessSession session) -> {
+                int count = 0;
+                while (count < chunkSize && iterator.hasNext()) {
+                    operation.accept(session, iterator.next());
+                    count++;
+                }
+                return Optional.of(count);
+            }).orElse(0);
+        }
+        return written;
+    }
+
     /**
      * Saves an entity to the database.
      *
@@ -200,7 +544,27 @@ public class Database {
     }
 
     /**
-     * Finds an entity in the database.
+     * Saves an entity to the database and increments the version of the entity that owns it, in one transaction. This
+     * lets the owner's version, and so its ETag, change whenever one of its child entities does.
+     *
+     * @param databaseEntity   The entity to persist in the database, e.g. an income source.
+     * @param ownerClass       The class instance of the versioned owner entity (e.g. LoanApplicant.class).
+     * @param ownerId          The primary key of the owner entity.
+     * @param <DatabaseEntity> The type of the entity to persist.
+     * @param <Owner>          The type of the owner entity.
+     * @param <ID>             The type of the owner entity's primary key.
+     */
+    public <DatabaseEntity, Owner, ID> void saveEntity(DatabaseEntity databaseEntity, Class<Owner> ownerClass,
+                                                       ID ownerId) {
+        performDatabaseAction((Session session) -> {
+            session.find(ownerClass, ownerId, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+            session.persist(databaseEntity);
+            return Optional.empty();
+        }, true);
+    }
+
+    /**
+     * Finds an entity in the database using a read-only session. Only the entity's own columns are loaded.
      *
      * @param classInstance    The entity's class instance (e.g. LoanApplicant.class).
      * @param id               The primary key to find the entity with.
@@ -209,30 +573,261 @@ public class Database {
      * @return The entity, or null if the entity was not found.
      */
     public <DatabaseEntity, ID> DatabaseEntity findEntityById(Class<DatabaseEntity> classInstance, ID id) {
-        Optional<DatabaseEntity> response = performDatabaseAction((Session session) -> {
+        return findEntityById(classInstance, id, FetchPlan.none());
+    }
+
+    /**
+     * Finds an entity in the database using a read-only session, initialising the associations of a fetch plan.
+     *
+     * @param classInstance    The entity's class instance (e.g. LoanApplicant.class).
+     * @param id               The primary key to find the entity with.
+     * @param fetchPlan        The fetch plan listing the associations to initialise.
+     * @param <DatabaseEntity> The type of the entity to find in the database.
+     * @param <ID>             The type of the entity's primary key.
+     * @return The entity, or null if the entity was not found.
+     */
+    public <DatabaseEntity, ID> DatabaseEntity findEntityById(Class<DatabaseEntity> classInstance, ID id,
+                                                              FetchPlan<DatabaseEntity> fetchPlan) {
+        Optional<DatabaseEntity> response = performReadOnlyDatabaseAction((Session session) -> {
             DatabaseEntity foundDatabaseEntity = session.find(classInstance, id);
-            return foundDatabaseEntity == null ? Optional.empty() : Optional.of(foundDatabaseEntity);
-        }, true);
+            if (foundDatabaseEntity == null) {
+                return Optional.empty();
+            }
+            fetchPlan.initialise(foundDatabaseEntity);
+            return Optional.of(foundDatabaseEntity);
+        });
 
         return response.orElse(null);
     }
 
     /**
-     * Finds all entities in the database.
+     * Finds a single field of an entity by its primary key, without loading the entity itself. This is useful for
+     * cheap checks such as comparing an entity's version.
+     *
+     * @param classInstance    The entity's class instance (e.g. LoanApplicant.class).
+     * @param resultClass      The class of the field (e.g. Long.class).
+     * @param field            The entity field to select (e.g. "version").
+     * @param idField          The name of the entity's ID field (e.g. "id").
+     * @param id               The primary key of the entity.
+     * @param <DatabaseEntity> The type of the entity.
+     * @param <Result>         The type of the field.
+     * @param <ID>             The type of the entity's primary key.
+     * @return The value of the field, or null if the entity was not found.
+     */
+    public <DatabaseEntity, Result, ID> Result findFieldById(Class<DatabaseEntity> classInstance,
+                                                             Class<Result> resultClass, String field,
+                                                             String idField, ID id) {
+        final String hqlFind = "SELECT e." + field +
+            " FROM " + classInstance.getName() + " e" +
+            " WHERE e." + idField + " = :id";
+        Optional<Result> response = performReadOnlyDatabaseAction((Session session) ->
+            session.createQuery(hqlFind, resultClass)
+                .setParameter("id", id)
+                .uniqueResultOptional());
+
+        return response.orElse(null);
+    }
+
+    /**
+     * Finds a single field of every entity whose given field is in a collection of values, without loading the
+     * entities themselves, e.g. to check which of a set of IDs exist.
+     *
+     * @param classInstance    The entity's class instance (e.g. LoanApplicant.class).
+     * @param resultClass      The class of the field to select (e.g. Long.class).
+     * @param field            The entity field to select (e.g. "id").
+     * @param inField          The entity field to match against the values (e.g. "id").
+     * @param values           The values to match.
+     * @param <DatabaseEntity> The type of the entity.
+     * @param <Result>         The type of the selected field.
+     * @return The selected field of every matching entity.
+     */
+    public <DatabaseEntity, Result> List<Result> findFieldIn(Class<DatabaseEntity> classInstance,
+                                                             Class<Result> resultClass, String field,
+                                                             String inField, Collection<?> values) {
+        if (values.isEmpty()) {
+            return new ArrayList<>();
+        }
+        final String hqlFind = "SELECT e." + field +
+            " FROM " + classInstance.getName() + " e" +
+            " WHERE e." + inField + " IN (:values)";
+        Optional<List<Result>> response = performReadOnlyDatabaseAction((Session session) ->
+            Optional.of(session.createQuery(hqlFind, resultClass)
+                .setParameterList("values", values)
+                .getResultList()));
+
+        return response.orElse(null);
+    }
+
+    /**
+     * Finds all entities in the database using a read-only session. The query result is cached for entities that are
+     * held in the second-level cache.
      *
      * @param classInstance    The class instance of the entities to find (e.g. LoanApplicant.class).
      * @param <DatabaseEntity> The type of the entities to find in the database.
      * @return A list of all entities in the database.
      */
     public <DatabaseEntity> List<DatabaseEntity> findAllEntities(Class<DatabaseEntity> classInstance) {
-        Optional<List<DatabaseEntity>> response = performDatabaseAction((Session session) -> {
+        Optional<List<DatabaseEntity>> response = performReadOnlyDatabaseAction((Session session) -> {
             Query<DatabaseEntity> query = session.createQuery("FROM " + classInstance.getName(), classInstance);
+            if (classInstance.isAnnotationPresent(Cacheable.class)) {
+                query.setCacheable(true);
+            }
             return Optional.of(query.getResultList());
-        }, true);
+        });
 
         return response.orElse(null);
     }
 
+    /**
+     * Finds a page of DTO projections in the database using keyset pagination and a read-only session. The DTOs are
+     * built by a constructor expression straight from the selected columns, so no entities are hydrated or tracked.
+     *
+     * @param classInstance    The class instance of the entities to project (e.g. Loan.class).
+     * @param resultClass      The class instance of the DTOs to build (e.g. LoanDTO.class).
+     * @param selection        The comma-separated HQL paths, relative to the entity alias "e", that are passed to the
+     *                         DTO constructor, e.g. "e.id, e.loanApplicant.id".
+     * @param idField          The name of the primary key field of the entity (e.g. "id").
+     * @param afterId          The primary key to start after, or null to start from the first entity.
+     * @param limit            The maximum number of DTOs to return.
+     * @param <DatabaseEntity> The type of the entities to project.
+     * @param <Result>         The type of the DTOs to build.
+     * @param <ID>             The type of the entities' primary key.
+     * @return A list of at most limit DTOs, ordered by primary key.
+     */
+    public <DatabaseEntity, Result, ID> List<Result> findProjectionsAfter(Class<DatabaseEntity> classInstance,
+                                                                          Class<Result> resultClass, String selection,
+                                                                          String idField, ID afterId, int limit) {
+        Optional<List<Result>> response = performReadOnlyDatabaseAction((Session session) -> Optional.of(
+            findProjectionsAfter(session, classInstance, resultClass, selection, idField, afterId, limit)));
+
+        return response.orElse(null);
+    }
+
+    /**
+     * Finds a page of DTO projections using keyset pagination, in a session that is already open, so that the page can
+     * be read in the same session as the queries that complete it.
+     *
+     * @param session          The open session, e.g. of performReadOnlyDatabaseAction.
+     * @param classInstance    The class instance of the entities to project (e.g. Loan.class).
+     * @param resultClass      The class instance of the DTOs to build (e.g. LoanDTO.class).
+     * @param selection        The comma-separated HQL paths, relative to the entity alias "e", that are passed to the
+     *                         DTO constructor, e.g. "e.id, e.loanApplicant.id".
+     * @param idField          The name of the primary key field of the entity (e.g. "id").
+     * @param afterId          The primary key to start after, or null to start from the first entity.
+     * @param limit            The maximum number of DTOs to return.
+     * @param <DatabaseEntity> The type of the entities to project.
+     * @param <Result>         The type of the DTOs to build.
+     * @param <ID>             The type of the entities' primary key.
+     * @return A list of at most limit DTOs, ordered by primary key.
+     */
+    public <DatabaseEntity, Result, ID> List<Result> findProjectionsAfter(Session session,
+                                                                          Class<DatabaseEntity> classInstance,
+                                                                          Class<Result> resultClass, String selection,
+                                                                          String idField, ID afterId, int limit) {
+        final String hqlFind = "SELECT new " + resultClass.getName() + "(" + selection + ")" +
+            " FROM " + classInstance.getName() + " e" +
+            (afterId == null ? "" : " WHERE e." + idField + " > :afterId") +
+            " ORDER BY e." + idField;
+        Query<Result> query = session.createQuery(hqlFind, resultClass).setMaxResults(limit);
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * Finds DTO projections of all entities whose field matches one of the given values, in a session that is already
+     * open, e.g. the income sources of a page of loan applicants read in the same session as the page.
+     *
+     * @param session          The open session, e.g. of performReadOnlyDatabaseAction.
+     * @param classInstance    The class instance of the entities to project (e.g. IncomeSource.class).
+     * @param resultClass      The class instance of the DTOs to build (e.g. IncomeSourceDTO.class).
+     * @param selection        The comma-separated HQL paths, relative to the entity alias "e", that are passed to the
+     *                         DTO constructor.
+     * @param field            The HQL path of the field to match, relative to "e" (e.g. "loanApplicant.id").
+     * @param values           The values to match the field against.
+     * @param <DatabaseEntity> The type of the entities to project.
+     * @param <Result>         The type of the DTOs to build.
+     * @return A list of DTOs, ordered by the matched field.
+     */
+    public <DatabaseEntity, Result> List<Result> findProjectionsIn(Session session,
+                                                                   Class<DatabaseEntity> classInstance,
+                                                                   Class<Result> resultClass, String selection,
+                                                                   String field, Collection<?> values) {
+        if (values.isEmpty()) {
+            return new ArrayList<>();
+        }
+        final String hqlFind = "SELECT new " + resultClass.getName() + "(" + selection + ")" +
+            " FROM " + classInstance.getName() + " e" +
+            " WHERE e." + field + " IN (:values)" +
+            " ORDER BY e." + field;
+        return session.createQuery(hqlFind, resultClass)
+            .setParameterList("values", values)
+            .getResultList();
+    }
+
+    /**
+     * Finds a page of sparse DTO projections using keyset pagination, in a session that is already open. Only the
+     * columns of the projection are selected, and each row is set on an empty DTO, so the DTO members of unselected
+     * columns are left null.
+     *
+     * @param session          The open session, e.g. of performReadOnlyDatabaseAction.
+     * @param classInstance    The class instance of the entities to project (e.g. LoanApplicant.class).
+     * @param projection       The projection listing the columns to select.
+     * @param idField          The name of the primary key field of the entity (e.g. "id").
+     * @param afterId          The primary key to start after, or null to start from the first entity.
+     * @param limit            The maximum number of DTOs to return.
+     * @param <DatabaseEntity> The type of the entities to project.
+     * @param <Result>         The type of the DTOs to build.
+     * @param <ID>             The type of the entities' primary key.
+     * @return A list of at most limit DTOs, ordered by primary key.
+     */
+    public <DatabaseEntity, Result, ID> List<Result> findProjectionsAfter(Session session,
+                                                                          Class<DatabaseEntity> classInstance,
+                                                                          Projection<Result> projection,
+                                                                          String idField, ID afterId, int limit) {
+        final String hqlFind = "SELECT " + projection.getSelection() +
+            " FROM " + classInstance.getName() + " e" +
+            (afterId == null ? "" : " WHERE e." + idField + " > :afterId") +
+            " ORDER BY e." + idField;
+        Query<Object[]> query = session.createQuery(hqlFind, Object[].class).setMaxResults(limit);
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+        }
+        List<Result> results = new ArrayList<>();
+        for (Object[] row : query.getResultList()) {
+            results.add(projection.toResult(row));
+        }
+        return results;
+    }
+
+    /**
+     * Finds a sparse DTO projection of a single entity by its primary key, in a session that is already open. Only the
+     * columns of the projection are selected.
+     *
+     * @param session          The open session, e.g. of performReadOnlyDatabaseAction.
+     * @param classInstance    The class instance of the entity to project (e.g. LoanApplicant.class).
+     * @param projection       The projection listing the columns to select.
+     * @param idField          The name of the primary key field of the entity (e.g. "id").
+     * @param id               The primary key of the entity.
+     * @param <DatabaseEntity> The type of the entity to project.
+     * @param <Result>         The type of the DTO to build.
+     * @param <ID>             The type of the entity's primary key.
+     * @return The DTO, or null if the entity was not found.
+     */
+    public <DatabaseEntity, Result, ID> Result findProjectionById(Session session, Class<DatabaseEntity> classInstance,
+                                                                  Projection<Result> projection,
+                                                                  String idField, ID id) {
+        final String hqlFind = "SELECT " + projection.getSelection() +
+            " FROM " + classInstance.getName() + " e" +
+            " WHERE e." + idField + " = :id";
+        return session.createQuery(hqlFind, Object[].class)
+            .setParameter("id", id)
+            .uniqueResultOptional()
+            .map(projection::toResult)
+            .orElse(null);
+    }
+
     /**
      * Updates an entity in the database.
      *
@@ -246,6 +841,20 @@ public class Database {
         }, true);
     }
 
+    /**
+     * Updates an entity in the database and increments its version even if only the child entities it cascades to
+     * changed, which Hibernate would otherwise not count as a change of the entity.
+     *
+     * @param databaseEntity   The versioned entity to update in the database.
+     * @param <DatabaseEntity> The type of the entity to update.
+     */
+    public <DatabaseEntity> void updateEntityAndVersion(DatabaseEntity databaseEntity) {
+        performDatabaseAction((Session session) -> {
+            session.lock(session.merge(databaseEntity), LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+            return Optional.empty();
+        }, true);
+    }
+
     /**
      * Deletes an entity from the database.
      *
@@ -265,11 +874,14 @@ public class Database {
      * @param acceptedDefs     The enum values to accept as valid database entities.
      * @param classInstance    The database entity class.
      * @param <DatabaseEntity> The database entity type.
+     * @return The synchronised entities, in the order of the accepted enum values.
      */
-    public <DatabaseEntity> void synchronise(IDef<DatabaseEntity>[] acceptedDefs, Class<DatabaseEntity> classInstance) {
-        Database.getInstance().performDatabaseAction((Session session) -> {
+    public <DatabaseEntity> List<DatabaseEntity> synchronise(IDef<DatabaseEntity>[] acceptedDefs,
+                                                             Class<DatabaseEntity> classInstance) {
+        Optional<List<DatabaseEntity>> response = Database.getInstance().performDatabaseAction((Session session) -> {
             List<DatabaseEntity> existingEntities =
                 session.createQuery("FROM " + classInstance.getName(), classInstance).list();
+            List<DatabaseEntity> synchronisedEntities = new ArrayList<>(acceptedDefs.length);
 
             // Update or add accepted enum values to the database
             for (IDef<DatabaseEntity> acceptedDef : acceptedDefs) {
@@ -278,9 +890,10 @@ public class Database {
                 if (existingEntities.contains(databaseEntity)) {
                     DatabaseEntity existingDatabaseEntity = existingEntities.get(existingEntities.indexOf(databaseEntity));
                     acceptedDef.updateEntity(existingDatabaseEntity);
-                    session.merge(existingDatabaseEntity);
+                    synchronisedEntities.add(session.merge(existingDatabaseEntity));
                 } else {
                     session.persist(databaseEntity);
+                    synchronisedEntities.add(databaseEntity);
                 }
             }
 
@@ -290,7 +903,17 @@ public class Database {
             for (DatabaseEntity databaseEntityToRemove : existingEntities) {
                 session.remove(databaseEntityToRemove);
             }
-            return Optional.empty();
+            return Optional.of(synchronisedEntities);
         }, true);
+
+        // Drop any cached copies of the definitions so they are reloaded from the database
+        if (classInstance.isAnnotationPresent(Cacheable.class)) {
+            org.hibernate.Cache cache = sessionFactory.getCache();
+            cache.evictEntityData(classInstance);
+            cache.evictDefaultQueryRegion();
+            logger.debug("Evicted cached " + classInstance.getSimpleName() + " entities");
+        }
+
+        return response.orElse(Collections.emptyList());
     }
 }
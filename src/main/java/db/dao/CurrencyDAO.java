@@ -3,7 +3,9 @@ package db.dao;
 import db.Database;
 import db.dao.base.IDAO;
 import db.model.Currency;
+import db.registry.DefinitionRegistry;
 import defs.enums.AcceptedCurrency;
+import defs.errors.CurrencyNotFoundException;
 import defs.errors.ServerErrorException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -11,11 +13,12 @@ import org.apache.logging.log4j.Logger;
 import java.util.List;
 
 public class CurrencyDAO implements IDAO<Currency, String> {
+    private static final DefinitionRegistry<Currency> registry = new DefinitionRegistry<>(Currency::getCode);
     private static final Logger logger = LogManager.getLogger(CurrencyDAO.class);
 
 
     /**
-     * Finds all currencies in the database.
+     * Finds all currencies. Currencies are served from the in-memory registry without a database session.
      *
      * @return A list of currencies.
      * @throws ServerErrorException When any error occurs.
@@ -23,8 +26,11 @@ public class CurrencyDAO implements IDAO<Currency, String> {
     @Override
     public List<Currency> findAll() {
         try {
-            List<Currency> currencies = Database.getInstance().findAllEntities(Currency.class);
-            logger.info("Found " + currencies.size() + " currencies");
+            List<Currency> currencies = registry.findAll();
+            // Checked first, as this runs on every request and the message would be built even when not logged
+            if (logger.isDebugEnabled()) {
+                logger.debug("Found " + currencies.size() + " currencies");
+            }
             return currencies;
         } catch (Exception e) {
             logger.error("Error finding currencies. Error: " + e.getMessage());
@@ -34,34 +40,28 @@ public class CurrencyDAO implements IDAO<Currency, String> {
     }
 
     /**
-     * Finds a currency by code.
+     * Finds a currency by code. Currencies are served from the in-memory registry without a database session.
      *
      * @param code The code primary key.
-     * @return A currency, or null if not found.
-     * @throws ServerErrorException When any error occurs.
+     * @return A currency.
+     * @throws CurrencyNotFoundException When the code is not one of the accepted currencies.
      */
     @Override
     public Currency find(String code) {
-        try {
-            Currency currency = Database.getInstance().findEntityById(Currency.class, code);
-            if (currency != null) {
-                logger.info("Found currency with code " + currency.getCode());
-            } else {
-                logger.info("Currency with code " + code + " not found");
-            }
-            return currency;
-        } catch (Exception e) {
-            logger.error("Error finding currency with code " + code + ". Error: " + e.getMessage());
-            e.printStackTrace();
-            throw new ServerErrorException(e.getMessage());
+        Currency currency = registry.find(code);
+        if (currency == null) {
+            logger.info("Currency with code " + code + " not found");
+            throw new CurrencyNotFoundException("Currency not found", code);
         }
+        return currency;
     }
 
     /**
-     * Ensures all currencies defined programmatically in the enum are synced with the database.
+     * Ensures all currencies defined programmatically in the enum are synced with the database, then publishes the
+     * synchronised currencies to the in-memory registry.
      */
     public void synchroniseCurrencies() {
-        Database.getInstance().synchronise(AcceptedCurrency.values(), Currency.class);
+        registry.publish(Database.getInstance().synchronise(AcceptedCurrency.values(), Currency.class));
         logger.info("Synchronised currencies");
     }
 }
@@ -3,6 +3,7 @@ package db.dao;
 import db.Database;
 import db.dao.base.IDAO;
 import db.model.IncomeSource;
+import db.model.LoanApplicant;
 import defs.errors.BadSyntaxException;
 import defs.errors.IllegalIDFieldException;
 import defs.errors.ServerErrorException;
@@ -39,7 +40,9 @@ public class IncomeSourceDAO implements IDAO<IncomeSource, Long> {
         try {
             validate(incomeSource);
             if (incomeSource.getId() == null) {
-                Database.getInstance().saveEntity(incomeSource);
+                // The applicant's version changes with its children, so that its ETag does too
+                Database.getInstance()
+                    .saveEntity(incomeSource, LoanApplicant.class, incomeSource.getLoanApplicant().getId());
                 logger.info("Added income source with ID " + incomeSource.getId() + " to the database");
             } else {
                 throw new IllegalIDFieldException("Object identifier already set");
@@ -2,19 +2,87 @@ package db.dao;
 
 import db.Database;
 import db.dao.base.IDAO;
+import db.fetch.FetchPlan;
+import db.fetch.Projection;
+import db.model.IncomeSource;
+import db.model.Loan;
 import db.model.LoanApplicant;
+import db.model.RecurringExpense;
+import defs.dto.IncomeSourceDTO;
+import defs.dto.LoanApplicantDTO;
+import defs.dto.RecurringExpenseDTO;
 import defs.errors.BadSyntaxException;
 import defs.errors.IllegalIDFieldException;
 import defs.errors.NotFoundException;
 import defs.errors.ServerErrorException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.hibernate.Session;
 import org.jetbrains.annotations.NotNull;
+import util.config.Props;
 import util.function.Validation;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class LoanApplicantDAO implements IDAO<LoanApplicant, Long> {
+    /**
+     * Fetch plan for the full applicant detail, including income sources and recurring expenses.
+     */
+    public static final FetchPlan<LoanApplicant> DETAIL =
+        FetchPlan.of(LoanApplicant::getIncomeSources, LoanApplicant::getRecurringExpenses);
+
+    /**
+     * The entities that reference a loan applicant, mapped to their reference to it, in the order to delete them in.
+     */
+    private static final Map<Class<?>, String> DEPENDANTS = dependants();
+
+    /**
+     * The name of the income sources member of a loan applicant DTO, for selecting it as a field.
+     */
+    public static final String INCOME_SOURCES_FIELD = "incomeSources";
+
+    /**
+     * The name of the recurring expenses member of a loan applicant DTO, for selecting it as a field.
+     */
+    public static final String RECURRING_EXPENSES_FIELD = "recurringExpenses";
+
+    /**
+     * Projection of the columns of a loan applicant DTO, from which the requested fields are selected.
+     */
+    public static final Projection<LoanApplicantDTO> DTO_PROJECTION = Projection.builder(LoanApplicantDTO::new)
+        .column("id", "id", Long.class, LoanApplicantDTO::setId)
+        .column("firstName", "firstName", String.class, LoanApplicantDTO::setFirstName)
+        .column("lastName", "lastName", String.class, LoanApplicantDTO::setLastName)
+        .column("dateOfBirth", "dateOfBirth", LocalDate.class, LoanApplicantDTO::setDateOfBirth)
+        .column("mobileNumber", "mobileNumber", String.class, LoanApplicantDTO::setMobileNumber)
+        .column("emailAddress", "emailAddress", String.class, LoanApplicantDTO::setEmailAddress)
+        .build();
+
+    /**
+     * The fields of a loan applicant DTO that can be selected, i.e. its columns and its child collections.
+     */
+    public static final Set<String> DTO_FIELDS = dtoFields();
+
+    private static final String FLAT_DTO_SELECTION =
+        "e.id, e.firstName, e.lastName, e.dateOfBirth, e.mobileNumber, e.emailAddress";
+    private static final String INCOME_SOURCE_DTO_SELECTION =
+        "e.id, e.loanApplicant.id, e.incomeType, e.monthlyIncome, e.currency.code";
+    private static final String RECURRING_EXPENSE_DTO_SELECTION =
+        "e.id, e.loanApplicant.id, e.expenseType, e.monthlyExpense, e.currency.code";
     private static final Logger logger = LogManager.getLogger(LoanApplicantDAO.class);
 
     /**
@@ -64,7 +132,7 @@ public class LoanApplicantDAO implements IDAO<LoanApplicant, Long> {
     }
 
     /**
-     * Finds a loan applicant by ID.
+     * Finds a loan applicant by ID. Income sources and recurring expenses are not loaded.
      *
      * @param id The ID primary key.
      * @return A loan applicant, or null if not found.
@@ -73,8 +141,21 @@ public class LoanApplicantDAO implements IDAO<LoanApplicant, Long> {
      */
     @Override
     public LoanApplicant find(Long id) {
+        return find(id, FetchPlan.none());
+    }
+
+    /**
+     * Finds a loan applicant by ID, loading the associations of a fetch plan.
+     *
+     * @param id        The ID primary key.
+     * @param fetchPlan The fetch plan listing the associations to load, e.g. DETAIL.
+     * @return A loan applicant, or null if not found.
+     * @throws NotFoundException    When the loan applicant object is not found.
+     * @throws ServerErrorException When any other error occurs.
+     */
+    public LoanApplicant find(Long id, FetchPlan<LoanApplicant> fetchPlan) {
         try {
-            LoanApplicant loanApplicant = Database.getInstance().findEntityById(LoanApplicant.class, id);
+            LoanApplicant loanApplicant = Database.getInstance().findEntityById(LoanApplicant.class, id, fetchPlan);
             if (loanApplicant != null) {
                 logger.info("Found loan applicant with ID " + loanApplicant.getId());
             } else {
@@ -91,6 +172,50 @@ public class LoanApplicantDAO implements IDAO<LoanApplicant, Long> {
         }
     }
 
+    /**
+     * Finds the version of a loan applicant, which changes whenever the loan applicant is updated, without loading the loan applicant.
+     *
+     * @param id The ID primary key.
+     * @return The version of the loan applicant.
+     * @throws NotFoundException    When the loan applicant object is not found.
+     * @throws ServerErrorException When any other error occurs.
+     */
+    public long findVersion(Long id) {
+        try {
+            Long version = Database.getInstance().findFieldById(LoanApplicant.class, Long.class, "version", "id", id);
+            if (version == null) {
+                throw new NotFoundException("Not found", id);
+            }
+            return version;
+        } catch (NotFoundException e) {
+            logger.info("Loan applicant with ID " + id + " not found");
+            throw (e);
+        } catch (Exception e) {
+            logger.error("Error finding version of loan applicant with ID " + id + ". Error: " + e.getMessage());
+            e.printStackTrace();
+            throw new ServerErrorException(e.getMessage());
+        }
+    }
+
+    /**
+     * Finds which of the given loan applicant IDs exist, without loading the loan applicants. This lets the loan
+     * applicants referenced by many loans be checked with a single query.
+     *
+     * @param ids The ID primary keys to check.
+     * @return The IDs that exist.
+     * @throws ServerErrorException When any error occurs.
+     */
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        try {
+            return new HashSet<>(Database.getInstance()
+                .findFieldIn(LoanApplicant.class, Long.class, "id", "id", ids));
+        } catch (Exception e) {
+            logger.error("Error finding loan applicant IDs. Error: " + e.getMessage());
+            e.printStackTrace();
+            throw new ServerErrorException(e.getMessage());
+        }
+    }
+
     /**
      * Finds all loan applicants in the database.
      *
@@ -111,7 +236,144 @@ public class LoanApplicantDAO implements IDAO<LoanApplicant, Long> {
     }
 
     /**
-     * Updates a loan applicant in the database after validating.
+     * Finds a page of loan applicants ordered by ID as DTOs with their income sources and recurring expenses, using
+     * keyset pagination. The page costs three projection queries (applicants, income sources, recurring expenses)
+     * regardless of its size, all run in one read-only session, and no entities are hydrated.
+     *
+     * @param afterId The ID to start after, or null to start from the first loan applicant.
+     * @param limit   The maximum number of loan applicants to return.
+     * @return A list of loan applicant DTOs.
+     * @throws ServerErrorException When any error occurs.
+     */
+    public List<LoanApplicantDTO> findDTOPage(Long afterId, int limit) {
+        try {
+            Database database = Database.getInstance();
+            List<LoanApplicantDTO> loanApplicants = database.performReadOnlyDatabaseAction((Session session) -> {
+                List<LoanApplicantDTO> page = database.findProjectionsAfter(session, LoanApplicant.class,
+                    LoanApplicantDTO.class, FLAT_DTO_SELECTION, "id", afterId, limit);
+                attachChildren(session, page, true, true);
+                return Optional.of(page);
+            }).orElse(null);
+            logger.info("Found " + loanApplicants.size() + " loan applicants after ID " + afterId);
+            return loanApplicants;
+        } catch (Exception e) {
+            logger.error("Error finding loan applicants after ID " + afterId + ". Error: " + e.getMessage());
+            e.printStackTrace();
+            throw new ServerErrorException(e.getMessage());
+        }
+    }
+
+    /**
+     * Finds a page of loan applicants ordered by ID as sparse DTOs, using keyset pagination. Only the columns of the
+     * requested fields are selected, and income sources and recurring expenses are only queried if they are requested.
+     * The ID is always included. All queries run in one read-only session.
+     *
+     * @param afterId The ID to start after, or null to start from the first loan applicant.
+     * @param limit   The maximum number of loan applicants to return.
+     * @param fields  The requested fields, from DTO_FIELDS.
+     * @return A list of loan applicant DTOs with only the requested fields set.
+     * @throws ServerErrorException When any error occurs.
+     */
+    public List<LoanApplicantDTO> findDTOPage(Long afterId, int limit, Set<String> fields) {
+        try {
+            Database database = Database.getInstance();
+            List<LoanApplicantDTO> loanApplicants = database.performReadOnlyDatabaseAction((Session session) -> {
+                List<LoanApplicantDTO> page = database.findProjectionsAfter(session, LoanApplicant.class,
+                    DTO_PROJECTION.select(fields), "id", afterId, limit);
+                attachChildren(session, page, fields.contains(INCOME_SOURCES_FIELD),
+                    fields.contains(RECURRING_EXPENSES_FIELD));
+                return Optional.of(page);
+            }).orElse(null);
+            logger.info("Found " + loanApplicants.size() + " loan applicants after ID " + afterId);
+            return loanApplicants;
+        } catch (Exception e) {
+            logger.error("Error finding loan applicants after ID " + afterId + ". Error: " + e.getMessage());
+            e.printStackTrace();
+            throw new ServerErrorException(e.getMessage());
+        }
+    }
+
+    /**
+     * Finds a loan applicant by ID as a sparse DTO. Only the columns of the requested fields are selected, and income
+     * sources and recurring expenses are only queried if they are requested. The ID is always included. All queries run
+     * in one read-only session.
+     *
+     * @param id     The ID primary key.
+     * @param fields The requested fields, from DTO_FIELDS.
+     * @return A loan applicant DTO with only the requested fields set.
+     * @throws NotFoundException    When the loan applicant object is not found.
+     * @throws ServerErrorException When any other error occurs.
+     */
+    public LoanApplicantDTO findDTO(Long id, Set<String> fields) {
+        try {
+            Database database = Database.getInstance();
+            LoanApplicantDTO loanApplicant = database.performReadOnlyDatabaseAction((Session session) -> {
+                LoanApplicantDTO found = database.findProjectionById(session, LoanApplicant.class,
+                    DTO_PROJECTION.select(fields), "id", id);
+                if (found != null) {
+                    attachChildren(session, Collections.singletonList(found), fields.contains(INCOME_SOURCES_FIELD),
+                        fields.contains(RECURRING_EXPENSES_FIELD));
+                }
+                return Optional.ofNullable(found);
+            }).orElse(null);
+            if (loanApplicant == null) {
+                throw new NotFoundException("Not found", id);
+            }
+            logger.info("Found loan applicant with ID " + id);
+            return loanApplicant;
+        } catch (NotFoundException e) {
+            logger.info("Loan applicant with ID " + id + " not found");
+            throw (e);
+        } catch (Exception e) {
+            logger.error("Error finding loan applicant with ID " + id + ". Error: " + e.getMessage());
+            e.printStackTrace();
+            throw new ServerErrorException(e.getMessage());
+        }
+    }
+
+    /**
+     * Attaches their income sources and recurring expenses to loan applicant DTOs, with one projection query per
+     * child table in the session the DTOs were read in. Children that are not included are not queried, and are left
+     * null.
+     *
+     * @param session               The session the loan applicant DTOs were read in.
+     * @param loanApplicants        The loan applicant DTOs.
+     * @param withIncomeSources     Whether to attach the income sources.
+     * @param withRecurringExpenses Whether to attach the recurring expenses.
+     */
+    private void attachChildren(Session session, List<LoanApplicantDTO> loanApplicants, boolean withIncomeSources,
+                                boolean withRecurringExpenses) {
+        Map<Long, LoanApplicantDTO> loanApplicantsById = new HashMap<>();
+        for (LoanApplicantDTO loanApplicant : loanApplicants) {
+            if (withIncomeSources) {
+                loanApplicant.setIncomeSources(new ArrayList<>());
+            }
+            if (withRecurringExpenses) {
+                loanApplicant.setRecurringExpenses(new ArrayList<>());
+            }
+            loanApplicantsById.put(loanApplicant.getId(), loanApplicant);
+        }
+
+        // Attach the income sources and recurring expenses to their applicants
+        Database database = Database.getInstance();
+        if (withIncomeSources) {
+            for (IncomeSourceDTO incomeSource : database.findProjectionsIn(session, IncomeSource.class,
+                IncomeSourceDTO.class, INCOME_SOURCE_DTO_SELECTION, "loanApplicant.id", loanApplicantsById.keySet())) {
+                loanApplicantsById.get(incomeSource.getApplicantId()).getIncomeSources().add(incomeSource);
+            }
+        }
+        if (withRecurringExpenses) {
+            for (RecurringExpenseDTO recurringExpense : database.findProjectionsIn(session, RecurringExpense.class,
+                RecurringExpenseDTO.class, RECURRING_EXPENSE_DTO_SELECTION, "loanApplicant.id",
+                loanApplicantsById.keySet())) {
+                loanApplicantsById.get(recurringExpense.getApplicantId()).getRecurringExpenses().add(recurringExpense);
+            }
+        }
+    }
+
+    /**
+     * Updates a loan applicant in the database after validating. The version is incremented even if only its income
+     * sources or recurring expenses changed, so that its ETag changes with them.
      *
      * @param loanApplicant The loan applicant object to update.
      * @throws NotFoundException    When the loan applicant object is not found.
@@ -123,7 +385,8 @@ public class LoanApplicantDAO implements IDAO<LoanApplicant, Long> {
             validate(loanApplicant);
             LoanApplicant foundLoanApplicant = find(loanApplicant.getId());
             if (foundLoanApplicant != null) {
-                Database.getInstance().updateEntity(loanApplicant);
+                loanApplicant.setVersion(foundLoanApplicant.getVersion());
+                Database.getInstance().updateEntityAndVersion(loanApplicant);
                 logger.info("Updated loan applicant with ID " + loanApplicant.getId() + " in the database");
             } else {
                 throw new NotFoundException("Not found", loanApplicant.getId());
@@ -165,4 +428,177 @@ public class LoanApplicantDAO implements IDAO<LoanApplicant, Long> {
             throw new ServerErrorException(e.getMessage());
         }
     }
+
+    /**
+     * Saves loan applicants to the database in bulk after validating each of them. Each loan applicant is inserted
+     * together with its income sources and recurring expenses, in chunks through a stateless session, so memory use
+     * does not grow with the number of loan applicants.
+     *
+     * @param loanApplicants The loan applicants to save.
+     * @return The number of rows inserted.
+     * @throws BadSyntaxException      When any of the fields are invalid. Chunks committed before the invalid entity
+     *                                 was reached are kept.
+     * @throws IllegalIDFieldException When the ID of any loan applicant is already set.
+     * @throws ServerErrorException    When any other error occurs.
+     */
+    @Override
+    public long saveAll(Iterable<LoanApplicant> loanApplicants) {
+        try {
+            // Insert each applicant followed by its income sources and recurring expenses
+            long inserted = Database.getInstance().insertEntities(() -> StreamSupport
+                .stream(loanApplicants.spliterator(), false)
+                .peek(this::validateNew)
+                .flatMap(LoanApplicantDAO::withChildren)
+                .iterator());
+            logger.info("Added " + inserted + " rows for loan applicants to the database");
+            return inserted;
+        } catch (BadSyntaxException | IllegalIDFieldException e) {
+            throw (e);
+        } catch (Exception e) {
+            logger.error("Error saving loan applicants in bulk. Error: " + e.getMessage());
+            e.printStackTrace();
+            throw new ServerErrorException(e.getMessage());
+        }
+    }
+
+    /**
+     * Saves loan applicants to the database in a single transaction after validating all of them, so either all of the
+     * loan applicants are saved or none are. Each loan applicant is inserted together with its income sources and
+     * recurring expenses, with JDBC batching through a stateless session.
+     *
+     * @param loanApplicants The loan applicants to save. These are iterated twice, once to validate and once to insert.
+     * @return The number of rows inserted.
+     * @throws BadSyntaxException      When any of the fields are invalid. Nothing is saved.
+     * @throws IllegalIDFieldException When the ID of any loan applicant is already set. Nothing is saved.
+     * @throws ServerErrorException    When any other error occurs. Nothing is saved.
+     */
+    @Override
+    public long saveAllInTransaction(Iterable<LoanApplicant> loanApplicants) {
+        try {
+            loanApplicants.forEach(this::validateNew);
+            long inserted = Database.getInstance().insertEntitiesInTransaction(() -> StreamSupport
+                .stream(loanApplicants.spliterator(), false)
+                .flatMap(LoanApplicantDAO::withChildren)
+                .iterator());
+            logger.info("Added " + inserted + " rows for loan applicants to the database");
+            return inserted;
+        } catch (BadSyntaxException | IllegalIDFieldException e) {
+            throw (e);
+        } catch (Exception e) {
+            logger.error("Error saving loan applicants in a transaction. Error: " + e.getMessage());
+            e.printStackTrace();
+            throw new ServerErrorException(e.getMessage());
+        }
+    }
+
+    /**
+     * Streams all loan applicants in the database to a consumer as DTOs with their income sources and recurring
+     * expenses, without holding them all in memory. The loan applicants are read in keyset pages of the bulk fetch
+     * size, each with its children attached as by findDTOPage, so the export costs three queries per page rather than
+     * two per loan applicant.
+     *
+     * @param consumer The consumer to pass each loan applicant DTO to.
+     * @return The number of loan applicants streamed.
+     * @throws ServerErrorException When any error occurs.
+     */
+    public long streamDTOs(Consumer<LoanApplicantDTO> consumer) {
+        final int pageSize = Props.getDbBulkFetchSize();
+        long count = 0;
+        Long afterId = null;
+        List<LoanApplicantDTO> loanApplicants;
+        do {
+            loanApplicants = findDTOPage(afterId, pageSize);
+            for (LoanApplicantDTO loanApplicant : loanApplicants) {
+                consumer.accept(loanApplicant);
+                afterId = loanApplicant.getId();
+            }
+            count += loanApplicants.size();
+        } while (loanApplicants.size() == pageSize);
+        logger.info("Streamed " + count + " loan applicants");
+        return count;
+    }
+
+    /**
+     * Deletes loan applicants by ID in bulk, without loading them, in a single transaction. Their income sources,
+     * recurring expenses and loans are deleted with them, so either a loan applicant is deleted with everything that
+     * references it or, if any delete fails, nothing is.
+     *
+     * @param ids The ID primary keys of the loan applicants to delete.
+     * @return The number of loan applicants deleted.
+     * @throws ServerErrorException When any error occurs.
+     */
+    @Override
+    public long deleteAll(Iterable<Long> ids) {
+        try {
+            long deleted = Database.getInstance()
+                .deleteEntitiesByIdInTransaction(LoanApplicant.class, "id", ids, DEPENDANTS);
+            logger.info("Deleted " + deleted + " loan applicants from the database");
+            return deleted;
+        } catch (Exception e) {
+            logger.error("Error deleting loan applicants in bulk. Error: " + e.getMessage());
+            e.printStackTrace();
+            throw new ServerErrorException(e.getMessage());
+        }
+    }
+
+    /**
+     * Validates a new loan applicant that is about to be saved in bulk.
+     *
+     * @param loanApplicant The loan applicant to validate.
+     * @throws BadSyntaxException      When any of the fields are invalid.
+     * @throws IllegalIDFieldException When the ID is already set.
+     */
+    private void validateNew(@NotNull LoanApplicant loanApplicant) {
+        validate(loanApplicant);
+        if (loanApplicant.getId() != null) {
+            throw new IllegalIDFieldException("Object identifier already set");
+        }
+    }
+
+    /**
+     * Returns a stream of a loan applicant followed by its income sources and recurring expenses, which is the order
+     * they must be inserted in.
+     *
+     * @param loanApplicant The loan applicant.
+     * @return A stream of the loan applicant and its child entities.
+     */
+    private static Stream<Object> withChildren(LoanApplicant loanApplicant) {
+        return Stream.concat(Stream.of((Object) loanApplicant), Stream.concat(
+            childrenOf(loanApplicant.getIncomeSources()), childrenOf(loanApplicant.getRecurringExpenses())));
+    }
+
+    /**
+     * Returns a stream of the child entities of a loan applicant, which may be absent.
+     *
+     * @param children The child entities, e.g. income sources.
+     * @return A stream of the child entities, or an empty stream if there are none.
+     */
+    private static Stream<Object> childrenOf(List<?> children) {
+        return children == null ? Stream.empty() : children.stream().map(child -> (Object) child);
+    }
+
+    /**
+     * Lists the entities that reference a loan applicant, which must be deleted before it.
+     *
+     * @return The dependant entity classes mapped to the HQL path of their loan applicant ID.
+     */
+    private static Map<Class<?>, String> dependants() {
+        Map<Class<?>, String> dependants = new LinkedHashMap<>();
+        dependants.put(IncomeSource.class, "loanApplicant.id");
+        dependants.put(RecurringExpense.class, "loanApplicant.id");
+        dependants.put(Loan.class, "loanApplicant.id");
+        return Collections.unmodifiableMap(dependants);
+    }
+
+    /**
+     * Lists the fields of a loan applicant DTO that can be selected, in the order they are written.
+     *
+     * @return The column names of the DTO projection followed by the child collection names.
+     */
+    private static Set<String> dtoFields() {
+        Set<String> fields = new LinkedHashSet<>(DTO_PROJECTION.getNames());
+        fields.add(INCOME_SOURCES_FIELD);
+        fields.add(RECURRING_EXPENSES_FIELD);
+        return Collections.unmodifiableSet(fields);
+    }
 }
@@ -3,6 +3,7 @@ package db.dao;
 import db.Database;
 import db.dao.base.IDAO;
 import db.model.Loan;
+import defs.dto.LoanDTO;
 import defs.errors.BadSyntaxException;
 import defs.errors.IllegalIDFieldException;
 import defs.errors.NotFoundException;
@@ -13,8 +14,12 @@ import org.jetbrains.annotations.NotNull;
 import util.function.Validation;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.StreamSupport;
 
 public class LoanDAO implements IDAO<Loan, Long> {
+    private static final String DTO_SELECTION =
+        "e.id, e.loanApplicant.id, e.loanType.loanName, e.valueOfPurchase, e.currency.code";
     private static final Logger logger = LogManager.getLogger(LoanDAO.class);
 
     /**
@@ -84,6 +89,31 @@ public class LoanDAO implements IDAO<Loan, Long> {
         }
     }
 
+    /**
+     * Finds the version of a loan, which changes whenever the loan is updated, without loading the loan.
+     *
+     * @param id The ID primary key.
+     * @return The version of the loan.
+     * @throws NotFoundException    When the loan object is not found.
+     * @throws ServerErrorException When any other error occurs.
+     */
+    public long findVersion(Long id) {
+        try {
+            Long version = Database.getInstance().findFieldById(Loan.class, Long.class, "version", "id", id);
+            if (version == null) {
+                throw new NotFoundException("Not found", id);
+            }
+            return version;
+        } catch (NotFoundException e) {
+            logger.info("Loan with ID " + id + " not found");
+            throw (e);
+        } catch (Exception e) {
+            logger.error("Error finding version of loan with ID " + id + ". Error: " + e.getMessage());
+            e.printStackTrace();
+            throw new ServerErrorException(e.getMessage());
+        }
+    }
+
     /**
      * Finds all loans in the database.
      *
@@ -103,6 +133,29 @@ public class LoanDAO implements IDAO<Loan, Long> {
         }
     }
 
+    /**
+     * Finds a page of loans ordered by ID as DTOs, using keyset pagination. The DTOs are projected straight from the
+     * columns of the loans table; the foreign keys supply the applicant ID, loan type and currency, so no joins are
+     * needed and no entities are hydrated.
+     *
+     * @param afterId The ID to start after, or null to start from the first loan.
+     * @param limit   The maximum number of loans to return.
+     * @return A list of loan DTOs.
+     * @throws ServerErrorException When any error occurs.
+     */
+    public List<LoanDTO> findDTOPage(Long afterId, int limit) {
+        try {
+            List<LoanDTO> loans = Database.getInstance()
+                .findProjectionsAfter(Loan.class, LoanDTO.class, DTO_SELECTION, "id", afterId, limit);
+            logger.info("Found " + loans.size() + " loans after ID " + afterId);
+            return loans;
+        } catch (Exception e) {
+            logger.error("Error finding loans after ID " + afterId + ". Error: " + e.getMessage());
+            e.printStackTrace();
+            throw new ServerErrorException(e.getMessage());
+        }
+    }
+
     /**
      * Updates a loan in the database after validating.
      *
@@ -116,6 +169,7 @@ public class LoanDAO implements IDAO<Loan, Long> {
             validate(loan);
             Loan foundLoan = find(loan.getId());
             if (foundLoan != null) {
+                loan.setVersion(foundLoan.getVersion());
                 Database.getInstance().updateEntity(loan);
                 logger.info("Updated loan with ID " + loan.getId() + " in the database");
             } else {
@@ -156,4 +210,114 @@ public class LoanDAO implements IDAO<Loan, Long> {
             throw new ServerErrorException(e.getMessage());
         }
     }
+
+    /**
+     * Saves loans to the database in bulk after validating each of them. The loans are inserted in chunks through a
+     * stateless session, so memory use does not grow with the number of loans.
+     *
+     * @param loans The loans to save.
+     * @return The number of rows inserted.
+     * @throws BadSyntaxException      When any of the fields are invalid. Chunks committed before the invalid entity
+     *                                 was reached are kept.
+     * @throws IllegalIDFieldException When the ID of any loan is already set.
+     * @throws ServerErrorException    When any other error occurs.
+     */
+    @Override
+    public long saveAll(Iterable<Loan> loans) {
+        try {
+            long inserted = Database.getInstance().insertEntities(() -> StreamSupport
+                .stream(loans.spliterator(), false)
+                .peek(this::validateNew)
+                .iterator());
+            logger.info("Added " + inserted + " loans to the database");
+            return inserted;
+        } catch (BadSyntaxException | IllegalIDFieldException e) {
+            throw (e);
+        } catch (Exception e) {
+            logger.error("Error saving loans in bulk. Error: " + e.getMessage());
+            e.printStackTrace();
+            throw new ServerErrorException(e.getMessage());
+        }
+    }
+
+    /**
+     * Saves loans to the database in a single transaction after validating all of them, so either all of the loans
+     * are saved or none are. The loans are inserted with JDBC batching through a stateless session.
+     *
+     * @param loans The loans to save. These are iterated twice, once to validate and once to insert.
+     * @return The number of rows inserted.
+     * @throws BadSyntaxException      When any of the fields are invalid. Nothing is saved.
+     * @throws IllegalIDFieldException When the ID of any loan is already set. Nothing is saved.
+     * @throws ServerErrorException    When any other error occurs. Nothing is saved.
+     */
+    @Override
+    public long saveAllInTransaction(Iterable<Loan> loans) {
+        try {
+            loans.forEach(this::validateNew);
+            long inserted = Database.getInstance().insertEntitiesInTransaction(loans);
+            logger.info("Added " + inserted + " loans to the database");
+            return inserted;
+        } catch (BadSyntaxException | IllegalIDFieldException e) {
+            throw (e);
+        } catch (Exception e) {
+            logger.error("Error saving loans in a transaction. Error: " + e.getMessage());
+            e.printStackTrace();
+            throw new ServerErrorException(e.getMessage());
+        }
+    }
+
+    /**
+     * Streams all loans in the database to a consumer, one at a time, without holding them all in memory.
+     *
+     * @param consumer The consumer to pass each loan to.
+     * @return The number of loans streamed.
+     * @throws ServerErrorException When any error occurs.
+     */
+    @Override
+    public long streamAll(Consumer<Loan> consumer) {
+        try {
+            long count = Database.getInstance().scrollEntities(Loan.class, consumer);
+            logger.info("Streamed " + count + " loans");
+            return count;
+        } catch (Exception e) {
+            logger.error("Error streaming loans. Error: " + e.getMessage());
+            e.printStackTrace();
+            throw new ServerErrorException(e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes loans by ID in bulk, without loading them.
+     *
+     * @param ids The ID primary keys of the loans to delete.
+     * @return The number of loans deleted.
+     * @throws ServerErrorException When any error occurs.
+     */
+    @Override
+    public long deleteAll(Iterable<Long> ids) {
+        try {
+            long deleted = Database.getInstance()
+                .deleteEntitiesById(Loan.class, "id", ids);
+            logger.info("Deleted " + deleted + " loans from the database");
+            return deleted;
+        } catch (Exception e) {
+            logger.error("Error deleting loans in bulk. Error: " + e.getMessage());
+            e.printStackTrace();
+            throw new ServerErrorException(e.getMessage());
+        }
+    }
+
+    /**
+     * Validates a new loan that is about to be saved in bulk.
+     *
+     * @param loan The loan to validate.
+     * @throws BadSyntaxException      When any of the fields are invalid.
+     * @throws IllegalIDFieldException When the ID is already set.
+     */
+    private void validateNew(@NotNull Loan loan) {
+        validate(loan);
+        if (loan.getId() != null) {
+            throw new IllegalIDFieldException("Object identifier already set");
+        }
+    }
 }
@@ -3,7 +3,9 @@ package db.dao;
 import db.Database;
 import db.dao.base.IDAO;
 import db.model.LoanType;
+import db.registry.DefinitionRegistry;
 import defs.enums.AcceptedLoanType;
+import defs.errors.LoanTypeNotFoundException;
 import defs.errors.ServerErrorException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -11,10 +13,11 @@ import org.apache.logging.log4j.Logger;
 import java.util.List;
 
 public class LoanTypeDAO implements IDAO<LoanType, String> {
+    private static final DefinitionRegistry<LoanType> registry = new DefinitionRegistry<>(LoanType::getLoanName);
     private static final Logger logger = LogManager.getLogger(LoanTypeDAO.class);
 
     /**
-     * Finds all loan types in the database.
+     * Finds all loan types. Loan types are served from the in-memory registry without a database session.
      *
      * @return A list of loan types.
      * @throws ServerErrorException When any error occurs.
@@ -22,8 +25,11 @@ public class LoanTypeDAO implements IDAO<LoanType, String> {
     @Override
     public List<LoanType> findAll() {
         try {
-            List<LoanType> loanTypes = Database.getInstance().findAllEntities(LoanType.class);
-            logger.info("Found " + loanTypes.size() + " loan types");
+            List<LoanType> loanTypes = registry.findAll();
+            // Checked first, as this runs on every request and the message would be built even when not logged
+            if (logger.isDebugEnabled()) {
+                logger.debug("Found " + loanTypes.size() + " loan types");
+            }
             return loanTypes;
         } catch (Exception e) {
             logger.error("Error finding loan types. Error: " + e.getMessage());
@@ -33,33 +39,28 @@ public class LoanTypeDAO implements IDAO<LoanType, String> {
     }
 
     /**
-     * Finds a loan type by loan name.
+     * Finds a loan type by loan name. Loan types are served from the in-memory registry without a database session.
      *
      * @param loanName The loan name primary key.
-     * @return A loan type, or null if not found.
-     * @throws ServerErrorException When any error occurs.
+     * @return A loan type.
+     * @throws LoanTypeNotFoundException When the loan name is not one of the accepted loan types.
      */
+    @Override
     public LoanType find(String loanName) {
-        try {
-            LoanType loanType = Database.getInstance().findEntityById(LoanType.class, loanName);
-            if (loanType != null) {
-                logger.info("Found loan type with code " + loanType.getLoanName());
-            } else {
-                logger.info("Loan type with name " + loanName + " not found");
-            }
-            return loanType;
-        } catch (Exception e) {
-            logger.error("Error finding loan type with name " + loanName + ". Error: " + e.getMessage());
-            e.printStackTrace();
-            throw new ServerErrorException(e.getMessage());
+        LoanType loanType = registry.find(loanName);
+        if (loanType == null) {
+            logger.info("Loan type with name " + loanName + " not found");
+            throw new LoanTypeNotFoundException("Loan type not found", loanName);
         }
+        return loanType;
     }
 
     /**
-     * Ensures all loan types defined programmatically in the enum are synced with the database.
+     * Ensures all loan types defined programmatically in the enum are synced with the database, then publishes the
+     * synchronised loan types to the in-memory registry.
      */
     public void synchroniseLoanTypes() {
-        Database.getInstance().synchronise(AcceptedLoanType.values(), LoanType.class);
+        registry.publish(Database.getInstance().synchronise(AcceptedLoanType.values(), LoanType.class));
         logger.info("Synchronised loan types");
     }
 }
@@ -2,6 +2,7 @@ package db.dao;
 
 import db.Database;
 import db.dao.base.IDAO;
+import db.model.LoanApplicant;
 import db.model.RecurringExpense;
 import defs.errors.BadSyntaxException;
 import defs.errors.IllegalIDFieldException;
@@ -39,7 +40,9 @@ public class RecurringExpenseDAO implements IDAO<RecurringExpense, Long> {
         try {
             validate(recurringExpense);
             if (recurringExpense.getId() == null) {
-                Database.getInstance().saveEntity(recurringExpense);
+                // The applicant's version changes with its children, so that its ETag does too
+                Database.getInstance()
+                    .saveEntity(recurringExpense, LoanApplicant.class, recurringExpense.getLoanApplicant().getId());
                 logger.info("Added recurring expense with ID " + recurringExpense.getId() + " to the database");
             } else {
                 throw new IllegalIDFieldException("Object identifier already set");
@@ -5,6 +5,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * An interface for implementing a DAO (Data Access Object) for database operations on a given entity.
@@ -38,4 +39,20 @@ public interface IDAO<Entity, ID> {
     default void delete(ID id) {
         throw new NotImplementedException("Delete method unimplemented");
     }
+
+    default long saveAll(Iterable<Entity> entities) {
+        throw new NotImplementedException("Save all method unimplemented");
+    }
+
+    default long saveAllInTransaction(Iterable<Entity> entities) {
+        throw new NotImplementedException("Save all in transaction method unimplemented");
+    }
+
+    default long streamAll(Consumer<Entity> consumer) {
+        throw new NotImplementedException("Stream all method unimplemented");
+    }
+
+    default long deleteAll(Iterable<ID> ids) {
+        throw new NotImplementedException("Delete all method unimplemented");
+    }
 }
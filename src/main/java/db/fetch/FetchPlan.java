@@ -0,0 +1,76 @@
+package db.fetch;
+
+import org.hibernate.Hibernate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A fetch plan lists the lazy associations of an entity that a use case needs, e.g. the income sources and recurring
+ * expenses of a loan applicant for the detail view. All associations are mapped lazily, and the plan initialises the
+ * listed ones while the session that loaded the entity is still open. Collections are batch-fetched, so initialising
+ * the same association on a list of entities costs one query per batch of owners rather than one per entity.
+ *
+ * @param <Entity> The entity type the plan applies to.
+ */
+public class FetchPlan<Entity> {
+    private final List<Function<Entity, ?>> associations;
+
+    private FetchPlan(List<Function<Entity, ?>> associations) {
+        this.associations = associations;
+    }
+
+    /**
+     * Creates a fetch plan that initialises the given associations.
+     *
+     * @param associations The getters of the associations to initialise, e.g. LoanApplicant::getIncomeSources.
+     * @param <Entity>     The entity type the plan applies to.
+     * @return A fetch plan.
+     */
+    @SafeVarargs
+    public static <Entity> FetchPlan<Entity> of(Function<Entity, ?>... associations) {
+        List<Function<Entity, ?>> associationList = new ArrayList<>(associations.length);
+        for (Function<Entity, ?> association : associations) {
+            associationList.add(association);
+        }
+        return new FetchPlan<>(Collections.unmodifiableList(associationList));
+    }
+
+    /**
+     * Creates a fetch plan that initialises no associations, i.e. only the entity's own columns are loaded.
+     *
+     * @param <Entity> The entity type the plan applies to.
+     * @return A fetch plan.
+     */
+    public static <Entity> FetchPlan<Entity> none() {
+        return new FetchPlan<>(Collections.emptyList());
+    }
+
+    /**
+     * Initialises the associations of the plan on an entity. Must be called while the session that loaded the entity
+     * is still open.
+     *
+     * @param entity The entity to initialise the associations of.
+     */
+    public void initialise(Entity entity) {
+        for (Function<Entity, ?> association : associations) {
+            Hibernate.initialize(association.apply(entity));
+        }
+    }
+
+    /**
+     * Initialises the associations of the plan on a list of entities, e.g. a page of results.
+     *
+     * @param entities The entities to initialise the associations of.
+     */
+    public void initialise(List<Entity> entities) {
+        if (associations.isEmpty()) {
+            return;
+        }
+        for (Entity entity : entities) {
+            initialise(entity);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package db.fetch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * A projection lists the columns of an entity that a use case needs, and how each selected column is set on the DTO
+ * built from a row, e.g. only the ID, names and email of a loan applicant. Only the selected columns are read from the
+ * database, and the DTO members of the unselected ones are left null.
+ * <p>
+ * The first column of a projection is its key (usually the ID), which is always selected so that rows can be paged
+ * through and their child rows attached.
+ *
+ * @param <Result> The DTO type that rows are projected to.
+ */
+public class Projection<Result> {
+    private final Supplier<Result> constructor;
+    private final List<Column<Result>> columns;
+
+    private Projection(Supplier<Result> constructor, List<Column<Result>> columns) {
+        this.constructor = constructor;
+        this.columns = columns;
+    }
+
+    /**
+     * Starts building a projection.
+     *
+     * @param constructor The constructor of an empty DTO, e.g. LoanApplicantDTO::new.
+     * @param <Result>    The DTO type that rows are projected to.
+     * @return A projection builder.
+     */
+    public static <Result> Builder<Result> builder(Supplier<Result> constructor) {
+        return new Builder<>(constructor);
+    }
+
+    /**
+     * Creates a projection of only some of the columns of this one. The key column is always kept.
+     *
+     * @param names The names of the columns to keep, e.g. the requested fields. Unknown names are ignored.
+     * @return A projection of the key column and the named columns, in the order of this projection.
+     */
+    public Projection<Result> select(Collection<String> names) {
+        List<Column<Result>> selected = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i++) {
+            if (i == 0 || names.contains(columns.get(i).name)) {
+                selected.add(columns.get(i));
+            }
+        }
+        return new Projection<>(constructor, Collections.unmodifiableList(selected));
+    }
+
+    /**
+     * Returns the names of the columns of the projection, in order.
+     *
+     * @return The column names.
+     */
+    public Set<String> getNames() {
+        Set<String> names = new LinkedHashSet<>();
+        for (Column<Result> column : columns) {
+            names.add(column.name);
+        }
+        return names;
+    }
+
+    /**
+     * Returns the comma-separated HQL paths of the columns, relative to the entity alias "e", for a select clause.
+     *
+     * @return The HQL selection, e.g. "e.id, e.firstName".
+     */
+    public String getSelection() {
+        StringBuilder selection = new StringBuilder();
+        for (Column<Result> column : columns) {
+            if (selection.length() > 0) {
+                selection.append(", ");
+            }
+            selection.append("e.").append(column.path);
+        }
+        return selection.toString();
+    }
+
+    /**
+     * Builds a DTO from a row selected with getSelection().
+     *
+     * @param row The values of the row, in the order of the columns.
+     * @return The DTO, with only the selected members set.
+     */
+    public Result toResult(Object[] row) {
+        Result result = constructor.get();
+        for (int i = 0; i < columns.size(); i++) {
+            columns.get(i).setter.accept(result, row[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Builds the columns of a projection.
+     *
+     * @param <Result> The DTO type that rows are projected to.
+     */
+    public static class Builder<Result> {
+        private final Supplier<Result> constructor;
+        private final List<Column<Result>> columns = new ArrayList<>();
+
+        private Builder(Supplier<Result> constructor) {
+            this.constructor = constructor;
+        }
+
+        /**
+         * Adds a column to the projection. The first column added is the key.
+         *
+         * @param name   The name of the column, matching the DTO member, e.g. "firstName".
+         * @param path   The HQL path of the column, relative to the entity alias, e.g. "firstName".
+         * @param type   The type of the column's value.
+         * @param setter The DTO setter of the column, e.g. LoanApplicantDTO::setFirstName.
+         * @param <Type> The type of the column's value.
+         * @return This builder.
+         */
+        public <Type> Builder<Result> column(String name, String path, Class<Type> type,
+                                             BiConsumer<Result, Type> setter) {
+            columns.add(new Column<>(name, path, (result, value) -> setter.accept(result, type.cast(value))));
+            return this;
+        }
+
+        public Projection<Result> build() {
+            return new Projection<>(constructor, Collections.unmodifiableList(new ArrayList<>(columns)));
+        }
+    }
+
+    private static class Column<Result> {
+        private final String name;
+        private final String path;
+        private final BiConsumer<Result, Object> setter;
+
+        private Column(String name, String path, BiConsumer<Result, Object> setter) {
+            this.name = name;
+            this.path = path;
+            this.setter = setter;
+        }
+    }
+}
@@ -1,17 +1,23 @@
 package db.model;
 
 import defs.enums.AcceptedCurrency;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.Objects;
 
 /**
- * POJO for a currency. This table is automatically populated by the AcceptedCurrency enum values.
+ * POJO for a currency. This table is automatically populated by the AcceptedCurrency enum values
+ * and is held in the second-level cache.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "currencies")
 public class Currency {
     @Id
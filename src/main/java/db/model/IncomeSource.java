@@ -10,10 +10,11 @@ import jakarta.persistence.*;
 public class IncomeSource {
     @Id
     @Column(name = "income_id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "income_sources_seq")
+    @SequenceGenerator(name = "income_sources_seq", sequenceName = "income_sources_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "applicant_id")
     private LoanApplicant loanApplicant;
 
@@ -23,7 +24,7 @@ public class IncomeSource {
     @Column(name = "monthly_income")
     private double monthlyIncome;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "currency")
     private Currency currency;
 
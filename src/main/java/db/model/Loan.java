@@ -12,24 +12,29 @@ import java.util.Objects;
 public class Loan {
     @Id
     @Column(name = "loan_id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "loans_seq")
+    @SequenceGenerator(name = "loans_seq", sequenceName = "loans_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "applicant_id")
     private LoanApplicant loanApplicant;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "loan_type_id")
     private LoanType loanType;
 
     @Column(name = "value_of_purchase")
     private double valueOfPurchase;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "currency")
     private Currency currency;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     // Default constructor
     public Loan() {
     }
@@ -91,6 +96,14 @@ public class Loan {
         this.currency = currency;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
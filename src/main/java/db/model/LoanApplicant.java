@@ -1,6 +1,7 @@
 package db.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.io.Serializable;
 import java.time.LocalDate;
@@ -9,14 +10,16 @@ import java.util.List;
 import java.util.Objects;
 
 /**
- * POJO for personal identifiable information of an applicant requesting a loan.
+ * POJO for personal identifiable information of an applicant requesting a loan. The income sources and recurring
+ * expenses are loaded lazily, in batches, and only when a fetch plan asks for them.
  */
 @Entity
 @Table(name = "loan_applicants")
 public class LoanApplicant implements Serializable {
     @Id
     @Column(name = "applicant_id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "loan_applicants_seq")
+    @SequenceGenerator(name = "loan_applicants_seq", sequenceName = "loan_applicants_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "first_name")
@@ -34,14 +37,22 @@ public class LoanApplicant implements Serializable {
     @Column(name = "email_address")
     private String emailAddress;
 
-    @OneToMany(cascade = CascadeType.ALL, mappedBy = "loanApplicant", fetch = FetchType.EAGER)
+    // Both collections are batch-fetched: initialising one loads it for up to 100 applicants of the session in one
+    // query, so a fetch plan costs one query per 100 applicants for each collection, not one for any number of them
+    @OneToMany(cascade = CascadeType.ALL, mappedBy = "loanApplicant", fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     @Column(name = "income_sources")
     private List<IncomeSource> incomeSources;
 
-    @OneToMany(cascade = CascadeType.ALL, mappedBy = "loanApplicant", fetch = FetchType.EAGER)
+    @OneToMany(cascade = CascadeType.ALL, mappedBy = "loanApplicant", fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     @Column(name = "recurring_expenses")
     private List<RecurringExpense> recurringExpenses;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     // Default constructor
     public LoanApplicant() {
     }
@@ -137,6 +148,14 @@ public class LoanApplicant implements Serializable {
         this.recurringExpenses = recurringExpenses;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
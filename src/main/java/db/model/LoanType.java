@@ -1,18 +1,24 @@
 package db.model;
 
 import defs.enums.AcceptedLoanType;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Objects;
 
 /**
- * POJO for a loan type. This table is automatically populated by the AcceptedLoanType enum values.
+ * POJO for a loan type. This table is automatically populated by the AcceptedLoanType enum values
+ * and is held in the second-level cache.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "loan_types")
 public class LoanType {
     @Id
@@ -12,10 +12,11 @@ import java.io.Serializable;
 public class RecurringExpense implements Serializable {
     @Id
     @Column(name = "expense_id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recurring_expenses_seq")
+    @SequenceGenerator(name = "recurring_expenses_seq", sequenceName = "recurring_expenses_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "applicant_id")
     private LoanApplicant loanApplicant;
 
@@ -25,7 +26,7 @@ public class RecurringExpense implements Serializable {
     @Column(name = "monthly_expense")
     private double monthlyExpense;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "currency")
     private Currency currency;
 
@@ -0,0 +1,106 @@
+package db.pool;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import util.config.Props;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A pooled source of JDBC connections for the database, backed by HikariCP. Pool sizing, timeouts, leak detection and
+ * prepared statement caching are all configured from the application properties.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private final HikariDataSource dataSource;
+    private final PoolMetrics metrics;
+
+    private static final String POOL_NAME = "loans-pool";
+    private static final Logger logger = LogManager.getLogger(ConnectionPool.class);
+
+    /**
+     * Creates a connection pool for the given JDBC URL.
+     *
+     * @param jdbcUrl  The JDBC URL of the database to connect to.
+     * @param user     The database username.
+     * @param password The database password.
+     */
+    public ConnectionPool(String jdbcUrl, String user, String password) {
+        this.metrics = new PoolMetrics();
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(POOL_NAME);
+        config.setJdbcUrl(jdbcUrl);
+        config.setUsername(user);
+        config.setPassword(password);
+        config.setMinimumIdle(Props.getDbPoolMinIdle());
+        config.setMaximumPoolSize(Props.getDbPoolMaxSize());
+        config.setConnectionTimeout(Props.getDbPoolConnectionTimeout());
+        config.setIdleTimeout(Props.getDbPoolIdleTimeout());
+        config.setMaxLifetime(Props.getDbPoolMaxLifetime());
+        config.setLeakDetectionThreshold(Props.getDbPoolLeakDetectionThreshold());
+        config.setMetricsTrackerFactory(metrics);
+        config.setRegisterMbeans(true);
+
+        // Prepared statement caching is done by the MySQL driver on each pooled connection
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", Props.getDbPoolPrepStmtCacheSize());
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", Props.getDbPoolPrepStmtCacheSqlLimit());
+        config.addDataSourceProperty("useLocalSessionState", "true");
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        config.addDataSourceProperty("cacheResultSetMetadata", "true");
+        config.addDataSourceProperty("cacheServerConfiguration", "true");
+        config.addDataSourceProperty("elideSetAutoCommits", "true");
+
+        // Use server-side cursors when a fetch size is set, so scrolled results are streamed instead of buffered
+        config.addDataSourceProperty("useCursorFetch", "true");
+
+        // Keep the read-only hint on the driver rather than sending SET SESSION TRANSACTION READ ONLY on every checkout
+        config.addDataSourceProperty("readOnlyPropagatesToServer", "false");
+
+        this.dataSource = new HikariDataSource(config);
+        logger.info("Connection pool " + POOL_NAME + " started with a maximum of " + config.getMaximumPoolSize() +
+            " connections");
+    }
+
+    /**
+     * Returns the pooled data source, e.g. to hand to Hibernate as its connection provider.
+     *
+     * @return The pooled data source.
+     */
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    /**
+     * Borrows a connection from the pool. The connection must be closed to return it to the pool.
+     *
+     * @return A pooled connection.
+     * @throws SQLException When no connection could be acquired within the connection timeout.
+     */
+    public Connection getConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    /**
+     * Returns the saturation and wait-time metrics of the pool.
+     *
+     * @return A snapshot of the current pool metrics.
+     */
+    public PoolMetrics.Snapshot getMetrics() {
+        return metrics.snapshot();
+    }
+
+    /**
+     * Closes the pool and all of its connections.
+     */
+    @Override
+    public void close() {
+        logger.info("Closing connection pool " + POOL_NAME + " (" + metrics.snapshot() + ")");
+        dataSource.close();
+    }
+}
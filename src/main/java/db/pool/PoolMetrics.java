@@ -0,0 +1,154 @@
+package db.pool;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects saturation and wait-time metrics for the connection pool. An instance is handed to HikariCP as its metrics
+ * tracker factory, so every connection checkout is recorded without any extra locking.
+ */
+public class PoolMetrics implements MetricsTrackerFactory {
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder acquisitionNanos = new LongAdder();
+    private final AtomicLong maxAcquisitionNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder usageMillis = new LongAdder();
+    private volatile PoolStats poolStats;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquisitions.increment();
+                acquisitionNanos.add(elapsedAcquiredNanos);
+                maxAcquisitionNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usageMillis.add(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    /**
+     * Takes a point-in-time snapshot of the pool metrics.
+     *
+     * @return The current pool metrics.
+     */
+    public Snapshot snapshot() {
+        PoolStats stats = poolStats;
+        long count = acquisitions.sum();
+        return new Snapshot(
+            stats == null ? 0 : stats.getActiveConnections(),
+            stats == null ? 0 : stats.getIdleConnections(),
+            stats == null ? 0 : stats.getTotalConnections(),
+            stats == null ? 0 : stats.getMaxConnections(),
+            stats == null ? 0 : stats.getPendingThreads(),
+            count,
+            timeouts.sum(),
+            count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(acquisitionNanos.sum() / count),
+            TimeUnit.NANOSECONDS.toMicros(maxAcquisitionNanos.get()),
+            count == 0 ? 0 : usageMillis.sum() / count);
+    }
+
+    /**
+     * An immutable view of the pool metrics at a point in time.
+     */
+    public static class Snapshot {
+        private final int activeConnections;
+        private final int idleConnections;
+        private final int totalConnections;
+        private final int maxConnections;
+        private final int pendingThreads;
+        private final long acquisitions;
+        private final long timeouts;
+        private final long averageWaitMicros;
+        private final long maxWaitMicros;
+        private final long averageUsageMillis;
+
+        public Snapshot(int activeConnections, int idleConnections, int totalConnections, int maxConnections,
+                        int pendingThreads, long acquisitions, long timeouts, long averageWaitMicros,
+                        long maxWaitMicros, long averageUsageMillis) {
+            this.activeConnections = activeConnections;
+            this.idleConnections = idleConnections;
+            this.totalConnections = totalConnections;
+            this.maxConnections = maxConnections;
+            this.pendingThreads = pendingThreads;
+            this.acquisitions = acquisitions;
+            this.timeouts = timeouts;
+            this.averageWaitMicros = averageWaitMicros;
+            this.maxWaitMicros = maxWaitMicros;
+            this.averageUsageMillis = averageUsageMillis;
+        }
+
+        public int getActiveConnections() {
+            return activeConnections;
+        }
+
+        public int getIdleConnections() {
+            return idleConnections;
+        }
+
+        public int getTotalConnections() {
+            return totalConnections;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public int getPendingThreads() {
+            return pendingThreads;
+        }
+
+        public long getAcquisitions() {
+            return acquisitions;
+        }
+
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        public long getAverageWaitMicros() {
+            return averageWaitMicros;
+        }
+
+        public long getMaxWaitMicros() {
+            return maxWaitMicros;
+        }
+
+        public long getAverageUsageMillis() {
+            return averageUsageMillis;
+        }
+
+        /**
+         * The fraction of the maximum pool size that is currently checked out.
+         *
+         * @return A value between 0 and 1.
+         */
+        public double getSaturation() {
+            return maxConnections == 0 ? 0 : (double) activeConnections / maxConnections;
+        }
+
+        @Override
+        public String toString() {
+            return "active=" + activeConnections + ", idle=" + idleConnections + ", total=" + totalConnections +
+                ", max=" + maxConnections + ", pending=" + pendingThreads + ", acquisitions=" + acquisitions +
+                ", timeouts=" + timeouts + ", avgWaitMicros=" + averageWaitMicros + ", maxWaitMicros=" +
+                maxWaitMicros + ", avgUsageMillis=" + averageUsageMillis;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package db.registry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * An in-memory, lock-free registry of definition entities (e.g. currencies, loan types), keyed by their primary key.
+ * The registry holds an immutable snapshot which is swapped atomically whenever the definitions are synchronised, so
+ * lookups never block and never need a database session.
+ *
+ * @param <Entity> The definition entity type.
+ */
+public class DefinitionRegistry<Entity> {
+    private final Function<Entity, String> keyFunction;
+    private final AtomicReference<Snapshot<Entity>> snapshot;
+
+    /**
+     * Creates an empty registry.
+     *
+     * @param keyFunction The function returning the primary key of an entity, e.g. Currency::getCode.
+     */
+    public DefinitionRegistry(Function<Entity, String> keyFunction) {
+        this.keyFunction = keyFunction;
+        this.snapshot = new AtomicReference<>(new Snapshot<>(Collections.emptyMap()));
+    }
+
+    /**
+     * Replaces the contents of the registry with the given entities. Readers see either the old or the new set of
+     * entities, never a mix of both. The entities must not be modified after they have been published.
+     *
+     * @param entities The entities to publish, in the order they should be listed.
+     */
+    public void publish(Collection<Entity> entities) {
+        Map<String, Entity> entitiesByKey = new LinkedHashMap<>();
+        for (Entity entity : entities) {
+            entitiesByKey.put(keyFunction.apply(entity), entity);
+        }
+        snapshot.set(new Snapshot<>(entitiesByKey));
+    }
+
+    /**
+     * Finds an entity by its primary key.
+     *
+     * @param key The primary key of the entity.
+     * @return The entity, or null if there is no entity with that key.
+     */
+    public Entity find(String key) {
+        return key == null ? null : snapshot.get().entitiesByKey.get(key);
+    }
+
+    /**
+     * Returns all entities in the registry.
+     *
+     * @return An unmodifiable list of all entities.
+     */
+    public List<Entity> findAll() {
+        return snapshot.get().entities;
+    }
+
+    /**
+     * An immutable view of the registry contents.
+     *
+     * @param <Entity> The definition entity type.
+     */
+    private static class Snapshot<Entity> {
+        private final Map<String, Entity> entitiesByKey;
+        private final List<Entity> entities;
+
+        private Snapshot(Map<String, Entity> entitiesByKey) {
+            this.entitiesByKey = Collections.unmodifiableMap(entitiesByKey);
+            this.entities = Collections.unmodifiableList(new ArrayList<>(entitiesByKey.values()));
+        }
+    }
+}
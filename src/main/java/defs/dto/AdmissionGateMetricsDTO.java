@@ -0,0 +1,59 @@
+package defs.dto;
+
+public class AdmissionGateMetricsDTO {
+    private String name;
+    private int availablePermits;
+    private int queued;
+    private long admitted;
+    private long rejectedQueueFull;
+    private long rejectedTimeout;
+    private long averageWaitMicros;
+    private long maxWaitMicros;
+
+    public AdmissionGateMetricsDTO() {
+    }
+
+    public AdmissionGateMetricsDTO(String name, int availablePermits, int queued, long admitted, long rejectedQueueFull,
+                                   long rejectedTimeout, long averageWaitMicros, long maxWaitMicros) {
+        this.name = name;
+        this.availablePermits = availablePermits;
+        this.queued = queued;
+        this.admitted = admitted;
+        this.rejectedQueueFull = rejectedQueueFull;
+        this.rejectedTimeout = rejectedTimeout;
+        this.averageWaitMicros = averageWaitMicros;
+        this.maxWaitMicros = maxWaitMicros;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getAvailablePermits() {
+        return availablePermits;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public long getAdmitted() {
+        return admitted;
+    }
+
+    public long getRejectedQueueFull() {
+        return rejectedQueueFull;
+    }
+
+    public long getRejectedTimeout() {
+        return rejectedTimeout;
+    }
+
+    public long getAverageWaitMicros() {
+        return averageWaitMicros;
+    }
+
+    public long getMaxWaitMicros() {
+        return maxWaitMicros;
+    }
+}
@@ -0,0 +1,38 @@
+package defs.dto;
+
+import defs.errors.base.APIError;
+
+public class BatchItemResultDTO {
+    private int index;
+    private Long id;
+    private APIError error;
+
+    public BatchItemResultDTO() {
+    }
+
+    public BatchItemResultDTO(int index, Long id, APIError error) {
+        this.index = index;
+        this.id = id;
+        this.error = error;
+    }
+
+    public static BatchItemResultDTO created(int index, Long id) {
+        return new BatchItemResultDTO(index, id, null);
+    }
+
+    public static BatchItemResultDTO failed(int index, APIError error) {
+        return new BatchItemResultDTO(index, null, error);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public APIError getError() {
+        return error;
+    }
+}
@@ -0,0 +1,30 @@
+package defs.dto;
+
+import java.util.List;
+
+public class BatchResultDTO {
+    private int created;
+    private int failed;
+    private List<BatchItemResultDTO> results;
+
+    public BatchResultDTO() {
+    }
+
+    public BatchResultDTO(int created, int failed, List<BatchItemResultDTO> results) {
+        this.created = created;
+        this.failed = failed;
+        this.results = results;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<BatchItemResultDTO> getResults() {
+        return results;
+    }
+}
@@ -0,0 +1,72 @@
+package defs.dto;
+
+public class ConnectionPoolMetricsDTO {
+    private int activeConnections;
+    private int idleConnections;
+    private int totalConnections;
+    private int maxConnections;
+    private int pendingThreads;
+    private long acquisitions;
+    private long timeouts;
+    private long averageWaitMicros;
+    private long maxWaitMicros;
+    private long averageUsageMillis;
+
+    public ConnectionPoolMetricsDTO() {
+    }
+
+    public ConnectionPoolMetricsDTO(int activeConnections, int idleConnections, int totalConnections,
+                                    int maxConnections, int pendingThreads, long acquisitions, long timeouts,
+                                    long averageWaitMicros, long maxWaitMicros, long averageUsageMillis) {
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.totalConnections = totalConnections;
+        this.maxConnections = maxConnections;
+        this.pendingThreads = pendingThreads;
+        this.acquisitions = acquisitions;
+        this.timeouts = timeouts;
+        this.averageWaitMicros = averageWaitMicros;
+        this.maxWaitMicros = maxWaitMicros;
+        this.averageUsageMillis = averageUsageMillis;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public int getTotalConnections() {
+        return totalConnections;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public int getPendingThreads() {
+        return pendingThreads;
+    }
+
+    public long getAcquisitions() {
+        return acquisitions;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public long getAverageWaitMicros() {
+        return averageWaitMicros;
+    }
+
+    public long getMaxWaitMicros() {
+        return maxWaitMicros;
+    }
+
+    public long getAverageUsageMillis() {
+        return averageUsageMillis;
+    }
+}
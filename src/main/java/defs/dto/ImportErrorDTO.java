@@ -0,0 +1,24 @@
+package defs.dto;
+
+import defs.errors.base.APIError;
+
+public class ImportErrorDTO {
+    private long line;
+    private APIError error;
+
+    public ImportErrorDTO() {
+    }
+
+    public ImportErrorDTO(long line, APIError error) {
+        this.line = line;
+        this.error = error;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public APIError getError() {
+        return error;
+    }
+}
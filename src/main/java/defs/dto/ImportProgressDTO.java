@@ -0,0 +1,34 @@
+package defs.dto;
+
+public class ImportProgressDTO {
+    private long lines;
+    private long imported;
+    private long failed;
+    private boolean done;
+
+    public ImportProgressDTO() {
+    }
+
+    public ImportProgressDTO(long lines, long imported, long failed, boolean done) {
+        this.lines = lines;
+        this.imported = imported;
+        this.failed = failed;
+        this.done = done;
+    }
+
+    public long getLines() {
+        return lines;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+}
@@ -16,6 +16,16 @@ public class LoanApplicantDTO {
     public LoanApplicantDTO() {
     }
 
+    public LoanApplicantDTO(Long id, String firstName, String lastName, LocalDate dateOfBirth,
+                            String mobileNumber, String emailAddress) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.dateOfBirth = dateOfBirth;
+        this.mobileNumber = mobileNumber;
+        this.emailAddress = emailAddress;
+    }
+
     public LoanApplicantDTO(Long id, String firstName, String lastName, LocalDate dateOfBirth,
                             String mobileNumber, String emailAddress, List<IncomeSourceDTO> incomeSources,
                             List<RecurringExpenseDTO> recurringExpenses) {
@@ -0,0 +1,31 @@
+package defs.dto;
+
+import java.util.List;
+
+public class MetricsDTO {
+    private List<AdmissionGateMetricsDTO> admission;
+    private List<RateLimitMetricsDTO> rateLimits;
+    private ConnectionPoolMetricsDTO connectionPool;
+
+    public MetricsDTO() {
+    }
+
+    public MetricsDTO(List<AdmissionGateMetricsDTO> admission, List<RateLimitMetricsDTO> rateLimits,
+                      ConnectionPoolMetricsDTO connectionPool) {
+        this.admission = admission;
+        this.rateLimits = rateLimits;
+        this.connectionPool = connectionPool;
+    }
+
+    public List<AdmissionGateMetricsDTO> getAdmission() {
+        return admission;
+    }
+
+    public List<RateLimitMetricsDTO> getRateLimits() {
+        return rateLimits;
+    }
+
+    public ConnectionPoolMetricsDTO getConnectionPool() {
+        return connectionPool;
+    }
+}
@@ -0,0 +1,52 @@
+package defs.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+public class PageDTO<EntityDTO> {
+    private List<EntityDTO> items;
+    private Long nextCursor;
+
+    public PageDTO() {
+    }
+
+    public PageDTO(List<EntityDTO> items, Long nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Builds a page from the results of a keyset query that fetched one row more than the page limit. If the extra row
+     * is present it is dropped, and the ID of the last row on the page becomes the cursor for the next page.
+     *
+     * @param results    The results of the query, ordered by ID, with at most limit + 1 rows.
+     * @param limit      The maximum number of items on the page.
+     * @param idFunction The function returning the ID of an item, e.g. LoanDTO::getId.
+     * @param <EntityDTO> The type of the items on the page.
+     * @return A page of items with the cursor of the next page, or a null cursor if this is the last page.
+     */
+    public static <EntityDTO> PageDTO<EntityDTO> fromResults(List<EntityDTO> results, int limit,
+                                                             Function<EntityDTO, Long> idFunction) {
+        if (results.size() <= limit) {
+            return new PageDTO<>(results, null);
+        }
+        List<EntityDTO> items = results.subList(0, limit);
+        return new PageDTO<>(items, idFunction.apply(items.get(limit - 1)));
+    }
+
+    public List<EntityDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<EntityDTO> items) {
+        this.items = items;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,47 @@
+package defs.dto;
+
+public class RateLimitMetricsDTO {
+    private String route;
+    private long ratePerSecond;
+    private long burst;
+    private long clients;
+    private long allowed;
+    private long rejected;
+
+    public RateLimitMetricsDTO() {
+    }
+
+    public RateLimitMetricsDTO(String route, long ratePerSecond, long burst, long clients, long allowed,
+                               long rejected) {
+        this.route = route;
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.clients = clients;
+        this.allowed = allowed;
+        this.rejected = rejected;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public long getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public long getBurst() {
+        return burst;
+    }
+
+    public long getClients() {
+        return clients;
+    }
+
+    public long getAllowed() {
+        return allowed;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+}
@@ -0,0 +1,10 @@
+package defs.errors;
+
+import defs.errors.base.APIError;
+import defs.errors.base.APIException;
+
+public class PayloadTooLargeException extends APIException {
+    public PayloadTooLargeException(String message) {
+        super(message, new APIError("Payload too large: " + message, 413));
+    }
+}
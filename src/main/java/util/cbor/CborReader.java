@@ -0,0 +1,570 @@
+package util.cbor;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads CBOR (RFC 8949) through the JsonReader API, so that any Gson type adapter can read CBOR instead of JSON, e.g.
+ * gson.fromJson(new CborReader(in), LoanDTO.class). Maps must have text keys, as JSON objects do. Both definite and
+ * indefinite lengths are supported, and tags are ignored.
+ * <p>
+ * Byte strings and simple values other than true, false, null and undefined cannot be read, and neither can Map typed
+ * members, as Gson's map adapter relies on the internals of JsonReader. Text is read as it arrives rather than
+ * allocated up front from its declared length, and nesting is limited, so a malformed or hostile document fails before
+ * it can use up memory or the stack.
+ */
+public class CborReader extends JsonReader {
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private final int[] kinds;
+    private final long[] remaining;
+    private final boolean[] expectingKey;
+    private int depth;
+
+    private JsonToken peeked;
+    private int head;
+    private int numberKind;
+    private long peekedLong;
+    private double peekedDouble;
+    private BigInteger peekedBig;
+
+    private static final int DEFAULT_MAX_DEPTH = 64;
+    private static final int ARRAY = 0;
+    private static final int MAP = 1;
+    private static final int INDEFINITE = -1;
+    private static final int INTEGER = 0;
+    private static final int FLOAT = 1;
+    private static final int BIG_INTEGER = 2;
+    private static final int BUFFER_SIZE = 8192;
+    private static final int BREAK = 0xff;
+
+    /**
+     * The JsonReader that this reader extends requires a character stream, which is never read from.
+     */
+    private static final Reader UNUSED_READER = new Reader() {
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            return -1;
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    /**
+     * Creates a reader that allows arrays and maps to be nested 64 levels deep. Input is read from the stream in
+     * chunks, so the stream does not need to be buffered.
+     *
+     * @param in The stream to read CBOR from.
+     */
+    public CborReader(InputStream in) {
+        this(in, DEFAULT_MAX_DEPTH);
+    }
+
+    /**
+     * Creates a reader. Input is read from the stream in chunks, so the stream does not need to be buffered.
+     *
+     * @param in       The stream to read CBOR from.
+     * @param maxDepth The deepest nesting of arrays and maps allowed.
+     */
+    public CborReader(InputStream in, int maxDepth) {
+        super(UNUSED_READER);
+        this.in = in;
+        this.kinds = new int[maxDepth];
+        this.remaining = new long[maxDepth];
+        this.expectingKey = new boolean[maxDepth];
+    }
+
+    @Override
+    public void beginArray() throws IOException {
+        expect(JsonToken.BEGIN_ARRAY);
+        push(ARRAY, readLength());
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        expect(JsonToken.END_ARRAY);
+        pop();
+    }
+
+    @Override
+    public void beginObject() throws IOException {
+        expect(JsonToken.BEGIN_OBJECT);
+        long entries = readLength();
+        if (entries > Long.MAX_VALUE / 2) {
+            // Too many to count keys and values separately, and more than any stream could hold
+            throw new MalformedJsonException("Length out of range");
+        }
+        push(MAP, entries == INDEFINITE ? INDEFINITE : entries * 2);
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        expect(JsonToken.END_OBJECT);
+        pop();
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        JsonToken token = peek();
+        return token != JsonToken.END_ARRAY && token != JsonToken.END_OBJECT && token != JsonToken.END_DOCUMENT;
+    }
+
+    @Override
+    public JsonToken peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+
+        if (depth > 0 && remaining[depth - 1] == 0) {
+            peeked = kinds[depth - 1] == ARRAY ? JsonToken.END_ARRAY : JsonToken.END_OBJECT;
+            return peeked;
+        }
+
+        head = read();
+        if (head == -1) {
+            if (depth > 0) {
+                throw new EOFException("End of input inside an array or map");
+            }
+            peeked = JsonToken.END_DOCUMENT;
+            return peeked;
+        }
+        // Tags only add meaning to the item that follows, so they are skipped
+        while (head >> 5 == 6) {
+            readArgument();
+            head = readByte();
+        }
+
+        if (head == BREAK) {
+            if (depth == 0 || remaining[depth - 1] != INDEFINITE) {
+                throw new MalformedJsonException("Unexpected break");
+            }
+            peeked = kinds[depth - 1] == ARRAY ? JsonToken.END_ARRAY : JsonToken.END_OBJECT;
+            return peeked;
+        }
+
+        boolean key = depth > 0 && kinds[depth - 1] == MAP && expectingKey[depth - 1];
+        int majorType = head >> 5;
+        if (key && majorType != 3) {
+            throw new MalformedJsonException("Map keys must be text");
+        }
+        switch (majorType) {
+            case 0:
+            case 1:
+                readInteger(majorType);
+                peeked = JsonToken.NUMBER;
+                break;
+            case 3:
+                peeked = key ? JsonToken.NAME : JsonToken.STRING;
+                break;
+            case 4:
+                peeked = JsonToken.BEGIN_ARRAY;
+                break;
+            case 5:
+                peeked = JsonToken.BEGIN_OBJECT;
+                break;
+            case 7:
+                peeked = peekSimple();
+                break;
+            default:
+                throw new MalformedJsonException("Byte strings are not supported");
+        }
+        return peeked;
+    }
+
+    @Override
+    public String nextName() throws IOException {
+        expect(JsonToken.NAME);
+        String name = readText();
+        consumed();
+        return name;
+    }
+
+    @Override
+    public String nextString() throws IOException {
+        JsonToken token = peek();
+        String value;
+        if (token == JsonToken.STRING) {
+            value = readText();
+        } else if (token == JsonToken.NUMBER) {
+            value = numberKind == INTEGER ? Long.toString(peekedLong)
+                : numberKind == FLOAT ? Double.toString(peekedDouble) : peekedBig.toString();
+        } else {
+            throw unexpected(JsonToken.STRING, token);
+        }
+        consumed();
+        return value;
+    }
+
+    @Override
+    public boolean nextBoolean() throws IOException {
+        expect(JsonToken.BOOLEAN);
+        consumed();
+        return head == 0xf5;
+    }
+
+    @Override
+    public void nextNull() throws IOException {
+        expect(JsonToken.NULL);
+        consumed();
+    }
+
+    @Override
+    public double nextDouble() throws IOException {
+        JsonToken token = peek();
+        double value;
+        if (token == JsonToken.NUMBER) {
+            value = numberKind == INTEGER ? peekedLong : numberKind == FLOAT ? peekedDouble : peekedBig.doubleValue();
+        } else if (token == JsonToken.STRING) {
+            value = Double.parseDouble(readText());
+        } else {
+            throw unexpected(JsonToken.NUMBER, token);
+        }
+        consumed();
+        return value;
+    }
+
+    @Override
+    public long nextLong() throws IOException {
+        JsonToken token = peek();
+        long value;
+        if (token == JsonToken.NUMBER) {
+            if (numberKind == INTEGER) {
+                value = peekedLong;
+            } else if (numberKind == FLOAT && (long) peekedDouble == peekedDouble) {
+                value = (long) peekedDouble;
+            } else {
+                throw new NumberFormatException("Expected a long but was " + nextNumberText());
+            }
+        } else if (token == JsonToken.STRING) {
+            value = Long.parseLong(readText());
+        } else {
+            throw unexpected(JsonToken.NUMBER, token);
+        }
+        consumed();
+        return value;
+    }
+
+    @Override
+    public int nextInt() throws IOException {
+        long value = nextLong();
+        if ((int) value != value) {
+            throw new NumberFormatException("Expected an int but was " + value);
+        }
+        return (int) value;
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+        JsonToken token = peek();
+        switch (token) {
+            case BEGIN_ARRAY:
+                beginArray();
+                while (hasNext()) {
+                    skipValue();
+                }
+                endArray();
+                break;
+            case BEGIN_OBJECT:
+                beginObject();
+                while (hasNext()) {
+                    nextName();
+                    skipValue();
+                }
+                endObject();
+                break;
+            case NAME:
+            case STRING:
+                skipText();
+                consumed();
+                break;
+            case NUMBER:
+            case BOOLEAN:
+            case NULL:
+                consumed();
+                break;
+            default:
+                throw new IllegalStateException("Cannot skip " + token);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * Reads the value of an integer item, which may not fit in a long.
+     *
+     * @param majorType 0 for an unsigned integer, or 1 for a negative one.
+     */
+    private void readInteger(int majorType) throws IOException {
+        long argument = readArgument();
+        if (argument >= 0) {
+            numberKind = INTEGER;
+            peekedLong = majorType == 0 ? argument : -1 - argument;
+        } else {
+            // The argument is unsigned and too big for a long
+            BigInteger unsigned = new BigInteger(Long.toUnsignedString(argument));
+            numberKind = BIG_INTEGER;
+            peekedBig = majorType == 0 ? unsigned : unsigned.negate().subtract(BigInteger.ONE);
+        }
+    }
+
+    /**
+     * Works out the token of a simple value or float.
+     */
+    private JsonToken peekSimple() throws IOException {
+        switch (head) {
+            case 0xf4:
+            case 0xf5:
+                return JsonToken.BOOLEAN;
+            case 0xf6:
+            case 0xf7:
+                return JsonToken.NULL;
+            case 0xf9:
+                numberKind = FLOAT;
+                peekedDouble = halfToDouble((int) readBytes(2));
+                return JsonToken.NUMBER;
+            case 0xfa:
+                numberKind = FLOAT;
+                peekedDouble = Float.intBitsToFloat((int) readBytes(4));
+                return JsonToken.NUMBER;
+            case 0xfb:
+                numberKind = FLOAT;
+                peekedDouble = Double.longBitsToDouble(readBytes(8));
+                return JsonToken.NUMBER;
+            default:
+                throw new MalformedJsonException("Unsupported simple value " + head);
+        }
+    }
+
+    /**
+     * Reads a text item, whose head has been peeked, in chunks as it arrives.
+     */
+    private String readText() throws IOException {
+        long length = readLength();
+        if (length != INDEFINITE && length <= limit - position) {
+            // The common case, text that has already been read into the buffer
+            String text = new String(buffer, position, (int) length, StandardCharsets.UTF_8);
+            position += (int) length;
+            return text;
+        }
+
+        ByteArrayOutputStream text = new ByteArrayOutputStream((int) Math.min(Math.max(length, 16), BUFFER_SIZE));
+        if (length != INDEFINITE) {
+            copy(length, text);
+        } else {
+            // Indefinite length text is a series of definite length text chunks ended by a break
+            int chunkHead;
+            while ((chunkHead = readByte()) != BREAK) {
+                if (chunkHead >> 5 != 3 || (chunkHead & 0x1f) == 31) {
+                    throw new MalformedJsonException("Invalid text chunk");
+                }
+                head = chunkHead;
+                copy(readLength(), text);
+            }
+        }
+        return new String(text.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Skips a text item, whose head has been peeked, without decoding it.
+     */
+    private void skipText() throws IOException {
+        long length = readLength();
+        if (length != INDEFINITE) {
+            skip(length);
+            return;
+        }
+        int chunkHead;
+        while ((chunkHead = readByte()) != BREAK) {
+            if (chunkHead >> 5 != 3 || (chunkHead & 0x1f) == 31) {
+                throw new MalformedJsonException("Invalid text chunk");
+            }
+            head = chunkHead;
+            skip(readLength());
+        }
+    }
+
+    /**
+     * Copies bytes of text to a stream, refilling the buffer as needed, so that only the bytes that have actually
+     * arrived are ever allocated.
+     */
+    private void copy(long length, ByteArrayOutputStream to) throws IOException {
+        while (length > 0) {
+            if (position == limit && !fill()) {
+                throw new EOFException("End of input inside text");
+            }
+            int count = (int) Math.min(length, limit - position);
+            to.write(buffer, position, count);
+            position += count;
+            length -= count;
+        }
+    }
+
+    private void skip(long length) throws IOException {
+        while (length > 0) {
+            if (position == limit && !fill()) {
+                throw new EOFException("End of input inside text");
+            }
+            int count = (int) Math.min(length, limit - position);
+            position += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Reads the length of the peeked array, map or text item.
+     *
+     * @return The length, or INDEFINITE if the item has an indefinite length.
+     */
+    private long readLength() throws IOException {
+        if ((head & 0x1f) == 31) {
+            return INDEFINITE;
+        }
+        long length = readArgument();
+        if (length < 0) {
+            throw new MalformedJsonException("Length out of range");
+        }
+        return length;
+    }
+
+    /**
+     * Reads the argument of the peeked head, which is either part of the head or in the bytes that follow it.
+     *
+     * @return The argument, to be read as unsigned.
+     */
+    private long readArgument() throws IOException {
+        int info = head & 0x1f;
+        if (info < 24) {
+            return info;
+        }
+        switch (info) {
+            case 24:
+                return readBytes(1);
+            case 25:
+                return readBytes(2);
+            case 26:
+                return readBytes(4);
+            case 27:
+                return readBytes(8);
+            default:
+                throw new MalformedJsonException("Invalid argument " + info);
+        }
+    }
+
+    private long readBytes(int count) throws IOException {
+        long value = 0;
+        for (int i = 0; i < count; i++) {
+            value = (value << 8) | readByte();
+        }
+        return value;
+    }
+
+    private int readByte() throws IOException {
+        int read = read();
+        if (read < 0) {
+            throw new EOFException("Unexpected end of input");
+        }
+        return read;
+    }
+
+    /**
+     * Reads a byte from the buffer, refilling it if it is empty.
+     *
+     * @return The byte, or -1 at the end of the input.
+     */
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++] & 0xff;
+    }
+
+    private boolean fill() throws IOException {
+        int read = in.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    private static double halfToDouble(int half) {
+        int exponent = (half >> 10) & 0x1f;
+        int mantissa = half & 0x3ff;
+        double value;
+        if (exponent == 0) {
+            value = mantissa * Math.pow(2, -24);
+        } else if (exponent != 31) {
+            value = (mantissa + 1024) * Math.pow(2, exponent - 25);
+        } else {
+            value = mantissa == 0 ? Double.POSITIVE_INFINITY : Double.NaN;
+        }
+        return (half & 0x8000) == 0 ? value : -value;
+    }
+
+    private String nextNumberText() {
+        return numberKind == FLOAT ? Double.toString(peekedDouble) : String.valueOf(peekedBig);
+    }
+
+    private void push(int kind, long length) throws IOException {
+        if (depth == kinds.length) {
+            throw new MalformedJsonException("Nesting too deep");
+        }
+        kinds[depth] = kind;
+        remaining[depth] = length;
+        expectingKey[depth] = true;
+        depth++;
+        peeked = null;
+    }
+
+    private void pop() {
+        depth--;
+        consumed();
+    }
+
+    /**
+     * Marks the peeked item as read, counting it against the length of the array or map it is in.
+     */
+    private void consumed() {
+        peeked = null;
+        if (depth > 0) {
+            int top = depth - 1;
+            if (remaining[top] > 0) {
+                remaining[top]--;
+            }
+            expectingKey[top] = !expectingKey[top];
+        }
+    }
+
+    private void expect(JsonToken expected) throws IOException {
+        JsonToken token = peek();
+        if (token != expected) {
+            throw unexpected(expected, token);
+        }
+    }
+
+    private static IllegalStateException unexpected(JsonToken expected, JsonToken actual) {
+        return new IllegalStateException("Expected " + expected + " but was " + actual);
+    }
+}
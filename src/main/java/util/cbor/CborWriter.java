@@ -0,0 +1,298 @@
+package util.cbor;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Writes CBOR (RFC 8949) through the JsonWriter API, so that any Gson type adapter can write CBOR instead of JSON, e.g.
+ * gson.toJson(dto, LoanDTO.class, new CborWriter(out)). Arrays and objects are written with indefinite lengths, so
+ * nothing has to be buffered to count their members.
+ * <p>
+ * Integers are written in their shortest form, and doubles as 32-bit floats when that loses no precision. Null members
+ * are left out unless the writer is set to serialize nulls, as with JSON. Raw JSON values cannot be written.
+ */
+public class CborWriter extends JsonWriter {
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private String deferredName;
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAJOR_UNSIGNED = 0;
+    private static final int MAJOR_NEGATIVE = 1;
+    private static final int MAJOR_TEXT = 3;
+    private static final int INDEFINITE_ARRAY = 0x9f;
+    private static final int INDEFINITE_MAP = 0xbf;
+    private static final int FALSE = 0xf4;
+    private static final int TRUE = 0xf5;
+    private static final int NULL = 0xf6;
+    private static final int FLOAT_32 = 0xfa;
+    private static final int FLOAT_64 = 0xfb;
+    private static final int BREAK = 0xff;
+
+    /**
+     * The JsonWriter that this writer extends requires a character stream, which is never written to.
+     */
+    private static final Writer UNUSED_WRITER = new Writer() {
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    /**
+     * Creates a writer. Output is buffered, and only reaches the stream when the writer is flushed or closed.
+     *
+     * @param out The stream to write CBOR to.
+     */
+    public CborWriter(OutputStream out) {
+        super(UNUSED_WRITER);
+        this.out = out;
+    }
+
+    @Override
+    public JsonWriter beginArray() throws IOException {
+        writeDeferredName();
+        write(INDEFINITE_ARRAY);
+        return this;
+    }
+
+    @Override
+    public JsonWriter endArray() throws IOException {
+        write(BREAK);
+        return this;
+    }
+
+    @Override
+    public JsonWriter beginObject() throws IOException {
+        writeDeferredName();
+        write(INDEFINITE_MAP);
+        return this;
+    }
+
+    @Override
+    public JsonWriter endObject() throws IOException {
+        if (deferredName != null) {
+            throw new IllegalStateException("Dangling name: " + deferredName);
+        }
+        write(BREAK);
+        return this;
+    }
+
+    @Override
+    public JsonWriter name(String name) throws IOException {
+        Objects.requireNonNull(name, "name == null");
+        if (deferredName != null) {
+            throw new IllegalStateException("Already wrote a name, expecting a value.");
+        }
+        deferredName = name;
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        writeDeferredName();
+        writeText(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter jsonValue(String value) {
+        throw new UnsupportedOperationException("Raw JSON values cannot be written as CBOR");
+    }
+
+    @Override
+    public JsonWriter nullValue() throws IOException {
+        if (deferredName != null) {
+            if (!getSerializeNulls()) {
+                // The name and its null value are both left out
+                deferredName = null;
+                return this;
+            }
+            writeDeferredName();
+        }
+        write(NULL);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(boolean value) throws IOException {
+        writeDeferredName();
+        write(value ? TRUE : FALSE);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Boolean value) throws IOException {
+        return value == null ? nullValue() : value(value.booleanValue());
+    }
+
+    @Override
+    public JsonWriter value(float value) throws IOException {
+        return value((double) value);
+    }
+
+    @Override
+    public JsonWriter value(double value) throws IOException {
+        if (!isLenient() && (Double.isNaN(value) || Double.isInfinite(value))) {
+            throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+        }
+        writeDeferredName();
+        float single = (float) value;
+        if (single == value || Double.isNaN(value)) {
+            write(FLOAT_32);
+            writeBytes(Float.floatToIntBits(single), 4);
+        } else {
+            write(FLOAT_64);
+            writeBytes(Double.doubleToLongBits(value), 8);
+        }
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(long value) throws IOException {
+        writeDeferredName();
+        if (value >= 0) {
+            writeHead(MAJOR_UNSIGNED, value);
+        } else {
+            writeHead(MAJOR_NEGATIVE, -1 - value);
+        }
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Number value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return value(value.doubleValue());
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return value(value.longValue());
+        }
+
+        // Other numbers, e.g. BigDecimal or Gson's lazily parsed numbers, are written as a long if they are one
+        String text = value.toString();
+        try {
+            return value(Long.parseLong(text));
+        } catch (NumberFormatException e) {
+            return value(Double.parseDouble(text));
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushBuffer();
+        out.close();
+    }
+
+    private void writeDeferredName() throws IOException {
+        if (deferredName != null) {
+            writeText(deferredName);
+            deferredName = null;
+        }
+    }
+
+    /**
+     * Writes a UTF-8 text string. ASCII text, e.g. every member name, is written without encoding it to an array
+     * first.
+     */
+    private void writeText(String text) throws IOException {
+        int length = text.length();
+        boolean ascii = true;
+        for (int i = 0; i < length && ascii; i++) {
+            ascii = text.charAt(i) < 0x80;
+        }
+
+        if (ascii) {
+            writeHead(MAJOR_TEXT, length);
+            for (int i = 0; i < length; i++) {
+                write(text.charAt(i));
+            }
+        } else {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            writeHead(MAJOR_TEXT, bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+    }
+
+    /**
+     * Writes the initial bytes of a data item: its major type and its argument, in the shortest form that holds it.
+     *
+     * @param majorType The major type, 0 to 7.
+     * @param argument  The argument, read as unsigned.
+     */
+    private void writeHead(int majorType, long argument) throws IOException {
+        int type = majorType << 5;
+        if (argument >= 0 && argument < 24) {
+            write(type | (int) argument);
+        } else if (argument >= 0 && argument <= 0xff) {
+            write(type | 24);
+            write((int) argument);
+        } else if (argument >= 0 && argument <= 0xffff) {
+            write(type | 25);
+            writeBytes(argument, 2);
+        } else if (argument >= 0 && argument <= 0xffffffffL) {
+            write(type | 26);
+            writeBytes(argument, 4);
+        } else {
+            write(type | 27);
+            writeBytes(argument, 8);
+        }
+    }
+
+    private void writeBytes(long value, int count) throws IOException {
+        for (int shift = (count - 1) * 8; shift >= 0; shift -= 8) {
+            write((int) (value >>> shift));
+        }
+    }
+
+    private void write(int b) throws IOException {
+        if (position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    private void write(byte[] bytes, int offset, int length) throws IOException {
+        if (length > buffer.length - position) {
+            flushBuffer();
+            if (length > buffer.length) {
+                out.write(bytes, offset, length);
+                return;
+            }
+        }
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
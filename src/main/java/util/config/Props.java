@@ -49,6 +49,50 @@ public class Props {
         return props.getProperty("db.name");
     }
 
+    public static int getDbPoolMinIdle() {
+        return Integer.parseInt(props.getProperty("db.pool.minIdle", "2"));
+    }
+
+    public static int getDbPoolMaxSize() {
+        return Integer.parseInt(props.getProperty("db.pool.maxSize", "10"));
+    }
+
+    public static long getDbPoolConnectionTimeout() {
+        return Long.parseLong(props.getProperty("db.pool.connectionTimeoutMs", "5000"));
+    }
+
+    public static long getDbPoolIdleTimeout() {
+        return Long.parseLong(props.getProperty("db.pool.idleTimeoutMs", "600000"));
+    }
+
+    public static long getDbPoolMaxLifetime() {
+        return Long.parseLong(props.getProperty("db.pool.maxLifetimeMs", "1800000"));
+    }
+
+    public static long getDbPoolLeakDetectionThreshold() {
+        return Long.parseLong(props.getProperty("db.pool.leakDetectionThresholdMs", "30000"));
+    }
+
+    public static int getDbPoolPrepStmtCacheSize() {
+        return Integer.parseInt(props.getProperty("db.pool.prepStmtCacheSize", "250"));
+    }
+
+    public static int getDbPoolPrepStmtCacheSqlLimit() {
+        return Integer.parseInt(props.getProperty("db.pool.prepStmtCacheSqlLimit", "2048"));
+    }
+
+    public static int getDbBatchSize() {
+        return Integer.parseInt(props.getProperty("db.batchSize", "50"));
+    }
+
+    public static int getDbBulkChunkSize() {
+        return Integer.parseInt(props.getProperty("db.bulk.chunkSize", "1000"));
+    }
+
+    public static int getDbBulkFetchSize() {
+        return Integer.parseInt(props.getProperty("db.bulk.fetchSize", "1000"));
+    }
+
     public static int getApiPort() {
         return Integer.parseInt(props.getProperty("api.port"));
     }
@@ -56,5 +100,125 @@ public class Props {
     public static String getApiHost() {
         return props.getProperty("api.host");
     }
+
+    public static String getApiTransport() {
+        return props.getProperty("api.transport", "spark");
+    }
+
+    public static int getApiThreadsMin() {
+        return Integer.parseInt(props.getProperty("api.threads.min", "8"));
+    }
+
+    public static int getApiThreadsMax() {
+        return Integer.parseInt(props.getProperty("api.threads.max", "200"));
+    }
+
+    public static int getApiThreadsIdleTimeout() {
+        return Integer.parseInt(props.getProperty("api.threads.idleTimeoutMs", "60000"));
+    }
+
+    public static boolean isApiThreadsVirtual() {
+        return Boolean.parseBoolean(props.getProperty("api.threads.virtual", "false"));
+    }
+
+    public static int getApiThreadsVirtualMax() {
+        return Integer.parseInt(props.getProperty("api.threads.virtualMax", "10000"));
+    }
+
+    public static int getApiAdmissionReadMaxConcurrent() {
+        return Integer.parseInt(props.getProperty("api.admission.read.maxConcurrent", "6"));
+    }
+
+    public static int getApiAdmissionReadMaxQueued() {
+        return Integer.parseInt(props.getProperty("api.admission.read.maxQueued", "100"));
+    }
+
+    public static long getApiAdmissionReadQueueTimeout() {
+        return Long.parseLong(props.getProperty("api.admission.read.queueTimeoutMs", "1000"));
+    }
+
+    public static int getApiAdmissionWriteMaxConcurrent() {
+        return Integer.parseInt(props.getProperty("api.admission.write.maxConcurrent", "4"));
+    }
+
+    public static int getApiAdmissionWriteMaxQueued() {
+        return Integer.parseInt(props.getProperty("api.admission.write.maxQueued", "50"));
+    }
+
+    public static long getApiAdmissionWriteQueueTimeout() {
+        return Long.parseLong(props.getProperty("api.admission.write.queueTimeoutMs", "2000"));
+    }
+
+    public static int getApiAdmissionRetryAfter() {
+        return Integer.parseInt(props.getProperty("api.admission.retryAfterSeconds", "1"));
+    }
+
+    public static boolean isApiRateLimitEnabled() {
+        return Boolean.parseBoolean(props.getProperty("api.rateLimit.enabled", "true"));
+    }
+
+    public static String getApiRateLimitRoutes() {
+        return props.getProperty("api.rateLimit.routes", "/loans=50/100,/loanApplicants=50/100");
+    }
+
+    public static String getApiRateLimitClientHeader() {
+        return props.getProperty("api.rateLimit.clientHeader", "");
+    }
+
+    public static long getApiRateLimitIdleTimeout() {
+        return Long.parseLong(props.getProperty("api.rateLimit.idleTimeoutMs", "60000"));
+    }
+
+    public static boolean isApiCompressionEnabled() {
+        return Boolean.parseBoolean(props.getProperty("api.compression.enabled", "true"));
+    }
+
+    public static int getApiCompressionMinSize() {
+        return Integer.parseInt(props.getProperty("api.compression.minSize", "1024"));
+    }
+
+    public static int getApiCompressionLevel() {
+        return Integer.parseInt(props.getProperty("api.compression.level", "6"));
+    }
+
+    public static String getApiCacheControlCurrencies() {
+        return props.getProperty("api.cacheControl.currencies", "public, max-age=300");
+    }
+
+    public static String getApiCacheControlLoanTypes() {
+        return props.getProperty("api.cacheControl.loanTypes", "public, max-age=300");
+    }
+
+    public static String getApiCacheControlLoans() {
+        return props.getProperty("api.cacheControl.loans", "private, no-cache");
+    }
+
+    public static String getApiCacheControlLoanApplicants() {
+        return props.getProperty("api.cacheControl.loanApplicants", "private, no-cache");
+    }
+
+    public static int getApiBatchMaxSize() {
+        return Integer.parseInt(props.getProperty("api.batch.maxSize", "1000"));
+    }
+
+    public static int getApiImportMaxLineLength() {
+        return Integer.parseInt(props.getProperty("api.import.maxLineLength", "1048576"));
+    }
+
+    public static long getApiRequestMaxBodySize() {
+        return Long.parseLong(props.getProperty("api.request.maxBodySize", "4194304"));
+    }
+
+    public static int getApiRequestMaxDepth() {
+        return Integer.parseInt(props.getProperty("api.request.maxDepth", "32"));
+    }
+
+    public static int getApiPageDefaultLimit() {
+        return Integer.parseInt(props.getProperty("api.page.defaultLimit", "100"));
+    }
+
+    public static int getApiPageMaxLimit() {
+        return Integer.parseInt(props.getProperty("api.page.maxLimit", "1000"));
+    }
 }
 
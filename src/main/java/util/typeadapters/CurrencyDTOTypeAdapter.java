@@ -0,0 +1,52 @@
+package util.typeadapters;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import defs.dto.CurrencyDTO;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes CurrencyDTO members directly, in declaration order.
+ */
+public class CurrencyDTOTypeAdapter extends DTOTypeAdapter<CurrencyDTO> {
+    private static final String CODE = "code";
+    private static final String SYMBOL = "symbol";
+
+    @Override
+    public void write(JsonWriter out, CurrencyDTO value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name(CODE).value(value.getCode());
+        out.name(SYMBOL).value(value.getSymbol());
+        out.endObject();
+    }
+
+    @Override
+    public CurrencyDTO read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        CurrencyDTO dto = new CurrencyDTO();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case CODE:
+                    dto.setCode(readString(in));
+                    break;
+                case SYMBOL:
+                    dto.setSymbol(readString(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return dto;
+    }
+}
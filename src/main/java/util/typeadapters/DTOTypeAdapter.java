@@ -0,0 +1,80 @@
+package util.typeadapters;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Base class of the hand-written DTO adapters, which read and write the DTO members directly instead of through
+ * reflection. The member names are constants, so writing a DTO does not look up or build any names.
+ * <p>
+ * The adapters produce and accept the same JSON as Gson's reflective adapters: null members are left out as configured
+ * on the Gson instance, unknown members are skipped, and a null primitive member keeps its default value.
+ *
+ * @param <DTO> The DTO type.
+ */
+abstract class DTOTypeAdapter<DTO> extends TypeAdapter<DTO> {
+
+    /**
+     * Reads a nullable long member.
+     *
+     * @param in The JSON reader, positioned at the member's value.
+     * @return The value, or null if the value is null.
+     * @throws IOException         When the JSON could not be read.
+     * @throws JsonSyntaxException When the value is not a long.
+     */
+    static Long readLong(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        try {
+            return in.nextLong();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    /**
+     * Reads a primitive double member.
+     *
+     * @param in       The JSON reader, positioned at the member's value.
+     * @param original The current value, which is kept if the value is null.
+     * @return The value.
+     * @throws IOException         When the JSON could not be read.
+     * @throws JsonSyntaxException When the value is not a number.
+     */
+    static double readDouble(JsonReader in, double original) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return original;
+        }
+        try {
+            return in.nextDouble();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    /**
+     * Reads a nullable string member. Numbers and booleans are read as their text, as Gson does.
+     *
+     * @param in The JSON reader, positioned at the member's value.
+     * @return The value, or null if the value is null.
+     * @throws IOException When the JSON could not be read.
+     */
+    static String readString(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token == JsonToken.BOOLEAN) {
+            return Boolean.toString(in.nextBoolean());
+        }
+        return in.nextString();
+    }
+}
@@ -0,0 +1,43 @@
+package util.typeadapters;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import defs.dto.CurrencyDTO;
+import defs.dto.IncomeSourceDTO;
+import defs.dto.LoanApplicantDTO;
+import defs.dto.LoanDTO;
+import defs.dto.LoanTypeDTO;
+import defs.dto.RecurringExpenseDTO;
+
+import java.time.LocalDate;
+
+/**
+ * Provides the hand-written adapters of the API DTOs, so that they are serialised and deserialised without reflection.
+ * Other types are left to Gson, including the DTOs that wrap these ones, e.g. PageDTO, which still pick these adapters
+ * up for their members.
+ */
+public class DTOTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == LoanApplicantDTO.class) {
+            return (TypeAdapter<T>) new LoanApplicantDTOTypeAdapter(gson.getAdapter(LocalDate.class),
+                gson.getAdapter(IncomeSourceDTO.class), gson.getAdapter(RecurringExpenseDTO.class));
+        } else if (rawType == LoanDTO.class) {
+            return (TypeAdapter<T>) new LoanDTOTypeAdapter();
+        } else if (rawType == IncomeSourceDTO.class) {
+            return (TypeAdapter<T>) new IncomeSourceDTOTypeAdapter();
+        } else if (rawType == RecurringExpenseDTO.class) {
+            return (TypeAdapter<T>) new RecurringExpenseDTOTypeAdapter();
+        } else if (rawType == CurrencyDTO.class) {
+            return (TypeAdapter<T>) new CurrencyDTOTypeAdapter();
+        } else if (rawType == LoanTypeDTO.class) {
+            return (TypeAdapter<T>) new LoanTypeDTOTypeAdapter();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,67 @@
+package util.typeadapters;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import defs.dto.IncomeSourceDTO;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes IncomeSourceDTO members directly, in declaration order.
+ */
+public class IncomeSourceDTOTypeAdapter extends DTOTypeAdapter<IncomeSourceDTO> {
+    private static final String ID = "id";
+    private static final String APPLICANT_ID = "applicantId";
+    private static final String INCOME_TYPE = "incomeType";
+    private static final String MONTHLY_INCOME = "monthlyIncome";
+    private static final String CURRENCY = "currency";
+
+    @Override
+    public void write(JsonWriter out, IncomeSourceDTO value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name(ID).value(value.getId());
+        out.name(APPLICANT_ID).value(value.getApplicantId());
+        out.name(INCOME_TYPE).value(value.getIncomeType());
+        out.name(MONTHLY_INCOME).value(value.getMonthlyIncome());
+        out.name(CURRENCY).value(value.getCurrency());
+        out.endObject();
+    }
+
+    @Override
+    public IncomeSourceDTO read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        IncomeSourceDTO dto = new IncomeSourceDTO();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case ID:
+                    dto.setId(readLong(in));
+                    break;
+                case APPLICANT_ID:
+                    dto.setApplicantId(readLong(in));
+                    break;
+                case INCOME_TYPE:
+                    dto.setIncomeType(readString(in));
+                    break;
+                case MONTHLY_INCOME:
+                    dto.setMonthlyIncome(readDouble(in, dto.getMonthlyIncome()));
+                    break;
+                case CURRENCY:
+                    dto.setCurrency(readString(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return dto;
+    }
+}
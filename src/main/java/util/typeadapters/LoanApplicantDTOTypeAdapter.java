@@ -0,0 +1,131 @@
+package util.typeadapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import defs.dto.IncomeSourceDTO;
+import defs.dto.LoanApplicantDTO;
+import defs.dto.RecurringExpenseDTO;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes LoanApplicantDTO members directly, in declaration order. The date of birth and the child DTOs are
+ * read and written with the adapters registered for their types.
+ */
+public class LoanApplicantDTOTypeAdapter extends DTOTypeAdapter<LoanApplicantDTO> {
+    private final TypeAdapter<LocalDate> localDateAdapter;
+    private final TypeAdapter<IncomeSourceDTO> incomeSourceAdapter;
+    private final TypeAdapter<RecurringExpenseDTO> recurringExpenseAdapter;
+
+    private static final String ID = "id";
+    private static final String FIRST_NAME = "firstName";
+    private static final String LAST_NAME = "lastName";
+    private static final String DATE_OF_BIRTH = "dateOfBirth";
+    private static final String MOBILE_NUMBER = "mobileNumber";
+    private static final String EMAIL_ADDRESS = "emailAddress";
+    private static final String INCOME_SOURCES = "incomeSources";
+    private static final String RECURRING_EXPENSES = "recurringExpenses";
+
+    public LoanApplicantDTOTypeAdapter(TypeAdapter<LocalDate> localDateAdapter,
+                                       TypeAdapter<IncomeSourceDTO> incomeSourceAdapter,
+                                       TypeAdapter<RecurringExpenseDTO> recurringExpenseAdapter) {
+        this.localDateAdapter = localDateAdapter;
+        this.incomeSourceAdapter = incomeSourceAdapter;
+        this.recurringExpenseAdapter = recurringExpenseAdapter;
+    }
+
+    @Override
+    public void write(JsonWriter out, LoanApplicantDTO value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name(ID).value(value.getId());
+        out.name(FIRST_NAME).value(value.getFirstName());
+        out.name(LAST_NAME).value(value.getLastName());
+        out.name(DATE_OF_BIRTH);
+        localDateAdapter.write(out, value.getDateOfBirth());
+        out.name(MOBILE_NUMBER).value(value.getMobileNumber());
+        out.name(EMAIL_ADDRESS).value(value.getEmailAddress());
+        out.name(INCOME_SOURCES);
+        writeList(out, value.getIncomeSources(), incomeSourceAdapter);
+        out.name(RECURRING_EXPENSES);
+        writeList(out, value.getRecurringExpenses(), recurringExpenseAdapter);
+        out.endObject();
+    }
+
+    @Override
+    public LoanApplicantDTO read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        LoanApplicantDTO dto = new LoanApplicantDTO();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case ID:
+                    dto.setId(readLong(in));
+                    break;
+                case FIRST_NAME:
+                    dto.setFirstName(readString(in));
+                    break;
+                case LAST_NAME:
+                    dto.setLastName(readString(in));
+                    break;
+                case DATE_OF_BIRTH:
+                    dto.setDateOfBirth(localDateAdapter.read(in));
+                    break;
+                case MOBILE_NUMBER:
+                    dto.setMobileNumber(readString(in));
+                    break;
+                case EMAIL_ADDRESS:
+                    dto.setEmailAddress(readString(in));
+                    break;
+                case INCOME_SOURCES:
+                    dto.setIncomeSources(readList(in, incomeSourceAdapter));
+                    break;
+                case RECURRING_EXPENSES:
+                    dto.setRecurringExpenses(readList(in, recurringExpenseAdapter));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return dto;
+    }
+
+    private static <Element> void writeList(JsonWriter out, List<Element> list, TypeAdapter<Element> adapter)
+        throws IOException {
+        if (list == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (Element element : list) {
+            adapter.write(out, element);
+        }
+        out.endArray();
+    }
+
+    private static <Element> List<Element> readList(JsonReader in, TypeAdapter<Element> adapter) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<Element> list = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            list.add(adapter.read(in));
+        }
+        in.endArray();
+        return list;
+    }
+}
@@ -0,0 +1,67 @@
+package util.typeadapters;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import defs.dto.LoanDTO;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes LoanDTO members directly, in declaration order.
+ */
+public class LoanDTOTypeAdapter extends DTOTypeAdapter<LoanDTO> {
+    private static final String ID = "id";
+    private static final String APPLICANT_ID = "applicantId";
+    private static final String LOAN_TYPE = "loanType";
+    private static final String VALUE_OF_PURCHASE = "valueOfPurchase";
+    private static final String CURRENCY = "currency";
+
+    @Override
+    public void write(JsonWriter out, LoanDTO value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name(ID).value(value.getId());
+        out.name(APPLICANT_ID).value(value.getApplicantId());
+        out.name(LOAN_TYPE).value(value.getLoanType());
+        out.name(VALUE_OF_PURCHASE).value(value.getValueOfPurchase());
+        out.name(CURRENCY).value(value.getCurrency());
+        out.endObject();
+    }
+
+    @Override
+    public LoanDTO read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        LoanDTO dto = new LoanDTO();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case ID:
+                    dto.setId(readLong(in));
+                    break;
+                case APPLICANT_ID:
+                    dto.setApplicantId(readLong(in));
+                    break;
+                case LOAN_TYPE:
+                    dto.setLoanType(readString(in));
+                    break;
+                case VALUE_OF_PURCHASE:
+                    dto.setValueOfPurchase(readDouble(in, dto.getValueOfPurchase()));
+                    break;
+                case CURRENCY:
+                    dto.setCurrency(readString(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return dto;
+    }
+}
@@ -0,0 +1,52 @@
+package util.typeadapters;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import defs.dto.LoanTypeDTO;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes LoanTypeDTO members directly, in declaration order.
+ */
+public class LoanTypeDTOTypeAdapter extends DTOTypeAdapter<LoanTypeDTO> {
+    private static final String LOAN_NAME = "loanName";
+    private static final String LOAN_PURCHASE = "loanPurchase";
+
+    @Override
+    public void write(JsonWriter out, LoanTypeDTO value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name(LOAN_NAME).value(value.getLoanName());
+        out.name(LOAN_PURCHASE).value(value.getLoanPurchase());
+        out.endObject();
+    }
+
+    @Override
+    public LoanTypeDTO read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        LoanTypeDTO dto = new LoanTypeDTO();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case LOAN_NAME:
+                    dto.setLoanName(readString(in));
+                    break;
+                case LOAN_PURCHASE:
+                    dto.setLoanPurchase(readString(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return dto;
+    }
+}
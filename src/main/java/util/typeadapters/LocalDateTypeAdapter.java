@@ -1,24 +1,148 @@
 package util.typeadapters;
 
-import com.google.gson.*;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import defs.errors.BadSyntaxException;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
-public class LocalDateTypeAdapter implements JsonSerializer<LocalDate>, JsonDeserializer<LocalDate> {
+/**
+ * Reads and writes dates as ISO strings, e.g. "1990-01-31", straight from and to the JSON stream. Dates with four-digit
+ * years are formatted and parsed by hand, and recently seen dates are kept in a small cache along with their text, so
+ * that the dates that keep coming back (e.g. the dates of birth of a page of loan applicants) are neither formatted
+ * nor allocated again.
+ */
+public class LocalDateTypeAdapter extends TypeAdapter<LocalDate> {
+    private final Entry[] cache = new Entry[CACHE_SIZE];
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
+    private static final int CACHE_SIZE = 4096;
+    private static final int ISO_LENGTH = 10;
 
     @Override
-    public JsonElement serialize(LocalDate src, Type typeOfSrc, JsonSerializationContext context) {
-        String formattedDate = src.format(DATE_FORMATTER);
-        return new JsonPrimitive(formattedDate);
+    public void write(JsonWriter out, LocalDate value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        int slot = slotOf(value.getYear(), value.getMonthValue(), value.getDayOfMonth());
+        Entry entry = cache[slot];
+        if (entry == null || !entry.date.equals(value)) {
+            entry = new Entry(value, format(value));
+            cache[slot] = entry;
+        }
+        out.value(entry.text);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @throws BadSyntaxException When the value is not a valid ISO date.
+     */
     @Override
-    public LocalDate deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
-        String dateStr = json.getAsString();
-        return LocalDate.parse(dateStr, DATE_FORMATTER);
+    public LocalDate read(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token != JsonToken.STRING) {
+            in.skipValue();
+            throw new BadSyntaxException("Dates must be strings in the format yyyy-MM-dd");
+        }
+
+        String text = in.nextString();
+        try {
+            if (!isBasicIso(text)) {
+                return LocalDate.parse(text, DATE_FORMATTER);
+            }
+            int year = digits(text, 0, 4);
+            int month = digits(text, 5, 7);
+            int day = digits(text, 8, 10);
+            int slot = slotOf(year, month, day);
+            Entry entry = cache[slot];
+            if (entry == null || entry.date.getYear() != year || entry.date.getMonthValue() != month ||
+                entry.date.getDayOfMonth() != day) {
+                entry = new Entry(LocalDate.of(year, month, day), text);
+                cache[slot] = entry;
+            }
+            return entry.date;
+        } catch (DateTimeException e) {
+            throw new BadSyntaxException("Invalid date " + text + ", dates must be in the format yyyy-MM-dd");
+        }
+    }
+
+    /**
+     * Formats a date as yyyy-MM-dd, by hand if its year has four digits.
+     *
+     * @param date The date.
+     * @return The ISO text of the date.
+     */
+    private static String format(LocalDate date) {
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            return date.format(DATE_FORMATTER);
+        }
+        int month = date.getMonthValue();
+        int day = date.getDayOfMonth();
+        char[] text = new char[ISO_LENGTH];
+        text[0] = (char) ('0' + year / 1000);
+        text[1] = (char) ('0' + year / 100 % 10);
+        text[2] = (char) ('0' + year / 10 % 10);
+        text[3] = (char) ('0' + year % 10);
+        text[4] = '-';
+        text[5] = (char) ('0' + month / 10);
+        text[6] = (char) ('0' + month % 10);
+        text[7] = '-';
+        text[8] = (char) ('0' + day / 10);
+        text[9] = (char) ('0' + day % 10);
+        return new String(text);
+    }
+
+    /**
+     * Checks if text has the shape yyyy-MM-dd, which is parsed by hand. Anything else, e.g. a year with more than four
+     * digits, is left to the formatter.
+     */
+    private static boolean isBasicIso(String text) {
+        if (text.length() != ISO_LENGTH || text.charAt(4) != '-' || text.charAt(7) != '-') {
+            return false;
+        }
+        for (int i = 0; i < ISO_LENGTH; i++) {
+            if (i != 4 && i != 7 && (text.charAt(i) < '0' || text.charAt(i) > '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int digits(String text, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static int slotOf(int year, int month, int day) {
+        return ((year * 12 + month) * 31 + day) & (CACHE_SIZE - 1);
+    }
+
+    /**
+     * A cached date and its ISO text. Entries are immutable, so they can be shared between threads without locking;
+     * at worst a thread misses an entry another thread has just cached.
+     */
+    private static class Entry {
+        private final LocalDate date;
+        private final String text;
+
+        private Entry(LocalDate date, String text) {
+            this.date = date;
+            this.text = text;
+        }
     }
 }
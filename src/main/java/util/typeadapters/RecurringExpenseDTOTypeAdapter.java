@@ -0,0 +1,67 @@
+package util.typeadapters;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import defs.dto.RecurringExpenseDTO;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes RecurringExpenseDTO members directly, in declaration order.
+ */
+public class RecurringExpenseDTOTypeAdapter extends DTOTypeAdapter<RecurringExpenseDTO> {
+    private static final String ID = "id";
+    private static final String APPLICANT_ID = "applicantId";
+    private static final String EXPENSE_TYPE = "expenseType";
+    private static final String MONTHLY_EXPENSE = "monthlyExpense";
+    private static final String CURRENCY = "currency";
+
+    @Override
+    public void write(JsonWriter out, RecurringExpenseDTO value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name(ID).value(value.getId());
+        out.name(APPLICANT_ID).value(value.getApplicantId());
+        out.name(EXPENSE_TYPE).value(value.getExpenseType());
+        out.name(MONTHLY_EXPENSE).value(value.getMonthlyExpense());
+        out.name(CURRENCY).value(value.getCurrency());
+        out.endObject();
+    }
+
+    @Override
+    public RecurringExpenseDTO read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        RecurringExpenseDTO dto = new RecurringExpenseDTO();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case ID:
+                    dto.setId(readLong(in));
+                    break;
+                case APPLICANT_ID:
+                    dto.setApplicantId(readLong(in));
+                    break;
+                case EXPENSE_TYPE:
+                    dto.setExpenseType(readString(in));
+                    break;
+                case MONTHLY_EXPENSE:
+                    dto.setMonthlyExpense(readDouble(in, dto.getMonthlyExpense()));
+                    break;
+                case CURRENCY:
+                    dto.setCurrency(readString(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return dto;
+    }
+}
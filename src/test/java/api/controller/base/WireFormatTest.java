@@ -0,0 +1,213 @@
+package api.controller.base;
+
+import api.http.ApiRequest;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import defs.dto.CurrencyDTO;
+import defs.errors.BadSyntaxException;
+import defs.errors.PayloadTooLargeException;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import util.config.Props;
+import util.typeadapters.DTOTypeAdapterFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class WireFormatTest {
+    private static WireFormat wireFormat;
+
+    // {"code": "EUR"}
+    private static final String CBOR_CURRENCY = "a1 64 636f6465 63 455552";
+
+    @BeforeClass
+    public static void setUp() {
+        Props.initialise();
+        Gson gson = new GsonBuilder().registerTypeAdapterFactory(new DTOTypeAdapterFactory()).create();
+        wireFormat = new WireFormat(gson, null);
+    }
+
+    @Test
+    public void readsCborBody() {
+        CurrencyDTO currency = wireFormat.fromBody(cbor(CBOR_CURRENCY), CurrencyDTO.class);
+        assertEquals(new CurrencyDTO("EUR", null), currency);
+    }
+
+    @Test
+    public void rejectsBytesAfterTheCborItem() {
+        assertThrows(BadSyntaxException.class, () -> wireFormat.fromBody(cbor(CBOR_CURRENCY + " 00"),
+            CurrencyDTO.class));
+        assertThrows(BadSyntaxException.class, () -> wireFormat.fromBody(cbor(CBOR_CURRENCY + " ff"),
+            CurrencyDTO.class));
+        assertThrows(BadSyntaxException.class, () -> wireFormat.fromBody(cbor("f6 f6"), CurrencyDTO.class));
+    }
+
+    @Test
+    public void rejectsTextAfterTheJsonValue() {
+        assertThrows(JsonSyntaxException.class, () -> wireFormat.fromBody(json("{\"code\":\"EUR\"} {}"),
+            CurrencyDTO.class));
+    }
+
+    @Test
+    public void rejectsDeclaredOversizedBodiesBeforeReadingThem() {
+        InputStream unread = new InputStream() {
+            @Override
+            public int read() {
+                throw new AssertionError("Body was read");
+            }
+        };
+        assertThrows(PayloadTooLargeException.class, () -> wireFormat.fromBody(json("{}").body(unread)
+            .header("Content-Length", "1025"), CurrencyDTO.class));
+        assertThrows(PayloadTooLargeException.class, () -> wireFormat.fromBody(cbor("a0").body(unread)
+            .header("Content-Length", " 1048576 "), CurrencyDTO.class));
+    }
+
+    @Test
+    public void countsBodiesThatDoNotDeclareTheirSize() {
+        String atLimit = currencyJson(1024);
+        assertEquals(1024 - 11, wireFormat.fromBody(json(atLimit), CurrencyDTO.class).getCode().length());
+
+        String overLimit = currencyJson(1025);
+        assertThrows(PayloadTooLargeException.class, () -> wireFormat.fromBody(json(overLimit), CurrencyDTO.class));
+        // A Content-Length that understates the body, or cannot be parsed, does not stop the count
+        assertThrows(PayloadTooLargeException.class, () -> wireFormat.fromBody(json(overLimit)
+            .header("Content-Length", "10"), CurrencyDTO.class));
+        assertThrows(PayloadTooLargeException.class, () -> wireFormat.fromBody(json(overLimit)
+            .header("Content-Length", "lots"), CurrencyDTO.class));
+        // {"code": text of 1100 bytes}
+        assertThrows(PayloadTooLargeException.class, () -> wireFormat.fromBody(cbor("a1 64 636f6465 79 044c"
+            + String.join("", Collections.nCopies(1100, "78"))), CurrencyDTO.class));
+    }
+
+    @Test
+    public void rejectsBodiesThatEndEarlyOrCannotBeRead() {
+        assertThrows(BadSyntaxException.class, () -> wireFormat.fromBody(json("{\"code\":"), CurrencyDTO.class));
+
+        InputStream failing = new SequenceInputStream(
+            new ByteArrayInputStream("{\"code\":\"E".getBytes(StandardCharsets.UTF_8)),
+            new InputStream() {
+                @Override
+                public int read() throws IOException {
+                    throw new IOException("Connection reset");
+                }
+            });
+        assertThrows(BadSyntaxException.class, () -> wireFormat.fromBody(json("").body(failing), CurrencyDTO.class));
+
+        // Malformed JSON is still a syntax error rather than an unreadable body
+        assertThrows(JsonSyntaxException.class, () -> wireFormat.fromBody(json("{\"code\" \"EUR\"}"),
+            CurrencyDTO.class));
+    }
+
+    @Test
+    public void limitsDepth() {
+        String nested = String.join("", Collections.nCopies(8, "[")) + String.join("", Collections.nCopies(8, "]"));
+        assertThrows(BadSyntaxException.class, () -> wireFormat.fromBody(json("{\"extra\":" + nested + "}"),
+            CurrencyDTO.class));
+        assertThrows(BadSyntaxException.class, () -> wireFormat.fromBody(cbor("a1 65 6578747261"
+            + String.join("", Collections.nCopies(8, "81")) + "00"), CurrencyDTO.class));
+    }
+
+    /**
+     * Builds a JSON currency whose code pads the body to a length.
+     */
+    private static String currencyJson(int length) {
+        return "{\"code\":\"" + String.join("", Collections.nCopies(length - 11, "x")) + "\"}";
+    }
+
+    static FakeRequest cbor(String hex) {
+        String digits = hex.replace(" ", "");
+        byte[] body = new byte[digits.length() / 2];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) Integer.parseInt(digits.substring(i * 2, i * 2 + 2), 16);
+        }
+        return new FakeRequest(body).header("Content-Type", WireFormat.CBOR);
+    }
+
+    static FakeRequest json(String json) {
+        return new FakeRequest(json.getBytes(StandardCharsets.UTF_8)).header("Content-Type", WireFormat.JSON);
+    }
+
+    /**
+     * A request with only headers and a body, which is all that reading a body needs.
+     */
+    static class FakeRequest implements ApiRequest {
+        private final Map<String, String> headers = new HashMap<>();
+        private final Map<String, Object> attributes = new HashMap<>();
+        private InputStream body;
+
+        FakeRequest(byte[] body) {
+            this.body = new ByteArrayInputStream(body);
+        }
+
+        FakeRequest header(String name, String value) {
+            headers.put(name, value);
+            return this;
+        }
+
+        FakeRequest body(InputStream body) {
+            this.body = body;
+            return this;
+        }
+
+        @Override
+        public String method() {
+            return "POST";
+        }
+
+        @Override
+        public String path() {
+            return "/";
+        }
+
+        @Override
+        public String param(String name) {
+            return null;
+        }
+
+        @Override
+        public String queryParam(String name) {
+            return null;
+        }
+
+        @Override
+        public String header(String name) {
+            return headers.get(name);
+        }
+
+        @Override
+        public String body() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public InputStream bodyStream() {
+            return body;
+        }
+
+        @Override
+        public String ip() {
+            return "127.0.0.1";
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T attribute(String name) {
+            return (T) attributes.get(name);
+        }
+
+        @Override
+        public void attribute(String name, Object value) {
+            attributes.put(name, value);
+        }
+    }
+}
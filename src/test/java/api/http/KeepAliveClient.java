@@ -0,0 +1,83 @@
+package api.http;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A minimal HTTP/1.1 client for benchmarks, which sends the same GET request over one persistent connection and reads
+ * each response in full. It does as little work as possible, so that a benchmark measures the server.
+ */
+public class KeepAliveClient implements Closeable {
+    private final Socket socket;
+    private final OutputStream out;
+    private final InputStream in;
+    private final byte[] request;
+
+    /**
+     * Opens a connection to a local server.
+     *
+     * @param port The port of the server.
+     * @param path The path to request.
+     * @throws IOException If the connection could not be opened.
+     */
+    public KeepAliveClient(int port, String path) throws IOException {
+        socket = new Socket("127.0.0.1", port);
+        socket.setTcpNoDelay(true);
+        out = socket.getOutputStream();
+        in = new BufferedInputStream(socket.getInputStream());
+        request = ("GET " + path + " HTTP/1.1\r\nHost: 127.0.0.1\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Sends the request and reads the whole response, which must have a Content-Length.
+     *
+     * @return The length of the response body.
+     * @throws IOException If the connection failed or the response has no Content-Length.
+     */
+    public int roundTrip() throws IOException {
+        out.write(request);
+        out.flush();
+
+        int contentLength = -1;
+        StringBuilder line = new StringBuilder();
+        while (true) {
+            int c = in.read();
+            if (c < 0) {
+                throw new IOException("Connection closed");
+            }
+            if (c != '\n') {
+                if (c != '\r') {
+                    line.append((char) c);
+                }
+                continue;
+            }
+            if (line.length() == 0) {
+                break;
+            }
+            String header = line.toString();
+            if (header.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                contentLength = Integer.parseInt(header.substring(15).trim());
+            }
+            line.setLength(0);
+        }
+        if (contentLength < 0) {
+            throw new IOException("Response has no Content-Length");
+        }
+        for (int i = 0; i < contentLength; i++) {
+            if (in.read() < 0) {
+                throw new IOException("Connection closed");
+            }
+        }
+        return contentLength;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
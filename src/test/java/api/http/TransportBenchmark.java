@@ -0,0 +1,133 @@
+package api.http;
+
+import api.http.jdk.JdkHttpTransport;
+import api.http.spark.SparkTransport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import spark.Spark;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the round trip of a small request through Spark on Jetty and through the JDK's HTTP server. Both serve
+ * the same route behind a before filter, with the same number of handler threads, and are driven over persistent
+ * connections by a minimal HTTP/1.1 client, so the measurement is dominated by the server side. Each transport runs in
+ * its own fork, as Spark is a static singleton. Throughput is measured in requests per second, and latency as the
+ * distribution of single round trips, whose percentiles JMH prints.
+ * <p>
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=TransportBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransportBenchmark {
+    @Param({"spark", "jdk"})
+    private String transport;
+
+    private int port;
+    private ExecutorService executor;
+
+    private static final int THREADS = 8;
+    private static final String BODY = "{\"id\":42,\"firstName\":\"Ada\",\"lastName\":\"Lovelace\"}";
+
+    @Setup
+    public void setUp() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        HttpTransport server;
+        if ("jdk".equals(transport)) {
+            executor = Executors.newFixedThreadPool(THREADS);
+            server = new JdkHttpTransport("127.0.0.1", port, executor);
+        } else {
+            Spark.ipAddress("127.0.0.1");
+            Spark.port(port);
+            Spark.threadPool(THREADS, THREADS, 60_000);
+            server = new SparkTransport();
+        }
+        server.before("/loanApplicants/*", (request, response) -> response.header("X-Filtered", "true"));
+        server.get("/loanApplicants/:id", (request, response) -> {
+            // Written with its length, as WireFormat writes bodies
+            byte[] body = BODY.replace("42", request.param(":id")).getBytes(StandardCharsets.UTF_8);
+            response.header("content-type", "application/json");
+            response.contentLength(body.length);
+            response.outputStream().write(body);
+            return "";
+        });
+        server.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        } else {
+            Spark.stop();
+        }
+    }
+
+    /**
+     * A persistent connection to the server, one per benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Connection {
+        private KeepAliveClient client;
+
+        @Setup(Level.Trial)
+        public void open(TransportBenchmark benchmark) throws IOException {
+            client = new KeepAliveClient(benchmark.port, "/loanApplicants/42");
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws IOException {
+            client.close();
+        }
+    }
+
+    @Benchmark
+    public int roundTrip(Connection connection) throws IOException {
+        return connection.client.roundTrip();
+    }
+
+    @Benchmark
+    @Threads(THREADS)
+    public int roundTripConcurrent(Connection connection) throws IOException {
+        return connection.client.roundTrip();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int roundTripLatency(Connection connection) throws IOException {
+        return connection.client.roundTrip();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Threads(THREADS)
+    public int roundTripConcurrentLatency(Connection connection) throws IOException {
+        return connection.client.roundTrip();
+    }
+}
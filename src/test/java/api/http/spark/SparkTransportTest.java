@@ -0,0 +1,84 @@
+package api.http.spark;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import spark.Spark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+
+import static org.junit.Assert.assertEquals;
+
+public class SparkTransportTest {
+    private static int port;
+
+    @BeforeClass
+    public static void startServer() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        Spark.ipAddress("127.0.0.1");
+        Spark.port(port);
+
+        SparkTransport transport = new SparkTransport();
+        transport.before("/items/*", (request, response) -> request.attribute("filtered", request));
+        transport.get("/items/:id", (request, response) ->
+            request.param(":id") + " " + (request.attribute("filtered") == request));
+        transport.get("/written", (request, response) -> {
+            response.outputStream().write("written".getBytes(StandardCharsets.UTF_8));
+            return null;
+        });
+        transport.afterAfter((request, response) -> response.header("X-After", request.param(":id")));
+        transport.start();
+    }
+
+    @AfterClass
+    public static void stopServer() {
+        Spark.stop();
+        Spark.awaitStop();
+    }
+
+    @Test
+    public void filtersAndRouteShareTheWrappersOfAnExchange() throws IOException {
+        HttpURLConnection connection = get("/items/7");
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("7 true", read(connection));
+    }
+
+    @Test
+    public void wrappersSeeTheParamsOfTheMatchInHand() throws IOException {
+        HttpURLConnection connection = get("/items/8");
+        assertEquals("8 true", read(connection));
+        // The after-after filter has no route params of its own
+        assertEquals(null, connection.getHeaderField("X-After"));
+    }
+
+    @Test
+    public void exchangesDoNotShareWrappers() throws IOException {
+        assertEquals("1 true", read(get("/items/1")));
+        assertEquals("2 true", read(get("/items/2")));
+    }
+
+    @Test
+    public void routesMayWriteTheirBodyAndReturnNull() throws IOException {
+        HttpURLConnection connection = get("/written");
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("written", read(connection));
+    }
+
+    private static HttpURLConnection get(String path) throws IOException {
+        return (HttpURLConnection) new URL("http://127.0.0.1:" + port + path).openConnection();
+    }
+
+    private static String read(HttpURLConnection connection) throws IOException {
+        try (InputStream in = connection.getInputStream(); Scanner scanner = new Scanner(in, "UTF-8")) {
+            return scanner.useDelimiter("\\A").next();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package api.server;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of taking a token from the rate limiter, for one hot client and for requests spread over many
+ * clients, on one thread and on several threads contending for the same limiter. The rate is high enough that every
+ * request is allowed, so the benchmark measures the allowed path, which is what every request pays.
+ * <p>
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=RateLimiterBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+    @Param({"1", "10000"})
+    private int clients;
+
+    private RateLimiter limiter;
+    private String[] clientKeys;
+
+    @Setup
+    public void setUp() {
+        limiter = new RateLimiter("/loans", 1_000_000_000L, 1_000_000L, 60_000);
+        clientKeys = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            clientKeys[i] = "ip:10.0." + (i / 256) + "." + (i % 256);
+        }
+    }
+
+    /**
+     * The position of a thread in the list of clients, so that threads take turns over the clients.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+
+    @Benchmark
+    public RateLimiter.Bucket tryAcquire(Cursor cursor) {
+        String client = clientKeys[cursor.next++ % clients];
+        return limiter.tryAcquire(client, System.nanoTime());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public RateLimiter.Bucket tryAcquireContended(Cursor cursor) {
+        String client = clientKeys[cursor.next++ % clients];
+        return limiter.tryAcquire(client, System.nanoTime());
+    }
+}
@@ -0,0 +1,77 @@
+package api.server;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class RateLimiterTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void allowsBurstThenRejects() {
+        RateLimiter limiter = new RateLimiter("/loans", 1, 3, 60_000);
+        long now = 1_000 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertNotNull(limiter.tryAcquire("a", now));
+        }
+        assertNull(limiter.tryAcquire("a", now));
+        assertNotNull(limiter.tryAcquire("b", now));
+    }
+
+    @Test
+    public void refillsAtRate() {
+        RateLimiter limiter = new RateLimiter("/loans", 2, 1, 60_000);
+        long now = 1_000 * SECOND;
+        assertNotNull(limiter.tryAcquire("a", now));
+        assertNull(limiter.tryAcquire("a", now + SECOND / 4));
+        assertNotNull(limiter.tryAcquire("a", now + SECOND / 2));
+    }
+
+    @Test
+    public void countsRemainingTokens() {
+        RateLimiter limiter = new RateLimiter("/loans", 1, 3, 60_000);
+        long now = 1_000 * SECOND;
+        assertEquals(2, limiter.tryAcquire("a", now).getRemaining());
+        assertEquals(1, limiter.tryAcquire("a", now).getRemaining());
+        assertEquals(0, limiter.tryAcquire("a", now).getRemaining());
+    }
+
+    @Test
+    public void resetIsTimeUntilFullWhetherAllowedOrRejected() {
+        RateLimiter limiter = new RateLimiter("/loans", 1, 3, 60_000);
+        long now = 1_000 * SECOND;
+        assertEquals(SECOND, limiter.tryAcquire("a", now).getResetNanos());
+        assertEquals(2 * SECOND, limiter.tryAcquire("a", now).getResetNanos());
+        RateLimiter.Bucket last = limiter.tryAcquire("a", now);
+        assertEquals(3 * SECOND, last.getResetNanos());
+
+        // Rejected: the bucket is still full in three seconds, but the next token is available in one
+        assertNull(limiter.tryAcquire("a", now));
+        assertEquals(3 * SECOND, limiter.resetNanos("a", now));
+        assertEquals(SECOND, limiter.waitNanos("a", now));
+    }
+
+    @Test
+    public void unknownClientIsFull() {
+        RateLimiter limiter = new RateLimiter("/loans", 1, 3, 60_000);
+        assertEquals(0, limiter.resetNanos("a", 0));
+        assertEquals(0, limiter.waitNanos("a", 0));
+    }
+
+    @Test
+    public void snapshotCountsClientsAndOutcomes() {
+        RateLimiter limiter = new RateLimiter("/loans", 1, 1, 60_000);
+        long now = 1_000 * SECOND;
+        limiter.tryAcquire("a", now);
+        limiter.tryAcquire("a", now);
+        limiter.tryAcquire("b", now);
+        RateLimiter.Snapshot snapshot = limiter.snapshot();
+        assertEquals(2, snapshot.getClients());
+        assertEquals(2, snapshot.getAllowed());
+        assertEquals(1, snapshot.getRejected());
+    }
+}
@@ -0,0 +1,215 @@
+package api.server;
+
+import api.http.ApiResponse;
+import api.http.HttpTransport;
+import api.http.KeepAliveClient;
+import api.http.jdk.JdkHttpTransport;
+import api.http.spark.SparkTransport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import spark.Spark;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares handling requests on platform threads and on virtual threads, with the default pool sizes, when every
+ * request blocks as it would on a slow JDBC call. Many clients send requests over their own persistent connections:
+ * <ul>
+ * <li>blocking: each request sleeps, which unmounts a virtual thread from its carrier.</li>
+ * <li>pinned: each request sleeps while holding a monitor, as the MySQL driver does in its synchronized methods,
+ * which pins a virtual thread to its carrier for the whole call.</li>
+ * </ul>
+ * Virtual threads need JDK 21, so run the forks on one, e.g.:
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark="ServerThreadPoolBenchmark -jvm /path/to/jdk-21/bin/java"
+ * <p>
+ * Spark only runs on virtual threads from JDK 24 (see {@link ServerThreadPool}), so its virtual runs fail on older JVMs
+ * rather than measure platform threads.
+ */
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServerThreadPoolBenchmark {
+    @Param({"spark", "jdk"})
+    private String transport;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    private int port;
+    private ExecutorService executor;
+    private final AtomicInteger clients = new AtomicInteger();
+
+    private static final int CLIENTS = 500;
+    private static final int PINNED_CLIENTS = 50;
+    private static final long BLOCK_MILLIS = 50;
+    private static final int MIN_THREADS = 8;
+    private static final int MAX_THREADS = 200;
+    private static final int VIRTUAL_MAX_THREADS = 10_000;
+    private static final int IDLE_TIMEOUT = 60_000;
+    private static final byte[] BODY = "{\"id\":42}".getBytes(StandardCharsets.UTF_8);
+    private static final Object[] MONITORS = new Object[CLIENTS];
+
+    static {
+        for (int i = 0; i < MONITORS.length; i++) {
+            MONITORS[i] = new Object();
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        boolean virtual = "virtual".equals(threads);
+        if (virtual && !supportsVirtualThreads()) {
+            throw new IllegalStateException("Virtual threads need JDK 21, pass -jvm with the path to its java");
+        }
+        if (virtual && "spark".equals(transport) && javaVersion() < 24) {
+            throw new IllegalStateException("Spark falls back to platform threads before JDK 24");
+        }
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        HttpTransport server;
+        if ("jdk".equals(transport)) {
+            // The JDK server closes idle keep-alive connections beyond 200, which would close clients between requests
+            System.setProperty("sun.net.httpserver.maxIdleConnections", Integer.toString(CLIENTS));
+            executor = ServerThreadPool.createExecutor(virtual, MAX_THREADS, VIRTUAL_MAX_THREADS, IDLE_TIMEOUT);
+            server = new JdkHttpTransport("127.0.0.1", port, executor);
+        } else {
+            Spark.ipAddress("127.0.0.1");
+            Spark.port(port);
+            ServerThreadPool.configure(virtual, MIN_THREADS, MAX_THREADS, VIRTUAL_MAX_THREADS, IDLE_TIMEOUT);
+            server = new SparkTransport();
+        }
+        server.get("/blocking/:id", (request, response) -> {
+            Thread.sleep(BLOCK_MILLIS);
+            return write(response);
+        });
+        server.get("/pinned/:id", (request, response) -> {
+            // Each client has its own monitor, so requests pin their thread without waiting for each other
+            synchronized (MONITORS[Integer.parseInt(request.param(":id"))]) {
+                Thread.sleep(BLOCK_MILLIS);
+            }
+            return write(response);
+        });
+        server.start();
+    }
+
+    private static Object write(ApiResponse response) throws IOException {
+        response.contentLength(BODY.length);
+        response.outputStream().write(BODY);
+        return "";
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        } else {
+            Spark.stop();
+        }
+    }
+
+    private int nextClient() {
+        return clients.getAndIncrement() % CLIENTS;
+    }
+
+    private static int javaVersion() {
+        String version = System.getProperty("java.specification.version");
+        return Integer.parseInt(version.startsWith("1.") ? version.substring(2) : version);
+    }
+
+    private static boolean supportsVirtualThreads() {
+        try {
+            Thread.class.getMethod("ofVirtual").invoke(null);
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * The persistent connection of a client thread to the blocking route, with its own client number.
+     */
+    @State(Scope.Thread)
+    public static class BlockingClient {
+        private KeepAliveClient client;
+
+        @Setup(Level.Trial)
+        public void open(ServerThreadPoolBenchmark benchmark) throws IOException {
+            client = new KeepAliveClient(benchmark.port, "/blocking/" + benchmark.nextClient());
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws IOException {
+            client.close();
+        }
+    }
+
+    /**
+     * The persistent connection of a client thread to the pinned route, with its own client number.
+     */
+    @State(Scope.Thread)
+    public static class PinnedClient {
+        private KeepAliveClient client;
+
+        @Setup(Level.Trial)
+        public void open(ServerThreadPoolBenchmark benchmark) throws IOException {
+            client = new KeepAliveClient(benchmark.port, "/pinned/" + benchmark.nextClient());
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws IOException {
+            client.close();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(CLIENTS)
+    public int blocking(BlockingClient client) throws IOException {
+        return client.client.roundTrip();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Threads(CLIENTS)
+    public int blockingLatency(BlockingClient client) throws IOException {
+        return client.client.roundTrip();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(PINNED_CLIENTS)
+    public int pinned(PinnedClient client) throws IOException {
+        return client.client.roundTrip();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Threads(PINNED_CLIENTS)
+    public int pinnedLatency(PinnedClient client) throws IOException {
+        return client.client.roundTrip();
+    }
+}
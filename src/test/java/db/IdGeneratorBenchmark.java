@@ -0,0 +1,126 @@
+package db;
+
+import db.model.Currency;
+import db.model.IncomeSource;
+import db.model.LoanApplicant;
+import db.model.RecurringExpense;
+import defs.enums.AcceptedCurrency;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.DatabaseVersion;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares saving an applicant graph, i.e. an applicant with its income sources and recurring expenses, in one
+ * transaction as the DAOs do, with IDs generated by the database on insert (IDENTITY, as before the pooled sequences)
+ * and with the pooled, table-backed sequences and JDBC batching the entities are mapped with now.
+ * <p>
+ * The graphs are saved to an in-memory H2 database in MySQL mode through the MySQL dialect, so sequences are emulated
+ * with tables as on MySQL. There is no network between H2 and the benchmark, so the statements saved per graph are a
+ * better guide to a real MySQL server than the time saved.
+ * <p>
+ * Besides graphs per second, each run prints the JDBC statements prepared per graph. Each is one round trip to MySQL,
+ * as batches are rewritten into one multi-row insert. Blocks of sequence IDs are fetched on a connection of their own
+ * and not counted, which adds two statements per 50 IDs of a table.
+ * <p>
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=IdGeneratorBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 10, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdGeneratorBenchmark {
+    @Param({"identity", "sequence"})
+    private String ids;
+
+    private static final String IDENTITY_MAPPING = "db/identity-orm.xml";
+    private static final int CHILDREN = 3;
+    private static final int BATCH_SIZE = 50;
+
+    private SessionFactory sessionFactory;
+    private Currency currency;
+
+    @Setup
+    public void setUp() {
+        // Each run gets its own database, so that the IDENTITY columns and sequence tables start afresh
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+            .applySetting(AvailableSettings.URL, "jdbc:h2:mem:" + ids + ";MODE=MySQL;DB_CLOSE_DELAY=-1")
+            .applySetting(AvailableSettings.DIALECT, new MySQLDialect(DatabaseVersion.make(8)))
+            .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-only")
+            .applySetting("hibernate.javax.cache.missing_cache_strategy", "create")
+            .applySetting(AvailableSettings.ORDER_INSERTS, true)
+            .applySetting(AvailableSettings.BATCH_VERSIONED_DATA, true)
+            .applySetting(AvailableSettings.STATEMENT_BATCH_SIZE, ids.equals("sequence") ? BATCH_SIZE : 0)
+            .applySetting(AvailableSettings.GENERATE_STATISTICS, true)
+            .build();
+
+        MetadataSources metadataSources = new MetadataSources(registry)
+            .addAnnotatedClass(Currency.class)
+            .addAnnotatedClass(LoanApplicant.class)
+            .addAnnotatedClass(IncomeSource.class)
+            .addAnnotatedClass(RecurringExpense.class);
+        if (ids.equals("identity")) {
+            metadataSources.addResource(IDENTITY_MAPPING);
+        }
+        sessionFactory = metadataSources.buildMetadata().buildSessionFactory();
+
+        currency = new Currency(AcceptedCurrency.EURO);
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            session.persist(currency);
+            transaction.commit();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        Statistics statistics = sessionFactory.getStatistics();
+        System.out.printf("%n%s: %.2f statements per graph%n", ids,
+            (double) statistics.getPrepareStatementCount() / statistics.getTransactionCount());
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public LoanApplicant saveGraph() {
+        LoanApplicant applicant = new LoanApplicant("Jane", "Doe", LocalDate.of(1990, 1, 31), "0612345678",
+            "jane.doe@example.com", new ArrayList<>(CHILDREN), new ArrayList<>(CHILDREN));
+        List<IncomeSource> incomeSources = applicant.getIncomeSources();
+        List<RecurringExpense> recurringExpenses = applicant.getRecurringExpenses();
+        for (int i = 0; i < CHILDREN; i++) {
+            incomeSources.add(new IncomeSource(applicant, "Salary", 2500, currency));
+            recurringExpenses.add(new RecurringExpense(applicant, "Rent", 900, currency));
+        }
+
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            session.persist(applicant);
+            transaction.commit();
+        }
+        return applicant;
+    }
+}
@@ -0,0 +1,96 @@
+package util.cbor;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import defs.dto.IncomeSourceDTO;
+import defs.dto.LoanApplicantDTO;
+import defs.dto.RecurringExpenseDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import util.typeadapters.DTOTypeAdapterFactory;
+import util.typeadapters.LocalDateTypeAdapter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares writing and reading a page of loan applicants, with their income sources and recurring expenses, as CBOR
+ * and as UTF-8 JSON, both through the DTO adapters and between byte streams as the API does. The size of each encoding
+ * is printed on setup.
+ * <p>
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=CborBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CborBenchmark {
+    @Param({"cbor", "json"})
+    private String format;
+
+    private static final Type PAGE_TYPE = new TypeToken<List<LoanApplicantDTO>>() { }.getType();
+    private static final int PAGE_SIZE = 100;
+
+    private final Gson gson = new GsonBuilder().registerTypeAdapter(LocalDate.class, new LocalDateTypeAdapter())
+        .registerTypeAdapterFactory(new DTOTypeAdapterFactory()).create();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+    private List<LoanApplicantDTO> page;
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws IOException {
+        page = new ArrayList<>(PAGE_SIZE);
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            page.add(new LoanApplicantDTO(id, "First" + id, "Last" + id, LocalDate.of(1980, 1, 1).plusDays(id),
+                "+3567912" + id, "applicant" + id + "@example.com",
+                Arrays.asList(new IncomeSourceDTO(id * 2, id, "Salary", 2500 + id, "EUR"),
+                    new IncomeSourceDTO(id * 2 + 1, id, "Rental", 400.5, "EUR")),
+                Arrays.asList(new RecurringExpenseDTO(id, id, "Rent", 900, "EUR"))));
+        }
+        write();
+        body = out.toByteArray();
+        System.out.println(format + ": " + body.length + " bytes");
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        out.reset();
+        JsonWriter writer = format.equals("cbor") ? new CborWriter(out)
+            : new JsonWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        gson.toJson(page, PAGE_TYPE, writer);
+        writer.flush();
+        return out.size();
+    }
+
+    @Benchmark
+    public List<LoanApplicantDTO> read() {
+        ByteArrayInputStream in = new ByteArrayInputStream(body);
+        JsonReader reader = format.equals("cbor") ? new CborReader(in)
+            : new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        return gson.fromJson(reader, PAGE_TYPE);
+    }
+}
@@ -0,0 +1,176 @@
+package util.cbor;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+import defs.dto.LoanDTO;
+import org.junit.Test;
+import util.typeadapters.DTOTypeAdapterFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class CborReaderTest {
+    private final Gson gson = new GsonBuilder().registerTypeAdapterFactory(new DTOTypeAdapterFactory()).create();
+
+    @Test
+    public void readsDefiniteLengths() throws IOException {
+        // {"id": 1, "currency": "EUR", "valueOfPurchase": 1.5}
+        LoanDTO loan = gson.fromJson(reader("a3 62 6964 01 68 63757272656e6379 63 455552"
+            + " 6f 76616c75654f665075726368617365 f9 3e00"), LoanDTO.class);
+        assertEquals(new LoanDTO(1L, null, null, 1.5, "EUR"), loan);
+    }
+
+    @Test
+    public void readsIndefiniteLengths() throws IOException {
+        // {_ "ids": [_ 1, 2], "text": (_ "ab", "c")}
+        CborReader reader = reader("bf 63 696473 9f 01 02 ff 64 74657874 7f 62 6162 61 63 ff ff");
+        reader.beginObject();
+        assertEquals("ids", reader.nextName());
+        reader.beginArray();
+        assertEquals(1, reader.nextInt());
+        assertEquals(2, reader.nextInt());
+        assertFalse(reader.hasNext());
+        reader.endArray();
+        assertEquals("text", reader.nextName());
+        assertEquals("abc", reader.nextString());
+        reader.endObject();
+        assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    public void skipsTags() throws IOException {
+        // [1(16), 32(24("abc"))]
+        CborReader reader = reader("82 c1 1a 00000010 d8 20 d8 18 63 616263");
+        reader.beginArray();
+        assertEquals(16, reader.nextLong());
+        assertEquals("abc", reader.nextString());
+        reader.endArray();
+        assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    public void readsNumbers() throws IOException {
+        CborReader reader = reader("88 17 18 ff 39 01 00 1b 7fffffffffffffff f9 7c00 fa 3fc00000"
+            + " 1b ffffffffffffffff 3b ffffffffffffffff");
+        reader.beginArray();
+        assertEquals(23, reader.nextInt());
+        assertEquals(255, reader.nextInt());
+        assertEquals(-257, reader.nextLong());
+        assertEquals(Long.MAX_VALUE, reader.nextLong());
+        assertEquals(Double.POSITIVE_INFINITY, reader.nextDouble(), 0);
+        assertEquals(1.5, reader.nextDouble(), 0);
+        assertEquals("18446744073709551615", reader.nextString());
+        assertEquals("-18446744073709551616", reader.nextString());
+        reader.endArray();
+    }
+
+    @Test
+    public void skipsNestedValues() throws IOException {
+        // {"a": [{"b": (_ "c")}, null, true], "d": 4}
+        CborReader reader = reader("a2 61 61 83 a1 61 62 7f 61 63 ff f6 f5 61 64 04");
+        reader.beginObject();
+        assertEquals("a", reader.nextName());
+        reader.skipValue();
+        assertEquals("d", reader.nextName());
+        assertEquals(4, reader.nextInt());
+        reader.endObject();
+    }
+
+    @Test
+    public void rejectsTruncatedInput() throws IOException {
+        // A map of two entries with one
+        CborReader map = reader("a2 62 6964 01");
+        map.beginObject();
+        map.nextName();
+        map.nextLong();
+        assertThrows(EOFException.class, map::hasNext);
+
+        // Text of five bytes with two, and an argument missing a byte
+        assertThrows(EOFException.class, () -> reader("65 6162").nextString());
+        assertThrows(EOFException.class, () -> reader("19 01").peek());
+
+        // An indefinite array without its break
+        CborReader array = reader("9f 01");
+        array.beginArray();
+        array.nextInt();
+        assertThrows(EOFException.class, array::hasNext);
+    }
+
+    @Test
+    public void rejectsOverLongLengths() throws IOException {
+        // Text claiming 2^63 - 1 bytes must fail at the end of the input, not allocate its length
+        assertThrows(EOFException.class, () -> reader("7b 7fffffffffffffff 6162").nextString());
+        assertThrows(MalformedJsonException.class, () -> reader("7b 8000000000000000").nextString());
+
+        CborReader array = reader("9b 7fffffffffffffff 01");
+        array.beginArray();
+        array.nextInt();
+        assertThrows(EOFException.class, array::hasNext);
+
+        assertThrows(MalformedJsonException.class, () -> reader("bb 4000000000000000").beginObject());
+        assertThrows(MalformedJsonException.class, () -> reader("1c").peek());
+    }
+
+    @Test
+    public void limitsDepth() throws IOException {
+        CborReader allowed = new CborReader(stream("81 81 00"), 2);
+        allowed.beginArray();
+        allowed.beginArray();
+        assertEquals(0, allowed.nextInt());
+
+        CborReader tooDeep = new CborReader(stream("81 81 81 00"), 2);
+        tooDeep.beginArray();
+        tooDeep.beginArray();
+        assertThrows(MalformedJsonException.class, tooDeep::beginArray);
+    }
+
+    @Test
+    public void rejectsWhatJsonCannotHold() {
+        assertThrows(MalformedJsonException.class, () -> reader("41 00").peek());
+        assertThrows(MalformedJsonException.class, () -> reader("ff").peek());
+        assertThrows(MalformedJsonException.class, () -> reader("e0").peek());
+        assertThrows(MalformedJsonException.class, () -> {
+            CborReader reader = reader("a1 01 02");
+            reader.beginObject();
+            reader.peek();
+        });
+        assertThrows(MalformedJsonException.class, () -> reader("7f 41 00 ff").nextString());
+    }
+
+    @Test
+    public void peeksPastTheTopLevelItem() throws IOException {
+        CborReader single = reader("01");
+        single.nextInt();
+        assertEquals(JsonToken.END_DOCUMENT, single.peek());
+        assertFalse(single.hasNext());
+
+        CborReader trailing = reader("01 02");
+        trailing.nextInt();
+        assertTrue(trailing.hasNext());
+    }
+
+    private static CborReader reader(String hex) {
+        return new CborReader(stream(hex));
+    }
+
+    static ByteArrayInputStream stream(String hex) {
+        return new ByteArrayInputStream(bytes(hex));
+    }
+
+    static byte[] bytes(String hex) {
+        String digits = hex.replace(" ", "");
+        byte[] bytes = new byte[digits.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(digits.substring(i * 2, i * 2 + 2), 16);
+        }
+        return bytes;
+    }
+}
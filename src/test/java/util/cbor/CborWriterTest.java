@@ -0,0 +1,118 @@
+package util.cbor;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
+import defs.dto.IncomeSourceDTO;
+import defs.dto.LoanApplicantDTO;
+import defs.dto.LoanDTO;
+import defs.dto.RecurringExpenseDTO;
+import org.junit.Test;
+import util.typeadapters.DTOTypeAdapterFactory;
+import util.typeadapters.LocalDateTypeAdapter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class CborWriterTest {
+    private final Gson gson = new GsonBuilder().registerTypeAdapter(LocalDate.class, new LocalDateTypeAdapter())
+        .registerTypeAdapterFactory(new DTOTypeAdapterFactory()).create();
+
+    @Test
+    public void writesIntegersInTheirShortestForm() throws IOException {
+        assertWrites("00", writer -> writer.value(0));
+        assertWrites("17", writer -> writer.value(23));
+        assertWrites("18 18", writer -> writer.value(24));
+        assertWrites("19 0100", writer -> writer.value(256));
+        assertWrites("1a 00010000", writer -> writer.value(65536));
+        assertWrites("1b 0000000100000000", writer -> writer.value(1L << 32));
+        assertWrites("20", writer -> writer.value(-1));
+        assertWrites("38 18", writer -> writer.value(-25));
+        assertWrites("3b 7fffffffffffffff", writer -> writer.value(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void writesDoublesAsFloatsWhenExact() throws IOException {
+        assertWrites("fa 3fc00000", writer -> writer.value(1.5));
+        assertWrites("fb 3fb999999999999a", writer -> writer.value(0.1));
+        assertWrites("0c", writer -> writer.value(Integer.valueOf(12)));
+        assertThrows(IllegalArgumentException.class, () -> new CborWriter(new ByteArrayOutputStream())
+            .value(Double.NaN));
+    }
+
+    @Test
+    public void writesIndefiniteLengthsAndLeavesOutNulls() throws IOException {
+        assertWrites("bf 61 62 9f 62 c3a9 f5 ff ff", writer -> {
+            writer.setSerializeNulls(false);
+            writer.beginObject()
+                .name("a").nullValue()
+                .name("b").beginArray().value("\u00e9").value(true).endArray()
+                .endObject();
+        });
+        assertWrites("bf 61 61 f6 ff", writer -> writer.beginObject().name("a").nullValue().endObject());
+    }
+
+    @Test
+    public void roundTripsDTOs() throws IOException {
+        LoanApplicantDTO applicant = new LoanApplicantDTO(1L, "Zo\u00eb", "\ud83d\ude00", LocalDate.of(1990, 2, 28),
+            null, "zoe@example.com",
+            Collections.singletonList(new IncomeSourceDTO(2L, 1L, "Salary", 2500.75, "EUR")),
+            Arrays.asList(new RecurringExpenseDTO(3L, 1L, "Rent", 900, "EUR"),
+                new RecurringExpenseDTO(4L, 1L, "Car", 0.1, "EUR")));
+        LoanApplicantDTO read = roundTrip(applicant, LoanApplicantDTO.class);
+        assertEquals(gson.toJson(applicant), gson.toJson(read));
+    }
+
+    @Test
+    public void roundTripsAcrossBufferBoundaries() throws IOException {
+        // Enough items and long enough text that heads and text are split between reads of the stream
+        List<LoanDTO> loans = new ArrayList<>();
+        char[] longText = new char[20_000];
+        Arrays.fill(longText, '\u00e9');
+        for (long id = 0; id < 2_000; id++) {
+            loans.add(new LoanDTO(id, Long.MAX_VALUE - id, id == 1_000 ? new String(longText) : "HOME", -id / 3.0,
+                "EUR"));
+        }
+        Type type = new TypeToken<List<LoanDTO>>() { }.getType();
+        assertEquals(loans, roundTrip(loans, type));
+    }
+
+    private <T> T roundTrip(Object value, Type type) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CborWriter writer = new CborWriter(out)) {
+            gson.toJson(value, type, writer);
+        }
+        // One byte at a time, as a slow client would send it
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray()) {
+            @Override
+            public synchronized int read(byte[] buffer, int offset, int length) {
+                return super.read(buffer, offset, Math.min(length, 1));
+            }
+        };
+        return gson.fromJson(new CborReader(in), type);
+    }
+
+    private static void assertWrites(String hex, Write write) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CborWriter writer = new CborWriter(out);
+        write.to(writer);
+        writer.flush();
+        assertArrayEquals(CborReaderTest.bytes(hex), out.toByteArray());
+    }
+
+    private interface Write {
+        void to(JsonWriter writer) throws IOException;
+    }
+}
@@ -0,0 +1,79 @@
+package util.typeadapters;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import defs.dto.IncomeSourceDTO;
+import defs.dto.LoanApplicantDTO;
+import defs.dto.RecurringExpenseDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares writing and reading a page of loan applicants, with their income sources and recurring expenses, through
+ * the hand-written DTO adapters and through Gson's reflective adapters.
+ * <p>
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=DTOSerializationBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DTOSerializationBenchmark {
+    @Param({"adapters", "reflection"})
+    private String adapters;
+
+    private static final Type PAGE_TYPE = new TypeToken<List<LoanApplicantDTO>>() { }.getType();
+    private static final int PAGE_SIZE = 100;
+
+    private Gson gson;
+    private List<LoanApplicantDTO> page;
+    private String json;
+
+    @Setup
+    public void setUp() {
+        GsonBuilder builder = new GsonBuilder().registerTypeAdapter(LocalDate.class, new LocalDateTypeAdapter());
+        if (adapters.equals("adapters")) {
+            builder.registerTypeAdapterFactory(new DTOTypeAdapterFactory());
+        }
+        gson = builder.create();
+
+        page = new ArrayList<>(PAGE_SIZE);
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            page.add(new LoanApplicantDTO(id, "First" + id, "Last" + id, LocalDate.of(1980, 1, 1).plusDays(id),
+                "+3567912" + id, "applicant" + id + "@example.com",
+                Arrays.asList(new IncomeSourceDTO(id * 2, id, "Salary", 2500 + id, "EUR"),
+                    new IncomeSourceDTO(id * 2 + 1, id, "Rental", 400.5, "EUR")),
+                Arrays.asList(new RecurringExpenseDTO(id, id, "Rent", 900, "EUR"))));
+        }
+        json = gson.toJson(page, PAGE_TYPE);
+    }
+
+    @Benchmark
+    public String write() {
+        return gson.toJson(page, PAGE_TYPE);
+    }
+
+    @Benchmark
+    public List<LoanApplicantDTO> read() {
+        return gson.fromJson(json, PAGE_TYPE);
+    }
+}
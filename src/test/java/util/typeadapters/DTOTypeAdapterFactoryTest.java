@@ -0,0 +1,140 @@
+package util.typeadapters;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import defs.dto.CurrencyDTO;
+import defs.dto.IncomeSourceDTO;
+import defs.dto.LoanApplicantDTO;
+import defs.dto.LoanDTO;
+import defs.dto.LoanTypeDTO;
+import defs.dto.RecurringExpenseDTO;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that the hand-written DTO adapters write and read the same JSON as Gson's reflective adapters, which they
+ * replace. The reflective Gson only has the LocalDate adapter registered, as Gson cannot reflect into LocalDate.
+ */
+public class DTOTypeAdapterFactoryTest {
+    private final Gson adapters = builder().registerTypeAdapterFactory(new DTOTypeAdapterFactory()).create();
+    private final Gson reflective = builder().create();
+    private final Gson adaptersWithNulls = builder().registerTypeAdapterFactory(new DTOTypeAdapterFactory())
+        .serializeNulls().create();
+    private final Gson reflectiveWithNulls = builder().serializeNulls().create();
+
+    private static GsonBuilder builder() {
+        return new GsonBuilder().registerTypeAdapter(LocalDate.class, new LocalDateTypeAdapter());
+    }
+
+    @Test
+    public void loanApplicant() {
+        IncomeSourceDTO incomeSource = new IncomeSourceDTO(3L, 1L, "Salary", 2500.5, "EUR");
+        RecurringExpenseDTO recurringExpense = new RecurringExpenseDTO(4L, null, "Rent \"flat\" \u20ac", 900, "GBP");
+        assertRoundTrip(LoanApplicantDTO.class, new LoanApplicantDTO(1L, "Zo\u00eb", "O'Brien",
+            LocalDate.of(1990, 2, 28), "+35699123456", "zoe@example.com", Collections.singletonList(incomeSource),
+            Arrays.asList(recurringExpense, recurringExpense)));
+        assertRoundTrip(LoanApplicantDTO.class, new LoanApplicantDTO(null, "A", null, null, null, null,
+            Collections.emptyList(), null));
+        assertRoundTrip(LoanApplicantDTO.class, new LoanApplicantDTO());
+        assertSameRead(LoanApplicantDTO.class, "{\"id\":\"7\",\"firstName\":12,\"unknown\":{\"a\":[1,2]}," +
+            "\"dateOfBirth\":\"2000-01-01\",\"incomeSources\":[{\"monthlyIncome\":null,\"currency\":true}]," +
+            "\"recurringExpenses\":null}");
+        assertSameFailure(LoanApplicantDTO.class, "{\"id\":\"seven\"}");
+        assertSameFailure(LoanApplicantDTO.class, "{\"incomeSources\":{}}");
+    }
+
+    @Test
+    public void loan() {
+        assertRoundTrip(LoanDTO.class, new LoanDTO(1L, 2L, "HOME", 250000.25, "EUR"));
+        assertRoundTrip(LoanDTO.class, new LoanDTO(null, null, null, 0, null));
+        assertRoundTrip(LoanDTO.class, new LoanDTO(1L, 2L, "CAR", 1e-7, "EUR"));
+        assertSameRead(LoanDTO.class, "{\"valueOfPurchase\":\"12.5\",\"applicantId\":3,\"extra\":null}");
+        assertSameRead(LoanDTO.class, "{\"valueOfPurchase\":null}");
+        assertSameFailure(LoanDTO.class, "{\"valueOfPurchase\":\"lots\"}");
+        assertSameFailure(LoanDTO.class, "{\"applicantId\":1.5}");
+    }
+
+    @Test
+    public void incomeSource() {
+        assertRoundTrip(IncomeSourceDTO.class, new IncomeSourceDTO(1L, 2L, "Salary", 3000, "EUR"));
+        assertRoundTrip(IncomeSourceDTO.class, new IncomeSourceDTO());
+        assertSameRead(IncomeSourceDTO.class, "{\"monthlyIncome\":-1,\"incomeType\":false,\"skip\":[{}]}");
+        assertSameFailure(IncomeSourceDTO.class, "{\"id\":[]}");
+    }
+
+    @Test
+    public void recurringExpense() {
+        assertRoundTrip(RecurringExpenseDTO.class, new RecurringExpenseDTO(1L, 2L, "Rent", 900.99, "GBP"));
+        assertRoundTrip(RecurringExpenseDTO.class, new RecurringExpenseDTO());
+        assertSameRead(RecurringExpenseDTO.class, "{\"monthlyExpense\":1E3,\"currency\":\"\\u20ac\"}");
+        assertSameFailure(RecurringExpenseDTO.class, "{\"monthlyExpense\":{}}");
+    }
+
+    @Test
+    public void currency() {
+        assertRoundTrip(CurrencyDTO.class, new CurrencyDTO("EUR", "\u20ac"));
+        assertRoundTrip(CurrencyDTO.class, new CurrencyDTO(null, null));
+        assertSameRead(CurrencyDTO.class, "{\"code\":1,\"symbol\":null,\"other\":\"x\"}");
+        assertSameFailure(CurrencyDTO.class, "{\"code\":[]}");
+    }
+
+    @Test
+    public void loanType() {
+        assertRoundTrip(LoanTypeDTO.class, new LoanTypeDTO("HOME", "House </script>"));
+        assertRoundTrip(LoanTypeDTO.class, new LoanTypeDTO(null, null));
+        assertSameRead(LoanTypeDTO.class, "{\"loanPurchase\":true,\"loanName\":\"CAR\"}");
+        assertSameFailure(LoanTypeDTO.class, "{\"loanName\":{}}");
+    }
+
+    @Test
+    public void nullDTO() {
+        assertEquals(reflective.toJson(null, LoanApplicantDTO.class), adapters.toJson(null, LoanApplicantDTO.class));
+        assertEquals(null, adapters.fromJson("null", LoanDTO.class));
+    }
+
+    /**
+     * Asserts that a DTO is written the same by both Gson instances, with and without nulls, and that reading the
+     * JSON back gives a DTO that is again written the same.
+     */
+    private <DTO> void assertRoundTrip(Class<DTO> type, DTO dto) {
+        String json = reflective.toJson(dto, type);
+        assertEquals(json, adapters.toJson(dto, type));
+        assertEquals(reflectiveWithNulls.toJson(dto, type), adaptersWithNulls.toJson(dto, type));
+        assertSameRead(type, json);
+        assertSameRead(type, reflectiveWithNulls.toJson(dto, type));
+    }
+
+    /**
+     * Asserts that both Gson instances read the same DTO from some JSON, comparing the DTOs by their reflective JSON.
+     */
+    private <DTO> void assertSameRead(Class<DTO> type, String json) {
+        assertEquals(reflectiveWithNulls.toJson(reflective.fromJson(json, type), type),
+            reflectiveWithNulls.toJson(adapters.fromJson(json, type), type));
+    }
+
+    /**
+     * Asserts that both Gson instances reject some JSON, the adapters with a JsonSyntaxException. Gson's reflective
+     * double adapter lets a NumberFormatException through, so any exception from reflection counts.
+     */
+    private <DTO> void assertSameFailure(Class<DTO> type, String json) {
+        try {
+            reflective.fromJson(json, type);
+            fail("Reflection accepted " + json);
+        } catch (RuntimeException e) {
+            // Expected
+        }
+        try {
+            adapters.fromJson(json, type);
+            fail("Adapters accepted " + json);
+        } catch (JsonSyntaxException e) {
+            // Expected
+        }
+    }
+}
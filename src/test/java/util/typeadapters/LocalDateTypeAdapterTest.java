@@ -0,0 +1,87 @@
+package util.typeadapters;
+
+import com.google.gson.stream.JsonReader;
+import defs.errors.BadSyntaxException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+public class LocalDateTypeAdapterTest {
+    private final LocalDateTypeAdapter adapter = new LocalDateTypeAdapter();
+
+    @Test
+    public void roundTripsLikeTheIsoFormatter() throws IOException {
+        for (LocalDate date = LocalDate.of(1899, 12, 25); date.getYear() < 2101; date = date.plusDays(1)) {
+            assertRoundTrip(date);
+        }
+        assertRoundTrip(LocalDate.of(0, 1, 1));
+        assertRoundTrip(LocalDate.of(9999, 12, 31));
+        assertRoundTrip(LocalDate.of(2024, 2, 29));
+    }
+
+    @Test
+    public void fallsBackToTheFormatterOutsideFourDigitYears() throws IOException {
+        assertRoundTrip(LocalDate.of(-1, 6, 15));
+        assertRoundTrip(LocalDate.of(10000, 1, 1));
+        assertRoundTrip(LocalDate.of(99999, 1, 1));
+        assertEquals("\"+99999-01-01\"", adapter.toJson(LocalDate.of(99999, 1, 1)));
+    }
+
+    @Test
+    public void keepsDatesThatShareACacheSlotApart() throws IOException {
+        // Both dates map to the same slot of the 4096 entry cache
+        LocalDate first = LocalDate.of(2000, 1, 1);
+        LocalDate second = LocalDate.of(2011, 1, 5);
+        for (int i = 0; i < 2; i++) {
+            assertEquals("\"2000-01-01\"", adapter.toJson(first));
+            assertEquals("\"2011-01-05\"", adapter.toJson(second));
+            assertEquals(first, adapter.fromJson("\"2000-01-01\""));
+            assertEquals(second, adapter.fromJson("\"2011-01-05\""));
+        }
+    }
+
+    @Test
+    public void reusesCachedDates() throws IOException {
+        assertSame(adapter.fromJson("\"1990-01-31\""), adapter.fromJson("\"1990-01-31\""));
+    }
+
+    @Test
+    public void rejectsInvalidDates() {
+        for (String text : new String[]{"2023-02-30", "2023-13-01", "2023-00-10", "2023-04-31", "2023-1-01",
+            "2023/01/01", "99999-01-01", "2023-01-01T00:00", "", "today"}) {
+            assertThrows(text, BadSyntaxException.class, () -> adapter.fromJson("\"" + text + "\""));
+        }
+    }
+
+    @Test
+    public void rejectsValuesThatAreNotStrings() throws IOException {
+        JsonReader reader = new JsonReader(new StringReader("[20230101, {\"year\": 2023}, true, \"2023-01-01\"]"));
+        reader.beginArray();
+        for (int i = 0; i < 3; i++) {
+            assertThrows(BadSyntaxException.class, () -> adapter.read(reader));
+        }
+        // The rejected values are skipped, so the reader can go on
+        assertEquals(LocalDate.of(2023, 1, 1), adapter.read(reader));
+        reader.endArray();
+    }
+
+    @Test
+    public void readsAndWritesNull() throws IOException {
+        assertEquals("null", adapter.toJson(null));
+        assertNull(adapter.fromJson("null"));
+    }
+
+    private void assertRoundTrip(LocalDate date) throws IOException {
+        String json = "\"" + date.format(DateTimeFormatter.ISO_LOCAL_DATE) + "\"";
+        assertEquals(json, adapter.toJson(date));
+        assertEquals(date, adapter.fromJson(json));
+    }
+}